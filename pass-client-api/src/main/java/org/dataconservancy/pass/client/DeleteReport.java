@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.net.URI;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The outcome of deleting each of the URIs passed to PassClient.deleteResources. Every URI is in exactly one 
+ * of deleted, not found, or failed.
+ * @author agent
+ */
+public final class DeleteReport {
+
+    private final Set<URI> deleted;
+
+    private final Set<URI> notFound;
+
+    private final Map<URI, Exception> failures;
+
+    /**
+     * @param deleted URIs of the resources that were deleted
+     * @param notFound URIs that had no resource, or whose resource had already been deleted
+     * @param failures URIs that could not be deleted, with the reason
+     */
+    public DeleteReport(Set<URI> deleted, Set<URI> notFound, Map<URI, Exception> failures) {
+        this.deleted = Collections.unmodifiableSet(new LinkedHashSet<URI>(deleted));
+        this.notFound = Collections.unmodifiableSet(new LinkedHashSet<URI>(notFound));
+        this.failures = Collections.unmodifiableMap(new LinkedHashMap<URI, Exception>(failures));
+    }
+
+    /**
+     * @return URIs of the resources that were deleted
+     */
+    public Set<URI> getDeleted() {
+        return deleted;
+    }
+
+    /**
+     * @return URIs that had no resource, or whose resource had already been deleted
+     */
+    public Set<URI> getNotFound() {
+        return notFound;
+    }
+
+    /**
+     * @return URIs that could not be deleted, with the exception that prevented it
+     */
+    public Map<URI, Exception> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return true if none of the URIs failed
+     */
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d deleted, %d not found, %d failed", deleted.size(), notFound.size(), failures.size());
+    }
+
+}
@@ -19,10 +19,15 @@ import java.io.InputStream;
 import java.net.URI;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 import org.dataconservancy.pass.model.PassEntity;
+import org.joda.time.DateTime;
 
 /**
  * Interface for interactions with PASS database
@@ -69,12 +74,53 @@ public interface PassClient {
      * @return an updated version of the resource
      */
     public <T extends PassEntity> T updateAndReadResource(T modelObj, Class<T> modelClass);
+
+    /**
+     * Reads the entity at the URI provided, passes it to the mutator, and writes back the result, repeating 
+     * the cycle when another writer has updated the entity in between and the update fails with an 
+     * `UpdateConflictException`. Before each retry the caller waits for a random time that grows with the number 
+     * of conflicts, as set by the policy, and the entity is then read again without sharing a read already in 
+     * progress, so that the retry has the latest version tag. The mutator may be called more than once, each 
+     * time with a freshly read entity, so it should only change the entity it is passed. If it returns null, 
+     * nothing is written. If every attempt conflicts, an `UpdateConflictException` is thrown.
+     * @param uri
+     * @param modelClass
+     * @param mutator changes the entity, returning the entity to write, or null to leave it as it is
+     * @param policy number of attempts and waits between them
+     * @return the entity as written, with the version tag returned for the update when the repository 
+     * provides one, or null if the mutator returned null
+     */
+    public <T extends PassEntity> T updateWithRetry(URI uri, Class<T> modelClass, UnaryOperator<T> mutator, RetryPolicy policy);
     
     /** 
      * Deletes the entity matching the URI provided
      * @param modelObj
      */
     public void deleteResource(URI uri);
+
+    /**
+     * Deletes the entities matching the URIs provided, several at a time, and reports the outcome for each 
+     * URI rather than stopping at the first failure. The number of deletes in parallel, and whether they are 
+     * grouped into transactions or have their tombstones purged, are set by the pass.fedora.delete settings.
+     * @param uris
+     * @return the outcome for each URI
+     */
+    public DeleteReport deleteResources(Collection<URI> uris);
+
+    /**
+     * Deletes the entities matching the URIs provided, several at a time, and reports the outcome for each URI 
+     * rather than stopping at the first failure. With transaction set, the URIs are deleted in groups, each 
+     * group in a repository transaction that is only committed if every delete in it succeeds, so a group is 
+     * deleted entirely or not at all. The deletes within a group are made one at a time, since a transaction 
+     * cannot safely take concurrent requests, and up to parallelism groups are deleted at once. With purge set, 
+     * the tombstone each delete leaves behind is also deleted, so that the URI can be used again.
+     * @param uris
+     * @param parallelism maximum number of deletes, or with transaction set of groups, in progress at once
+     * @param transaction true to delete in transactions
+     * @param purge true to delete tombstones
+     * @return the outcome for each URI
+     */
+    public DeleteReport deleteResources(Collection<URI> uris, int parallelism, boolean transaction, boolean purge);
     
     /**
      * Retrieves the entity matching the URI provided, populates the  
@@ -106,7 +152,54 @@ public interface PassClient {
      * @return
      */
     public <T extends PassEntity> URI findByAttribute(Class<T> modelClass, String attribute, Object value);
-    
+
+
+    /**
+     * Retrieves the URI of a SINGLE RECORD for each of the values provided by matching the entity type and
+     * filtering by the field specified. This is equivalent to calling findByAttribute once per value, but the
+     * lookups are packed into multi-search requests so that many values cost only a few round trips to the index.
+     * For example, to find the Grants matching a list of localKeys:
+     *
+     *    List<String> localKeys = Arrays.asList("abc", "def", "ghi");
+     *    Map<String, URI> grantIds = findByAttributeBatch(Grant.class, "localKey", localKeys);
+     *
+     * The returned map will contain a key for each distinct value provided, in the order supplied. Where no record
+     * matches a value, the value will map to null. If >1 records are found for any of the values, a RuntimeException
+     * will be thrown that lists each value that did not match a single record.
+     *
+     * By default 100 lookups will be sent per request, unless the pass.elasticsearch.batchsize environment variable is set.
+     *
+     * Each value will be converted to a String for the purpose of searching the index. The values cannot be
+     * Collections.
+     *
+     * @param modelClass
+     * @param attribute
+     * @param values
+     * @return
+     */
+    public <T extends PassEntity, V> Map<V, URI> findByAttributeBatch(Class<T> modelClass, String attribute, Collection<V> values);
+
+
+    /**
+     * Retrieves the URI of a SINGLE RECORD for each of the values provided by matching the entity type and
+     * filtering by the field specified. Lookups are packed into multi-search requests containing at most
+     * batchSize searches. This will override the batch size env variable
+     *
+     * The returned map will contain a key for each distinct value provided, in the order supplied. Where no record
+     * matches a value, the value will map to null. If >1 records are found for any of the values, a RuntimeException
+     * will be thrown that lists each value that did not match a single record.
+     *
+     * Each value will be converted to a String for the purpose of searching the index. The values cannot be
+     * Collections.
+     *
+     * @param modelClass
+     * @param attribute
+     * @param values
+     * @param batchSize
+     * @return
+     */
+    public <T extends PassEntity, V> Map<V, URI> findByAttributeBatch(Class<T> modelClass, String attribute, Collection<V> values, int batchSize);
+
     
     /**
      * Retrieves URIs for MULTIPLE MATCHING RECORDS by matching the entity type and filtering by the field
@@ -208,6 +301,275 @@ public interface PassClient {
      */
     public <T extends PassEntity> Set<URI> findAllByAttributes(Class<T> modelClass, Map<String, Object> attributeValuesMap, int limit, int offset);
 
+
+    /**
+     * Streams the URIs of ALL records that match the entity type and all of the attributes and values specified, 
+     * as per findAllByAttributes, but without the pass.elasticsearch.limit cap. The index is read a page at a 
+     * time, and a page is only read when the subscriber has requested more URIs than are left from the last, so 
+     * no more than one page is held at once however many records match. Each subscriber reads the index afresh.
+     * 
+     * @param modelClass
+     * @param attributeValuesMap
+     * @return publisher of the matching URIs
+     */
+    public <T extends PassEntity> PassFlow.Publisher<URI> publishAllByAttributes(Class<T> modelClass, Map<String, Object> attributeValuesMap);
+
+
+    /**
+     * Streams ALL entities that match the entity type and all of the attributes and values specified, reading 
+     * each from the repository, so that they are current and have a version tag. URIs are streamed from the index 
+     * as per publishAllByAttributes, and up to maxConcurrency entities are read from the repository in parallel. 
+     * Reads are only started when the subscriber has requested entities, and entities that have been read wait 
+     * for the subscriber in a buffer of at most maxConcurrency. Entities are sent in the order their reads 
+     * complete. An entity that cannot be read fails the stream.
+     * 
+     * @param modelClass
+     * @param attributeValuesMap
+     * @param maxConcurrency maximum number of entities read in parallel
+     * @return publisher of the matching entities
+     */
+    public <T extends PassEntity> PassFlow.Publisher<T> publishAllEntitiesByAttributes(Class<T> modelClass, Map<String, Object> attributeValuesMap, int maxConcurrency);
+
+
+    /**
+     * Retrieves MULTIPLE MATCHING ENTITIES by matching the entity type and filtering by the attributes and 
+     * values specified, as per findAllByAttributes. The entities are populated directly from the documents 
+     * held in the index, so no requests are made to the repository. 
+     * 
+     * Index documents can lag behind the repository. Each entity returned is therefore marked as index-sourced 
+     * (see PassEntity.isIndexSourced()) and has no version tag. Index-sourced entities cannot be passed to 
+     * updateResource; read the entity from the repository first, or use the variant of this function that 
+     * accepts a predicate identifying the entities that will be updated.
+     *    
+     * By default this will return a maximum of 200 matching records, unless the pass.elasticsearch.limit
+     * environment variable is set. If there are no matches, it will return an empty list.      
+     * 
+     * @param modelClass
+     * @param attributeValuesMap
+     * @return the matching entities, in the order returned by the index
+     */
+    public <T extends PassEntity> List<T> findAllEntitiesByAttributes(Class<T> modelClass, Map<String, Object> attributeValuesMap);
+
+
+    /**
+     * Retrieves MULTIPLE MATCHING ENTITIES by matching the entity type and filtering by the attributes and 
+     * values specified, as per findAllByAttributes. The entities are populated directly from the documents 
+     * held in the index, so no requests are made to the repository. 
+     * 
+     * Index documents can lag behind the repository. Each entity returned is therefore marked as index-sourced 
+     * (see PassEntity.isIndexSourced()) and has no version tag. Index-sourced entities cannot be passed to 
+     * updateResource; read the entity from the repository first, or use the variant of this function that 
+     * accepts a predicate identifying the entities that will be updated.
+     *    
+     * The number of records will be limited by limit provided, and the offset will be applied to the default 
+     * sorting. If there are no matches, it will return an empty list. This will override the limit env variable
+     * 
+     * @param modelClass
+     * @param attributeValuesMap
+     * @param limit
+     * @param offset
+     * @return the matching entities, in the order returned by the index
+     */
+    public <T extends PassEntity> List<T> findAllEntitiesByAttributes(Class<T> modelClass, Map<String, Object> attributeValuesMap, int limit, int offset);
+
+
+    /**
+     * Retrieves MULTIPLE MATCHING ENTITIES as per findAllEntitiesByAttributes(Class, Map, int, int), but re-reads 
+     * from the repository each entity that the caller intends to update. Entities matching {@code forUpdate} are 
+     * replaced with a fresh copy from the repository, which carries a version tag and can be passed to 
+     * updateResource. All other entities are populated from the index and are marked as index-sourced.
+     * For example, to list a User's Submissions and update only those that have not been submitted:
+     * 
+     *    Map<String, Object> map = new HashMap<String, Object>();
+     *    map.put("user", userId);
+     *    List<Submission> submissions = findAllEntitiesByAttributes(Submission.class, map, 50, 0, 
+     *            s -> !Boolean.TRUE.equals(s.getSubmitted()));
+     * 
+     * @param modelClass
+     * @param attributeValuesMap
+     * @param limit
+     * @param offset
+     * @param forUpdate identifies the entities, as populated from the index, to re-read from the repository
+     * @return the matching entities, in the order returned by the index
+     */
+    public <T extends PassEntity> List<T> findAllEntitiesByAttributes(Class<T> modelClass, Map<String, Object> attributeValuesMap, int limit, int offset, Predicate<? super T> forUpdate);
+
+
+    /**
+     * Counts the records that match the entity type and the value provided for the field specified, without 
+     * retrieving them. For example, to count the Deposits of a Repository:
+     * 
+     *    URI repositoryId = new URI("https://example.com/fedora/repositories/3");
+     *    long count = countByAttribute(Deposit.class, "repository", repositoryId);
+     *    
+     * Unlike the findAllByAttribute functions, the count is not capped by the pass.elasticsearch.limit 
+     * environment variable. Matching follows the same rules as findAllByAttribute. The value parameter will be 
+     * converted to a String for the purpose of searching the index. The value parameter cannot be a Collection.
+     * 
+     * @param modelClass
+     * @param attribute
+     * @param value
+     * @return the number of matching records
+     */
+    public <T extends PassEntity> long countByAttribute(Class<T> modelClass, String attribute, Object value);
+
+
+    /**
+     * Counts the records that match the entity type and all of the attributes and values specified, without 
+     * retrieving them. For example, to count the accepted Deposits of a Repository:
+     * 
+     *    Map<String, Object> map = new HashMap<String, Object>();
+     *    map.put("repository", new URI("https://example.com/fedora/repositories/3"));
+     *    map.put("depositStatus", DepositStatus.ACCEPTED);
+     *    long count = countByAttributes(Deposit.class, map);
+     *    
+     * Unlike the findAllByAttributes functions, the count is not capped by the pass.elasticsearch.limit 
+     * environment variable. Matching follows the same rules as findAllByAttributes. The map's values will be 
+     * converted to a String for the purpose of searching the index, and cannot be a Collection. 
+     * 
+     * @param modelClass
+     * @param attributeValuesMap
+     * @return the number of matching records
+     */
+    public <T extends PassEntity> long countByAttributes(Class<T> modelClass, Map<String, Object> attributeValuesMap);
+
+
+    /**
+     * Counts the records of an entity type per distinct value of a field, with the counting done by the 
+     * index rather than by reading each record. For example, to count the Deposits of each status for a 
+     * Repository:
+     * 
+     *    Map<String, Object> filters = new HashMap<String, Object>();
+     *    filters.put("repository", new URI("https://example.com/fedora/repositories/3"));
+     *    Map<String, Long> counts = facetCounts(Deposit.class, "depositStatus", filters);
+     *    
+     * The map returned is ordered from the most to the least frequent value. Records without a value for the 
+     * field are not counted. The number of distinct values returned is capped by the pass.elasticsearch.limit 
+     * environment variable. Filters follow the same matching rules as findAllByAttributes, and may be null or 
+     * empty to count all records of the type. 
+     * 
+     * @param modelClass
+     * @param field
+     * @param filters
+     * @return number of matching records per field value
+     */
+    public <T extends PassEntity> Map<String, Long> facetCounts(Class<T> modelClass, String field, Map<String, Object> filters);
+
+
+    /**
+     * Counts the records of an entity type per interval of a date field, with the counting done by the index 
+     * rather than by reading each record. For example, to count the submitted Submissions per month:
+     * 
+     *    Map<String, Object> filters = new HashMap<String, Object>();
+     *    filters.put("submitted", true);
+     *    Map<DateTime, Long> counts = dateHistogramCounts(Submission.class, "submittedDate", "month", filters);
+     *    
+     * The interval can be a calendar unit (minute, hour, day, week, month, quarter or year) or a fixed length 
+     * such as "90m" or "7d". The map returned is keyed by the start of each interval in UTC and ordered by date. 
+     * Intervals with no matching records between the first and last match are included with a count of 0. 
+     * Filters follow the same matching rules as findAllByAttributes, and may be null or empty.
+     * 
+     * @param modelClass
+     * @param field
+     * @param interval
+     * @param filters
+     * @return number of matching records per interval
+     */
+    public <T extends PassEntity> Map<DateTime, Long> dateHistogramCounts(Class<T> modelClass, String field, String interval, Map<String, Object> filters);
+
+
+    /**
+     * Asynchronous version of findByAttribute. The search is sent to the index without blocking the calling 
+     * thread, and the returned future completes with the matching URI, or null if there was no match. The 
+     * future completes exceptionally if more than one record matched or the search failed. Invalid parameters 
+     * are rejected immediately with an IllegalArgumentException rather than through the future.
+     * 
+     * The future may be completed by the index client's I/O thread, so dependent stages should not block. Use 
+     * the *Async methods of CompletableFuture with your own executor for any blocking follow-up work.
+     * 
+     * @param modelClass
+     * @param attribute
+     * @param value
+     * @return future URI of matching record, or null if none found
+     */
+    public <T extends PassEntity> CompletableFuture<URI> findByAttributeAsync(Class<T> modelClass, String attribute, Object value);
+
+
+    /**
+     * Asynchronous version of findAllByAttribute. Several searches can be started at once and combined, 
+     * for example:
+     * 
+     *    CompletableFuture<Set<URI>> deposits = findAllByAttributeAsync(Deposit.class, "submission", submissionId);
+     *    CompletableFuture<Set<URI>> files = findAllByAttributeAsync(File.class, "submission", submissionId);
+     *    CompletableFuture.allOf(deposits, files).join();
+     *    
+     * See findByAttributeAsync for threading and error handling.
+     * 
+     * @param modelClass
+     * @param attribute
+     * @param value
+     * @return future set of URIs for matching records
+     */
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttributeAsync(Class<T> modelClass, String attribute, Object value);
+
+
+    /**
+     * Asynchronous version of findAllByAttribute with a limit and offset. See findByAttributeAsync for threading 
+     * and error handling.
+     * 
+     * @param modelClass
+     * @param attribute
+     * @param value
+     * @param limit
+     * @param offset
+     * @return future set of URIs for matching records
+     */
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttributeAsync(Class<T> modelClass, String attribute, Object value, int limit, int offset);
+
+
+    /**
+     * Asynchronous version of findAllByAttributes. See findByAttributeAsync for threading and error handling.
+     * 
+     * @param modelClass
+     * @param attributeValuesMap
+     * @return future set of URIs for matching records
+     */
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttributesAsync(Class<T> modelClass, Map<String, Object> attributeValuesMap);
+
+
+    /**
+     * Asynchronous version of findAllByAttributes with a limit and offset. See findByAttributeAsync for threading 
+     * and error handling.
+     * 
+     * @param modelClass
+     * @param attributeValuesMap
+     * @param limit
+     * @param offset
+     * @return future set of URIs for matching records
+     */
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttributesAsync(Class<T> modelClass, Map<String, Object> attributeValuesMap, int limit, int offset);
+
+
+    /**
+     * Asynchronous version of countByAttribute. See findByAttributeAsync for threading and error handling.
+     * 
+     * @param modelClass
+     * @param attribute
+     * @param value
+     * @return future number of matching records
+     */
+    public <T extends PassEntity> CompletableFuture<Long> countByAttributeAsync(Class<T> modelClass, String attribute, Object value);
+
+
+    /**
+     * Asynchronous version of countByAttributes. See findByAttributeAsync for threading and error handling.
+     * 
+     * @param modelClass
+     * @param attributeValuesMap
+     * @return future number of matching records
+     */
+    public <T extends PassEntity> CompletableFuture<Long> countByAttributesAsync(Class<T> modelClass, Map<String, Object> attributeValuesMap);
+
     /**
      * Retrieve inbound links to the repository resource identified by {@code passEntity}.
      * <p>
@@ -220,6 +582,23 @@ public interface PassClient {
      */
     public Map<String, Collection<URI>> getIncoming(URI passEntity);
 
+    /**
+     * Retrieve some of the inbound links to the repository resource identified by {@code passEntity}. Only links 
+     * whose predicate passes the filter are returned, and no more than {@code limit} of them. The response is 
+     * read as a stream and reading stops once the limit is reached, so this is the form to use for resources 
+     * with many inbound links, for example:
+     * <pre>
+     * client.getIncoming(submissionUri, "submission"::equals, 100)
+     * </pre>
+     * Which links are returned when the limit is reached is not defined.
+     *
+     * @param passEntity the URI of a repository resource
+     * @param fieldFilter tests the predicate of each link
+     * @param limit the maximum number of links to return, or 0 to return all of them
+     * @return a {@code Map} keyed by predicate, may be empty but never {@code null}
+     */
+    public Map<String, Collection<URI>> getIncoming(URI passEntity, Predicate<String> fieldFilter, int limit);
+
     /**
      * {@code POST}s the {@code content} to {@code entityUri}.
      * <p>
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+/**
+ * Interfaces for streams of results with backpressure, as returned by the PassClient publish functions. They 
+ * have the same methods and contract as java.util.concurrent.Flow in Java 9 and later, and as the Reactive 
+ * Streams API, which the client cannot depend on while it supports Java 8. A publisher can be used with either 
+ * through a trivial adapter that passes each call through.
+ * <p>
+ * A subscriber receives nothing until it requests items through its subscription, and never receives more 
+ * items than it has requested, so it can consume them at its own speed.
+ * </p>
+ * @author agent
+ */
+public final class PassFlow {
+
+    private PassFlow() {
+    }
+
+    /**
+     * A source of items, which are sent to each subscriber as it requests them
+     * @param <T> type of item
+     */
+    @FunctionalInterface
+    public static interface Publisher<T> {
+
+        /**
+         * Adds a subscriber, which is passed its subscription through onSubscribe
+         * @param subscriber
+         */
+        public void subscribe(Subscriber<? super T> subscriber);
+
+    }
+
+    /**
+     * Receives the items of a publisher. The methods are called one at a time, never concurrently.
+     * @param <T> type of item
+     */
+    public static interface Subscriber<T> {
+
+        /**
+         * Called before any other method, with the subscription used to request items
+         * @param subscription
+         */
+        public void onSubscribe(Subscription subscription);
+
+        /**
+         * Called with each item, no more often than items have been requested
+         * @param item
+         */
+        public void onNext(T item);
+
+        /**
+         * Called when the stream fails, after which no other method is called
+         * @param throwable
+         */
+        public void onError(Throwable throwable);
+
+        /**
+         * Called when every item has been sent, after which no other method is called
+         */
+        public void onComplete();
+
+    }
+
+    /**
+     * Links a subscriber to a publisher
+     */
+    public static interface Subscription {
+
+        /**
+         * Asks for up to n more items
+         * @param n number of items, which must be positive
+         */
+        public void request(long n);
+
+        /**
+         * Stops the stream. Items that were already on their way may still be sent.
+         */
+        public void cancel();
+
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * How often, and how soon, an update that conflicts with another writer is tried again by 
+ * PassClient.updateWithRetry. The wait before each retry is picked at random between zero and a ceiling that 
+ * doubles with every conflict, up to maxDelayMillis, so that writers that collided once spread out rather 
+ * than colliding again.
+ * @author agent
+ */
+public final class RetryPolicy {
+
+    /**
+     * Up to 5 attempts, waiting up to 50ms before the first retry and never more than 2 seconds
+     */
+    public static final RetryPolicy DEFAULT = new RetryPolicy(5, 50, 2000);
+
+    private final int maxAttempts;
+
+    private final long initialDelayMillis;
+
+    private final long maxDelayMillis;
+
+    /**
+     * @param maxAttempts total number of attempts, including the first
+     * @param initialDelayMillis ceiling of the wait before the first retry
+     * @param maxDelayMillis ceiling of the wait before any retry
+     */
+    public RetryPolicy(int maxAttempts, long initialDelayMillis, long maxDelayMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        if (initialDelayMillis < 0 || maxDelayMillis < initialDelayMillis) {
+            throw new IllegalArgumentException("Delays must be positive, and maxDelayMillis at least initialDelayMillis");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialDelayMillis = initialDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * @return total number of attempts, including the first
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @return ceiling of the wait before the first retry
+     */
+    public long getInitialDelayMillis() {
+        return initialDelayMillis;
+    }
+
+    /**
+     * @return ceiling of the wait before any retry
+     */
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    /**
+     * Picks how long to wait before a retry
+     * @param conflicts number of attempts that have conflicted so far, at least 1
+     * @return milliseconds to wait
+     */
+    public long getDelay(int conflicts) {
+        int doublings = Math.min(Math.max(conflicts, 1) - 1, 30);
+        long ceiling = initialDelayMillis > (maxDelayMillis >> doublings) ? maxDelayMillis : initialDelayMillis << doublings;
+        return ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+    }
+
+}
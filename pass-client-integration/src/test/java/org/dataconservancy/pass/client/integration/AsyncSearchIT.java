@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.integration;
+
+import java.net.URI;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.Test;
+
+import org.dataconservancy.pass.model.Deposit;
+import org.dataconservancy.pass.model.Deposit.DepositStatus;
+import org.dataconservancy.pass.model.PassEntity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for the asynchronous search functions in PassClient
+ * @author agent
+ */
+public class AsyncSearchIT extends ClientITBase {
+
+    /**
+     * Adds Deposits for a Repository, then starts several searches at once and verifies the combined results
+     * match those of the blocking functions
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrentSearches() throws Exception {
+        URI repoUri = new URI("fake:repo:" + System.currentTimeMillis());
+
+        URI uri = null;
+        for(int i = 0; i < 4; i++){
+            Deposit deposit = random(Deposit.class, 1);
+            deposit.setDepositStatus(i < 3 ? DepositStatus.ACCEPTED : DepositStatus.REJECTED);
+            deposit.setRepository(repoUri);
+            uri = client.createResource(deposit);
+            createdUris.put(uri, Deposit.class);
+        }
+
+        final URI searchUri = uri;
+        attempt(RETRIES, () -> { //make sure last one is in the index
+            final URI matchedUri = client.findByAttributeAsync(Deposit.class, "@id", searchUri).join();
+            assertEquals(searchUri, matchedUri);
+        });
+
+        Map<String, Object> attribs = new HashMap<String, Object>();
+        attribs.put("repository", repoUri);
+        attribs.put("depositStatus", DepositStatus.ACCEPTED);
+
+        CompletableFuture<Set<URI>> all = client.findAllByAttributeAsync(Deposit.class, "repository", repoUri);
+        CompletableFuture<Set<URI>> page = client.findAllByAttributeAsync(Deposit.class, "repository", repoUri, 2, 0);
+        CompletableFuture<Set<URI>> accepted = client.findAllByAttributesAsync(Deposit.class, attribs);
+        CompletableFuture<Long> count = client.countByAttributeAsync(Deposit.class, "repository", repoUri);
+        CompletableFuture<Long> acceptedCount = client.countByAttributesAsync(Deposit.class, attribs);
+        CompletableFuture.allOf(all, page, accepted, count, acceptedCount).join();
+
+        assertEquals(client.findAllByAttribute(Deposit.class, "repository", repoUri), all.join());
+        assertEquals(2, page.join().size());
+        assertEquals(3, accepted.join().size());
+        assertTrue(all.join().containsAll(accepted.join()));
+        assertEquals(4, count.join().longValue());
+        assertEquals(3, acceptedCount.join().longValue());
+    }
+
+    /**
+     * Ensures no match found completes with null instead of an exception
+     */
+    @Test
+    public void testNoMatchFound() {
+        assertNull(client.findByAttributeAsync(Deposit.class, "depositStatusRef", "no match").join());
+        assertEquals(0, client.countByAttributeAsync(Deposit.class, "depositStatusRef", "no match").join().longValue());
+    }
+
+    /**
+     * Ensures more than one match completes the future exceptionally
+     * @throws Exception
+     */
+    @Test(expected=CompletionException.class)
+    public void testMoreThanOneMatch() throws Exception {
+        URI repoUri = new URI("fake:repo:" + System.currentTimeMillis());
+        URI uri = null;
+        for(int i = 0; i < 2; i++){
+            Deposit deposit = random(Deposit.class, 1);
+            deposit.setRepository(repoUri);
+            uri = client.createResource(deposit);
+            createdUris.put(uri, Deposit.class);
+        }
+
+        final URI searchUri = uri;
+        attempt(RETRIES, () -> {
+            assertEquals(searchUri, client.findByAttribute(Deposit.class, "@id", searchUri));
+        });
+
+        client.findByAttributeAsync(Deposit.class, "repository", repoUri).join();
+    }
+
+    /**
+     * Check invalid parameters are rejected immediately rather than through the future
+     */
+    @Test(expected=IllegalArgumentException.class)
+    public void testBadClassParam() {
+        client.findAllByAttributeAsync(PassEntity.class, "fake", "fake");
+    }
+
+}
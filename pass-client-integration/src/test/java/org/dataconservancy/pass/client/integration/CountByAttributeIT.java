@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.integration;
+
+import java.net.URI;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.dataconservancy.pass.model.Deposit;
+import org.dataconservancy.pass.model.Deposit.DepositStatus;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for PassClient.countByAttribute and PassClient.countByAttributes
+ * @author agent
+ */
+public class CountByAttributeIT extends ClientITBase {
+
+    /**
+     * Adds Deposits for a Repository with different statuses, then verifies the counts match those
+     * added, including where the count exceeds the limit passed to the findAll functions
+     * @throws Exception
+     */
+    @Test
+    public void testCounts() throws Exception {
+        URI repoUri = new URI("fake:repo:" + System.currentTimeMillis());
+
+        URI uri = null;
+        for(int i = 0; i < 5; i++){
+            Deposit deposit = random(Deposit.class, 1);
+            deposit.setDepositStatus(i < 3 ? DepositStatus.ACCEPTED : DepositStatus.REJECTED);
+            deposit.setRepository(repoUri);
+            uri = client.createResource(deposit);
+            createdUris.put(uri, Deposit.class);
+        }
+
+        final URI searchUri = uri;
+        attempt(RETRIES, () -> { //make sure last one is in the index
+            final URI matchedUri = client.findByAttribute(Deposit.class, "@id", searchUri);
+            assertEquals(searchUri, matchedUri);
+        });
+
+        assertEquals(5, client.countByAttribute(Deposit.class, "repository", repoUri));
+        assertEquals(2, client.findAllByAttribute(Deposit.class, "repository", repoUri, 2, 0).size());
+
+        Map<String, Object> attribs = new HashMap<String, Object>();
+        attribs.put("repository", repoUri);
+        attribs.put("depositStatus", DepositStatus.ACCEPTED);
+        assertEquals(3, client.countByAttributes(Deposit.class, attribs));
+
+        attribs.put("depositStatus", DepositStatus.REJECTED);
+        assertEquals(2, client.countByAttributes(Deposit.class, attribs));
+    }
+
+    /**
+     * Ensures no match found returns 0 instead of exception
+     */
+    @Test
+    public void testNoMatchFound() {
+        assertEquals(0, client.countByAttribute(Deposit.class, "depositStatusRef", "no match"));
+    }
+
+}
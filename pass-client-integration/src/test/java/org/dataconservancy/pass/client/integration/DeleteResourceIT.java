@@ -17,9 +17,13 @@
 package org.dataconservancy.pass.client.integration;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.net.URI;
+import java.util.List;
+import java.util.stream.Collectors;
 
+import org.dataconservancy.pass.client.DeleteReport;
 import org.dataconservancy.pass.client.fedora.FedoraConfig;
 
 import org.apache.http.HttpStatus;
@@ -54,6 +58,39 @@ public class DeleteResourceIT extends ClientITBase {
                 });
     }
 
+    /**
+     * Deletes several resources at once, checking the outcome reported for each, including a URI that has 
+     * already been deleted
+     */
+    @Test
+    public void deleteResourcesTest() {
+        List<URI> uris = PASS_TYPES.stream()
+                .map(cls -> client.createResource(random(cls, 2)))
+                .collect(Collectors.toList());
+        client.deleteResource(uris.get(0));
+
+        DeleteReport report = client.deleteResources(uris, 4, false, false);
+        assertTrue(report.isSuccessful());
+        assertEquals(uris.size() - 1, report.getDeleted().size());
+        assertTrue(report.getNotFound().contains(uris.get(0)));
+        uris.forEach(uri -> assertStatus(uri, HttpStatus.SC_GONE));
+    }
+
+    /**
+     * Deletes resources in a transaction and purges their tombstones, so the URIs are no longer known
+     */
+    @Test
+    public void deleteResourcesInTransactionTest() {
+        List<URI> uris = PASS_TYPES.stream()
+                .map(cls -> client.createResource(random(cls, 2)))
+                .collect(Collectors.toList());
+
+        DeleteReport report = client.deleteResources(uris, 4, true, true);
+        assertTrue(report.isSuccessful());
+        assertEquals(uris.size(), report.getDeleted().size());
+        uris.forEach(uri -> assertStatus(uri, HttpStatus.SC_NOT_FOUND));
+    }
+
     public void assertStatus(URI uri, int status) {
         final HttpGet get = new HttpGet(uri);
 
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.integration;
+
+import java.net.URI;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+
+import org.dataconservancy.pass.model.Deposit;
+import org.dataconservancy.pass.model.Deposit.DepositStatus;
+import org.dataconservancy.pass.model.Submission;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for PassClient.facetCounts and PassClient.dateHistogramCounts
+ * @author agent
+ */
+public class FacetCountsIT extends ClientITBase {
+
+    /**
+     * Adds Deposits for a Repository with different statuses, then verifies the counts per status
+     * @throws Exception
+     */
+    @Test
+    public void testFacetCounts() throws Exception {
+        URI repoUri = new URI("fake:repo:" + System.currentTimeMillis());
+
+        URI uri = null;
+        for(int i = 0; i < 5; i++){
+            Deposit deposit = random(Deposit.class, 1);
+            deposit.setDepositStatus(i < 3 ? DepositStatus.ACCEPTED : DepositStatus.REJECTED);
+            deposit.setRepository(repoUri);
+            uri = client.createResource(deposit);
+            createdUris.put(uri, Deposit.class);
+        }
+
+        final URI searchUri = uri;
+        attempt(RETRIES, () -> { //make sure last one is in the index
+            final URI matchedUri = client.findByAttribute(Deposit.class, "@id", searchUri);
+            assertEquals(searchUri, matchedUri);
+        });
+
+        Map<String, Object> filters = new HashMap<String, Object>();
+        filters.put("repository", repoUri);
+        Map<String, Long> counts = client.facetCounts(Deposit.class, "depositStatus", filters);
+
+        assertEquals(2, counts.size());
+        assertEquals(3L, counts.get("accepted").longValue());
+        assertEquals(2L, counts.get("rejected").longValue());
+        assertEquals("accepted", counts.keySet().iterator().next());
+    }
+
+    /**
+     * Adds Submissions for a User across two months, then verifies the counts per month, including
+     * the empty month between them
+     * @throws Exception
+     */
+    @Test
+    public void testDateHistogramCounts() throws Exception {
+        URI userUri = new URI("fake:user:" + System.currentTimeMillis());
+        DateTime[] dates = {
+            new DateTime(2018, 1, 5, 10, 0, DateTimeZone.UTC),
+            new DateTime(2018, 1, 20, 10, 0, DateTimeZone.UTC),
+            new DateTime(2018, 3, 2, 10, 0, DateTimeZone.UTC)
+        };
+
+        URI uri = null;
+        for (DateTime date : dates) {
+            Submission submission = random(Submission.class, 1);
+            submission.setUser(userUri);
+            submission.setSubmittedDate(date);
+            uri = client.createResource(submission);
+            createdUris.put(uri, Submission.class);
+        }
+
+        final URI searchUri = uri;
+        attempt(RETRIES, () -> {
+            final URI matchedUri = client.findByAttribute(Submission.class, "@id", searchUri);
+            assertEquals(searchUri, matchedUri);
+        });
+
+        Map<String, Object> filters = new HashMap<String, Object>();
+        filters.put("user", userUri);
+        Map<DateTime, Long> counts = client.dateHistogramCounts(Submission.class, "submittedDate", "month", filters);
+
+        assertEquals(3, counts.size());
+        assertEquals(2L, counts.get(new DateTime(2018, 1, 1, 0, 0, DateTimeZone.UTC)).longValue());
+        assertEquals(0L, counts.get(new DateTime(2018, 2, 1, 0, 0, DateTimeZone.UTC)).longValue());
+        assertEquals(1L, counts.get(new DateTime(2018, 3, 1, 0, 0, DateTimeZone.UTC)).longValue());
+    }
+
+    /**
+     * Ensures no match found returns an empty map instead of exception
+     */
+    @Test
+    public void testNoMatchFound() {
+        Map<String, Object> filters = new HashMap<String, Object>();
+        filters.put("depositStatusRef", "no match");
+        assertTrue(client.facetCounts(Deposit.class, "depositStatus", filters).isEmpty());
+    }
+
+    /**
+     * Check facetCounts doesn't accept an empty field
+     */
+    @Test(expected=IllegalArgumentException.class)
+    public void testBadFieldParam() {
+        client.facetCounts(Deposit.class, "", null);
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.integration;
+
+import java.net.URI;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.dataconservancy.pass.model.Grant;
+import org.dataconservancy.pass.model.PassEntity;
+import org.unitils.reflectionassert.ReflectionComparatorMode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.unitils.reflectionassert.ReflectionAssert.assertReflectionEquals;
+
+/**
+ * Tests for PassClient.findAllEntitiesByAttributes
+ * @author agent
+ */
+public class FindAllEntitiesByAttributesIT extends ClientITBase {
+
+    /**
+     * Creates a Grant, then verifies that the entity populated from the index matches the one in the
+     * repository, and is marked as index-sourced
+     */
+    @Test
+    public void testEntityFromIndex() {
+        Grant grant = random(Grant.class, 2);
+        final URI grantId = client.createResource(grant);
+        createdUris.put(grantId, Grant.class);
+
+        attempt(RETRIES, () -> {
+            final URI uri = client.findByAttribute(Grant.class, "@id", grantId);
+            assertEquals(grantId, uri);
+        });
+
+        Map<String, Object> attribs = new HashMap<String, Object>();
+        attribs.put("localKey", grant.getLocalKey());
+        List<Grant> grants = client.findAllEntitiesByAttributes(Grant.class, attribs);
+
+        assertEquals(1, grants.size());
+        Grant indexed = grants.get(0);
+        assertEquals(grantId, indexed.getId());
+        assertTrue(indexed.isIndexSourced());
+        assertNull(indexed.getVersionTag());
+
+        Grant stored = client.readResource(grantId, Grant.class);
+        assertReflectionEquals(normalized(stored), normalized(indexed), ReflectionComparatorMode.LENIENT_ORDER);
+    }
+
+    /**
+     * Verifies that only the entities identified for update are re-read from the repository, and that an
+     * index-sourced entity cannot be updated
+     */
+    @Test
+    public void testReadForUpdate() {
+        Grant grant1 = random(Grant.class, 1);
+        grant1.setProjectName("find-entities-project");
+        Grant grant2 = random(Grant.class, 1);
+        grant2.setProjectName("find-entities-project");
+        final URI grantId1 = client.createResource(grant1);
+        createdUris.put(grantId1, Grant.class);
+        final URI grantId2 = client.createResource(grant2);
+        createdUris.put(grantId2, Grant.class);
+
+        attempt(RETRIES, () -> {
+            assertEquals(grantId1, client.findByAttribute(Grant.class, "@id", grantId1));
+            assertEquals(grantId2, client.findByAttribute(Grant.class, "@id", grantId2));
+        });
+
+        Map<String, Object> attribs = new HashMap<String, Object>();
+        attribs.put("projectName", "find-entities-project");
+        List<Grant> grants = client.findAllEntitiesByAttributes(Grant.class, attribs, 10, 0,
+            g -> g.getId().equals(grantId1));
+
+        assertEquals(2, grants.size());
+        for (Grant grant : grants) {
+            if (grant.getId().equals(grantId1)) {
+                assertFalse(grant.isIndexSourced());
+                assertNotNull(grant.getVersionTag());
+                grant.setAwardNumber("updated");
+                client.updateResource(grant);
+            } else {
+                assertTrue(grant.isIndexSourced());
+                try {
+                    client.updateResource(grant);
+                } catch (IllegalArgumentException e) {
+                    assertTrue(e.getMessage().contains("retrieved from the index"));
+                    continue;
+                }
+                throw new AssertionError("Updating an index-sourced entity should have thrown an exception");
+            }
+        }
+        assertEquals("updated", client.readResource(grantId1, Grant.class).getAwardNumber());
+    }
+
+    /**
+     * Check findAllEntitiesByAttributes doesn't accept PassEntity as a class param
+     */
+    @Test(expected=IllegalArgumentException.class)
+    public void testBadClassParam() {
+        Map<String, Object> attribs = new HashMap<String, Object>();
+        attribs.put("fake", "fake");
+        client.findAllEntitiesByAttributes(PassEntity.class, attribs);
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.integration;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.dataconservancy.pass.model.Grant;
+import org.dataconservancy.pass.model.Submission;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for PassClient.findByAttributeBatch
+ * @author agent
+ */
+public class FindByAttributeBatchIT extends ClientITBase {
+
+    /**
+     * Creates several Grants then looks them all up by localKey using a batch size smaller than the
+     * number of values so that more than one multi-search request is needed. A value with no match
+     * should map to null.
+     * @throws Exception
+     */
+    @Test
+    public void testBatchLookup() throws Exception {
+        List<String> localKeys = new ArrayList<String>();
+        List<URI> grantIds = new ArrayList<URI>();
+        for (int i = 0; i < 5; i++) {
+            Grant grant = random(Grant.class, 1);
+            URI grantId = client.createResource(grant);
+            createdUris.put(grantId, Grant.class);
+            localKeys.add(grant.getLocalKey());
+            grantIds.add(grantId);
+        }
+
+        final URI lastGrantId = grantIds.get(grantIds.size()-1);
+        attempt(RETRIES, () -> { // check the last record exists before continuing
+            final URI uri = client.findByAttribute(Grant.class, "@id", lastGrantId);
+            assertEquals(lastGrantId, uri);
+        });
+
+        localKeys.add("no match");
+        Map<String, URI> matches = client.findByAttributeBatch(Grant.class, "localKey", localKeys, 2);
+
+        assertEquals(6, matches.size());
+        for (int i = 0; i < grantIds.size(); i++) {
+            assertEquals(grantIds.get(i), matches.get(localKeys.get(i)));
+        }
+        assertTrue(matches.containsKey("no match"));
+        assertNull(matches.get("no match"));
+    }
+
+    /**
+     * Ensures that a value matching more than one record is reported in the exception
+     */
+    @Test
+    public void testNonUniqueValue() throws Exception {
+        URI repositoryId = new URI("fake:repo:" + System.currentTimeMillis());
+        for (int i = 0; i < 2; i++) {
+            Submission submission = random(Submission.class, 1);
+            submission.setRepositories(Arrays.asList(repositoryId));
+            final URI submissionId = client.createResource(submission);
+            createdUris.put(submissionId, Submission.class);
+            attempt(RETRIES, () -> {
+                final URI uri = client.findByAttribute(Submission.class, "@id", submissionId);
+                assertEquals(submissionId, uri);
+            });
+        }
+
+        try {
+            client.findByAttributeBatch(Submission.class, "repositories", Arrays.asList(repositoryId, new URI("fake:other")));
+            fail("Test should have thrown exception");
+        } catch (RuntimeException ex) {
+            assertTrue(ex.getMessage().contains(repositoryId.toString()));
+            assertTrue(!ex.getMessage().contains("fake:other"));
+        }
+    }
+
+    /**
+     * Check findByAttributeBatch rejects a value that is a collection
+     */
+    @Test(expected=IllegalArgumentException.class)
+    public void testValueParamAsCollection() {
+        try {
+            List<Object> values = new ArrayList<Object>();
+            values.add(new ArrayList<URI>());
+            client.findByAttributeBatch(Submission.class, "repositories", values);
+        } catch (Exception ex) {
+            assertTrue(ex.getMessage().contains("cannot be a Collection"));
+            throw ex;
+        }
+        fail ("Test should have thrown exception");
+    }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.integration;
+
+import java.net.URI;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.dataconservancy.pass.client.EntityGraph;
+import org.dataconservancy.pass.client.FetchPlan;
+import org.dataconservancy.pass.client.GraphLoader;
+import org.dataconservancy.pass.model.Deposit;
+import org.dataconservancy.pass.model.File;
+import org.dataconservancy.pass.model.Funder;
+import org.dataconservancy.pass.model.Grant;
+import org.dataconservancy.pass.model.PassEntity;
+import org.dataconservancy.pass.model.Submission;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for reading entity graphs with GraphLoader
+ * @author agent
+ */
+public class GraphLoaderIT extends ClientITBase {
+
+    private Funder funder;
+
+    private Grant grant1;
+
+    private Grant grant2;
+
+    private Submission submission;
+
+    private Deposit deposit;
+
+    private File file;
+
+    @Before
+    public void setUp() {
+        funder = create(new Funder());
+
+        // both grants share the funder
+        grant1 = new Grant();
+        grant1.setAwardNumber("graph-1");
+        grant1.setPrimaryFunder(funder.getId());
+        grant1.setDirectFunder(funder.getId());
+        grant1 = create(grant1);
+
+        grant2 = new Grant();
+        grant2.setAwardNumber("graph-2");
+        grant2.setPrimaryFunder(funder.getId());
+        grant2 = create(grant2);
+
+        submission = new Submission();
+        submission.setSource(Submission.Source.PASS);
+        submission.setGrants(Arrays.asList(grant1.getId(), grant2.getId()));
+        submission = create(submission);
+
+        deposit = new Deposit();
+        deposit.setSubmission(submission.getId());
+        deposit = create(deposit);
+
+        file = new File();
+        file.setName("graph.txt");
+        file.setSubmission(submission.getId());
+        file = create(file);
+    }
+
+    /**
+     * Reads a Submission with its Grants, their Funder, and its Deposits, and verifies each entity is read once
+     */
+    @Test
+    public void testLoadGraph() {
+        FetchPlan plan = new FetchPlan(2)
+                .follow(Submission.class, "grants")
+                .follow(Grant.class, "primaryFunder", "directFunder")
+                .followIncoming(Deposit.class, "submission");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            EntityGraph graph = new GraphLoader(client, executor).load(submission.getId(), plan);
+
+            assertEquals(5, graph.size());
+            assertEquals(submission.getId(), graph.getRoot().getId());
+            assertEquals(new HashSet<URI>(submission.getGrants()), ids(graph.getReferences(graph.getRoot(), "grants")));
+
+            Grant loadedGrant = graph.get(grant1.getId(), Grant.class);
+            assertEquals("graph-1", loadedGrant.getAwardNumber());
+            assertEquals(funder.getId(), graph.getReferences(loadedGrant, "directFunder").get(0).getId());
+            assertEquals(1, graph.getAll(Funder.class).size());
+
+            List<Deposit> deposits = graph.getIncoming(submission.getId(), Deposit.class, "submission");
+            assertEquals(1, deposits.size());
+            assertEquals(deposit.getId(), deposits.get(0).getId());
+
+            // the File also refers to the Submission, but was not asked for
+            assertFalse(graph.contains(file.getId()));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Verifies references beyond the depth of the plan are not read
+     */
+    @Test
+    public void testLoadGraphDepth() {
+        FetchPlan plan = new FetchPlan(1).followAll(Submission.class).followAll(Grant.class);
+        EntityGraph graph = new GraphLoader(client).load(submission.getId(), Submission.class, plan);
+
+        assertEquals(3, graph.size());
+        assertTrue(graph.contains(grant2.getId()));
+        assertNull(graph.get(funder.getId()));
+        assertTrue(graph.getReferences(graph.get(grant2.getId()), "primaryFunder").isEmpty());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testBadFetchPlanField() {
+        new FetchPlan(1).follow(Grant.class, "awardNumber");
+    }
+
+    private <T extends PassEntity> T create(T entity) {
+        @SuppressWarnings("unchecked")
+        Class<T> modelClass = (Class<T>) entity.getClass();
+        URI uri = client.createResource(entity);
+        createdUris.put(uri, modelClass);
+        return client.readResource(uri, modelClass);
+    }
+
+    private static HashSet<URI> ids(List<PassEntity> entities) {
+        HashSet<URI> ids = new HashSet<URI>();
+        entities.forEach(e -> ids.add(e.getId()));
+        return ids;
+    }
+
+}
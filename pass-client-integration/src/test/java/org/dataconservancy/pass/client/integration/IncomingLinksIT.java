@@ -18,6 +18,8 @@ package org.dataconservancy.pass.client.integration;
 import org.dataconservancy.pass.client.PassClient;
 import org.dataconservancy.pass.model.Deposit;
 import org.dataconservancy.pass.model.File;
+import org.dataconservancy.pass.model.Repository;
+import org.dataconservancy.pass.model.RepositoryCopy;
 import org.dataconservancy.pass.model.Submission;
 import org.junit.Before;
 import org.junit.Test;
@@ -26,11 +28,13 @@ import org.slf4j.LoggerFactory;
 
 import java.net.URI;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -166,4 +170,96 @@ public class IncomingLinksIT extends ClientITBase {
         assertTrue(deposits.stream().anyMatch(d -> d.getId().equals(depositOne.getId())));
         assertTrue(deposits.stream().anyMatch(d -> d.getId().equals(depositTwo.getId())));
     }
+
+    /**
+     * Only links whose predicate passes the filter are returned.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void getIncomingFiltered() throws Exception {
+        Repository repository = new Repository();
+        repository.setName("RepositoryWithTwoPredicates");
+        repository = client.readResource(client.createResource(repository), Repository.class);
+        createdUris.put(repository.getId(), Repository.class);
+
+        Submission submissionToRepository = new Submission();
+        submissionToRepository.setSource(Submission.Source.PASS);
+        submissionToRepository.setRepositories(Collections.singletonList(repository.getId()));
+        submissionToRepository = client.readResource(client.createResource(submissionToRepository), Submission.class);
+        createdUris.put(submissionToRepository.getId(), Submission.class);
+
+        RepositoryCopy copy = new RepositoryCopy();
+        copy.setRepository(repository.getId());
+        copy = client.readResource(client.createResource(copy), RepositoryCopy.class);
+        createdUris.put(copy.getId(), RepositoryCopy.class);
+
+        Map<String, Collection<URI>> all = client.getIncoming(repository.getId(), field -> true, 0);
+        assertEquals(2, all.size());
+        assertTrue(all.get("repositories").contains(submissionToRepository.getId()));
+        assertTrue(all.get("repository").contains(copy.getId()));
+
+        Map<String, Collection<URI>> filtered = client.getIncoming(repository.getId(), "repository"::equals, 0);
+        assertEquals(1, filtered.size());
+        assertEquals(1, filtered.get("repository").size());
+        assertTrue(filtered.get("repository").contains(copy.getId()));
+
+        assertTrue(client.getIncoming(repository.getId(), "submission"::equals, 0).isEmpty());
+    }
+
+    /**
+     * A limit of 0 returns every link, and a limit of N returns N of them.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void getIncomingLimited() throws Exception {
+        Map<String, Collection<URI>> unlimited = client.getIncoming(submission.getId(), expectedPredicate::equals, 0);
+        assertEquals(3, unlimited.get(expectedPredicate).size());
+
+        Set<URI> expected = new HashSet<>(unlimited.get(expectedPredicate));
+        for (int limit = 1; limit <= 3; limit++) {
+            Map<String, Collection<URI>> limited = client.getIncoming(submission.getId(), 
+                    expectedPredicate::equals, limit);
+            assertEquals(1, limited.size());
+            assertEquals(limit, limited.get(expectedPredicate).size());
+            assertTrue(expected.containsAll(limited.get(expectedPredicate)));
+        }
+
+        Map<String, Collection<URI>> overLimit = client.getIncoming(submission.getId(), expectedPredicate::equals, 10);
+        assertEquals(3, overLimit.get(expectedPredicate).size());
+    }
+
+    /**
+     * A resource without incoming links gives an empty map, whatever the filter and limit.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void getIncomingFilteredNonExisting() throws Exception {
+        Map<String, Collection<URI>> incomingLinks = client.getIncoming(submissionNoIncoming.getId(), field -> true, 0);
+        assertNotNull("Returned map must never be null.", incomingLinks);
+        assertTrue(incomingLinks.isEmpty());
+
+        incomingLinks = client.getIncoming(submissionNoIncoming.getId(), expectedPredicate::equals, 5);
+        assertNotNull("Returned map must never be null.", incomingLinks);
+        assertTrue(incomingLinks.isEmpty());
+    }
+
+    /**
+     * With a filter that passes everything and no limit, the links returned are the same as those from the 
+     * unfiltered form.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void getIncomingFilteredMatchesUnfiltered() throws Exception {
+        Map<String, Collection<URI>> unfiltered = client.getIncoming(submission.getId());
+        Map<String, Collection<URI>> filtered = client.getIncoming(submission.getId(), field -> true, 0);
+        assertFalse(unfiltered.isEmpty());
+        assertEquals(unfiltered.keySet(), filtered.keySet());
+        for (String predicate : unfiltered.keySet()) {
+            assertEquals(new HashSet<>(unfiltered.get(predicate)), new HashSet<>(filtered.get(predicate)));
+        }
+    }
 }
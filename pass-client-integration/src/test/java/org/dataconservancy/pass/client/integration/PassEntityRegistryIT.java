@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.integration;
+
+import java.net.URI;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import org.dataconservancy.pass.client.PassEntityMetadata;
+import org.dataconservancy.pass.client.PassEntityRegistry;
+import org.dataconservancy.pass.client.ReferenceField;
+import org.dataconservancy.pass.model.Grant;
+import org.dataconservancy.pass.model.PassEntity;
+import org.dataconservancy.pass.model.PassEntityType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for PassEntityRegistry
+ * @author agent
+ */
+public class PassEntityRegistryIT extends ClientITBase {
+
+    private final PassEntityRegistry registry = PassEntityRegistry.getDefault();
+
+    /**
+     * Creates one entity of each type and verifies it was created in the registered container, and that
+     * the registry recognizes its type from its URI
+     */
+    @Test
+    public void testContainers() {
+        PASS_TYPES.forEach(cls -> {
+            URI uri = client.createResource(random(cls, 1));
+            createdUris.put(uri, cls);
+            PassEntityMetadata metadata = registry.get(cls);
+            assertTrue(uri.toString().startsWith(metadata.getContainer().toString() + "/"));
+            assertEquals(metadata, registry.getByUri(uri));
+            assertEquals(cls.getSimpleName(), metadata.getIndexType());
+        });
+        assertNull(registry.getByUri(URI.create("urn:uuid:not-in-repository")));
+    }
+
+    /**
+     * Verifies the reference fields of an entity can be read through their descriptors
+     */
+    @Test
+    public void testReferenceFields() {
+        Grant grant = random(Grant.class, 2);
+        PassEntityMetadata metadata = registry.get(Grant.class);
+
+        ReferenceField coPis = metadata.getReferenceField("coPis");
+        assertTrue(coPis.isMultiple());
+        assertEquals(PassEntityType.USER, coPis.getTarget());
+        assertEquals(grant.getCoPis(), coPis.getReferences(grant));
+
+        ReferenceField pi = metadata.getReferenceField("pi");
+        assertEquals(Arrays.asList(grant.getPi()), pi.getReferences(grant));
+        grant.setPi(null);
+        assertTrue(pi.getReferences(grant).isEmpty());
+
+        assertNull(metadata.getReferenceField("awardNumber"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testBadClassParam() {
+        registry.get(PassEntity.class);
+    }
+
+}
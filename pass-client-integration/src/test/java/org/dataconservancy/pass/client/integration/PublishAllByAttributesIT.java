@@ -0,0 +1,274 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.integration;
+
+import java.net.URI;
+import java.net.URL;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.dataconservancy.pass.client.PassFlow;
+import org.dataconservancy.pass.client.elasticsearch.ElasticsearchConfig;
+import org.dataconservancy.pass.model.Grant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for PassClient.publishAllByAttributes and publishAllEntitiesByAttributes. The page size is set so that 
+ * the Grants created fill a whole number of pages, so the scroll ends with an empty page.
+ * @author agent
+ */
+public class PublishAllByAttributesIT extends ClientITBase {
+
+    private static final String LIMIT_KEY = "pass.elasticsearch.limit";
+
+    private static final int PAGE_SIZE = 3;
+
+    private static final int GRANT_COUNT = PAGE_SIZE * 2;
+
+    private Map<String, Object> attribs;
+
+    private Set<URI> grantIds;
+
+    private String previousLimit;
+
+    @Before
+    public void setUp() throws Exception {
+        previousLimit = System.getProperty(LIMIT_KEY);
+        System.setProperty(LIMIT_KEY, String.valueOf(PAGE_SIZE));
+
+        String projectName = "publish-" + UUID.randomUUID();
+        grantIds = new HashSet<URI>();
+        for (int i = 0; i < GRANT_COUNT; i++) {
+            Grant grant = random(Grant.class, 1);
+            grant.setProjectName(projectName);
+            URI grantId = client.createResource(grant);
+            createdUris.put(grantId, Grant.class);
+            grantIds.add(grantId);
+        }
+
+        attribs = new HashMap<String, Object>();
+        attribs.put("projectName", projectName);
+        attempt(RETRIES, () -> {
+            assertEquals(GRANT_COUNT, client.countByAttributes(Grant.class, attribs));
+        });
+    }
+
+    @After
+    public void restoreLimit() {
+        if (previousLimit == null) {
+            System.clearProperty(LIMIT_KEY);
+        } else {
+            System.setProperty(LIMIT_KEY, previousLimit);
+        }
+    }
+
+    /**
+     * Every URI is sent once and the stream completes, when the last page read is empty
+     * @throws Exception
+     */
+    @Test
+    public void testExactMultipleOfPageSize() throws Exception {
+        Collector<URI> collector = new Collector<URI>(Long.MAX_VALUE);
+        client.publishAllByAttributes(Grant.class, attribs).subscribe(collector);
+
+        assertTrue(collector.finished.await(30, TimeUnit.SECONDS));
+        assertNull(collector.error);
+        assertTrue(collector.completed);
+        assertEquals(GRANT_COUNT, collector.items.size());
+        assertEquals(grantIds, new HashSet<URI>(collector.items));
+    }
+
+    /**
+     * A subscriber that asks for one URI at a time is never sent more than it asked for, and gets them all
+     * @throws Exception
+     */
+    @Test
+    public void testOneAtATime() throws Exception {
+        Collector<URI> collector = new Collector<URI>(1) {
+            @Override
+            public void onNext(URI item) {
+                super.onNext(item);
+                subscription.request(1);
+            }
+        };
+        client.publishAllByAttributes(Grant.class, attribs).subscribe(collector);
+
+        assertTrue(collector.finished.await(30, TimeUnit.SECONDS));
+        assertNull(collector.error);
+        assertTrue(collector.completed);
+        assertFalse("More URIs were sent than requested", collector.overrun);
+        assertEquals(grantIds, new HashSet<URI>(collector.items));
+    }
+
+    /**
+     * Cancelling part way through stops the stream and clears its scroll
+     * @throws Exception
+     */
+    @Test
+    public void testCancelClearsScroll() throws Exception {
+        int before = openScrollContexts();
+        Collector<URI> collector = new Collector<URI>(0);
+        client.publishAllByAttributes(Grant.class, attribs).subscribe(collector);
+
+        // more than one page, so the scroll has been continued and is still open
+        collector.subscription.request(PAGE_SIZE + 1);
+        attempt(RETRIES, () -> assertEquals(PAGE_SIZE + 1, collector.items.size()));
+        assertTrue(openScrollContexts() > before);
+
+        collector.subscription.cancel();
+        attempt(RETRIES, () -> assertEquals(before, openScrollContexts()));
+        collector.subscription.request(GRANT_COUNT);
+        assertEquals(PAGE_SIZE + 1, collector.items.size());
+        assertFalse(collector.completed);
+        assertNull(collector.error);
+    }
+
+    /**
+     * Each URI is read from the repository, so the entities are complete and can be updated
+     * @throws Exception
+     */
+    @Test
+    public void testHydrated() throws Exception {
+        Collector<Grant> collector = new Collector<Grant>(Long.MAX_VALUE);
+        client.publishAllEntitiesByAttributes(Grant.class, attribs, 2).subscribe(collector);
+
+        assertTrue(collector.finished.await(30, TimeUnit.SECONDS));
+        assertNull(collector.error);
+        assertTrue(collector.completed);
+        assertEquals(GRANT_COUNT, collector.items.size());
+
+        Set<URI> ids = new HashSet<URI>();
+        for (Grant grant : collector.items) {
+            ids.add(grant.getId());
+            assertFalse(grant.isIndexSourced());
+            assertNotNull(grant.getVersionTag());
+            assertEquals(attribs.get("projectName"), grant.getProjectName());
+        }
+        assertEquals(grantIds, ids);
+    }
+
+    /**
+     * @return the number of search contexts, which includes scrolls, open across the elasticsearch nodes
+     */
+    private static int openScrollContexts() {
+        try {
+            URL base = ElasticsearchConfig.getIndexerHostUrl().iterator().next();
+            Request request = new Request.Builder().url(new URL(base, "/_nodes/stats/indices/search")).build();
+            try (Response response = new OkHttpClient().newCall(request).execute()) {
+                JsonNode nodes = new ObjectMapper().readTree(response.body().string()).path("nodes");
+                int open = 0;
+                for (JsonNode node : nodes) {
+                    open += node.path("indices").path("search").path("open_contexts").asInt();
+                }
+                return open;
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Could not read the elasticsearch search stats", e);
+        }
+    }
+
+    /**
+     * Requests items as set up, and collects everything sent to it
+     */
+    private static class Collector<T> implements PassFlow.Subscriber<T> {
+
+        final List<T> items = Collections.synchronizedList(new ArrayList<T>());
+
+        final CountDownLatch finished = new CountDownLatch(1);
+
+        final AtomicLong outstanding = new AtomicLong(0);
+
+        private final long initialRequest;
+
+        volatile PassFlow.Subscription subscription;
+
+        volatile Throwable error;
+
+        volatile boolean completed = false;
+
+        volatile boolean overrun = false;
+
+        Collector(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(PassFlow.Subscription subscription) {
+            this.subscription = new PassFlow.Subscription() {
+                @Override
+                public void request(long n) {
+                    outstanding.addAndGet(n);
+                    subscription.request(n);
+                }
+
+                @Override
+                public void cancel() {
+                    subscription.cancel();
+                }
+            };
+            if (initialRequest > 0) {
+                this.subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (outstanding.decrementAndGet() < 0) {
+                overrun = true;
+            }
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            finished.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            finished.countDown();
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.integration;
+
+import java.net.URI;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.dataconservancy.pass.client.Ref;
+import org.dataconservancy.pass.client.ReferenceResolver;
+import org.dataconservancy.pass.model.Funder;
+import org.dataconservancy.pass.model.Grant;
+import org.dataconservancy.pass.model.Submission;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for resolving lazy references with ReferenceResolver
+ * @author agent
+ */
+public class ReferenceResolverIT extends ClientITBase {
+
+    private Funder funder;
+
+    private Submission submission;
+
+    @Before
+    public void setUp() {
+        funder = new Funder();
+        funder.setName("Resolver funder");
+        funder = client.createAndReadResource(funder, Funder.class);
+        createdUris.put(funder.getId(), Funder.class);
+
+        Grant grant1 = new Grant();
+        grant1.setAwardNumber("ref-1");
+        grant1.setPrimaryFunder(funder.getId());
+        URI grant1Uri = client.createResource(grant1);
+        createdUris.put(grant1Uri, Grant.class);
+
+        Grant grant2 = new Grant();
+        grant2.setAwardNumber("ref-2");
+        URI grant2Uri = client.createResource(grant2);
+        createdUris.put(grant2Uri, Grant.class);
+
+        submission = new Submission();
+        submission.setSource(Submission.Source.PASS);
+        submission.setGrants(Arrays.asList(grant1Uri, grant2Uri));
+        submission = client.createAndReadResource(submission, Submission.class);
+        createdUris.put(submission.getId(), Submission.class);
+    }
+
+    /**
+     * Verifies references are only read when used, that using one reads its siblings too, and that each 
+     * entity is only read once
+     */
+    @Test
+    public void testResolveReferences() {
+        ReferenceResolver resolver = new ReferenceResolver(client);
+        List<Ref<Grant>> grants = resolver.refs(submission, "grants", Grant.class);
+
+        assertEquals(2, grants.size());
+        assertEquals(submission.getGrants().get(0), grants.get(0).getUri());
+        assertFalse(grants.get(0).isResolved());
+        assertFalse(grants.get(1).isResolved());
+
+        Grant grant1 = grants.get(0).get();
+        assertEquals("ref-1", grant1.getAwardNumber());
+        attempt(RETRIES, () -> assertTrue(grants.get(1).isResolved()));
+
+        List<Grant> resolved = resolver.resolve(submission, "grants", Grant.class);
+        assertSame(grant1, resolved.get(0));
+        assertEquals("ref-2", resolved.get(1).getAwardNumber());
+
+        Funder primaryFunder = resolver.ref(grant1, "primaryFunder", Funder.class).get();
+        assertEquals(funder.getId(), primaryFunder.getId());
+        assertNull(resolver.ref(grant1, "directFunder", Funder.class));
+
+        resolver.clear();
+        assertFalse(grants.get(0).isResolved());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testWrongTargetType() {
+        new ReferenceResolver(client).refs(submission, "grants", Funder.class);
+    }
+
+}
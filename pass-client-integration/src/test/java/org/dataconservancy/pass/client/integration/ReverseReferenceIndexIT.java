@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.integration;
+
+import java.net.URI;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.dataconservancy.pass.client.ReverseReferenceIndex;
+import org.dataconservancy.pass.client.elasticsearch.ElasticsearchPassClient;
+import org.dataconservancy.pass.client.fedora.FedoraPassCrudClient;
+import org.dataconservancy.pass.model.Deposit;
+import org.dataconservancy.pass.model.Submission;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests that incoming references are kept up to date in, and answered from, a ReverseReferenceIndex
+ * @author agent
+ */
+public class ReverseReferenceIndexIT extends ClientITBase {
+
+    private final FedoraPassCrudClient crudClient = new FedoraPassCrudClient();
+
+    private final ReverseReferenceIndex reverseIndex = new ReverseReferenceIndex();
+
+    private Submission submission;
+
+    @Before
+    public void setUp() {
+        crudClient.setReverseIndex(reverseIndex);
+
+        submission = new Submission();
+        submission.setSource(Submission.Source.PASS);
+        submission = crudClient.createAndReadResource(submission, Submission.class);
+        createdUris.put(submission.getId(), Submission.class);
+    }
+
+    /**
+     * Once the incoming references of an entity have been read from the repository, references written through 
+     * the client are added to and removed from the index without reading from the repository again
+     */
+    @Test
+    public void testIncomingKeptUpToDate() {
+        URI deposit1 = createDeposit(submission.getId());
+
+        assertFalse(reverseIndex.isComplete(submission.getId()));
+        assertEquals(new HashSet<URI>(Arrays.asList(deposit1)), incomingSubmission());
+        assertTrue(reverseIndex.isComplete(submission.getId()));
+
+        URI deposit2 = createDeposit(submission.getId());
+        assertEquals(new HashSet<URI>(Arrays.asList(deposit1, deposit2)), incomingSubmission());
+        assertEquals(incomingSubmission(), new HashSet<URI>(client.getIncoming(submission.getId()).get("submission")));
+
+        Deposit deposit = crudClient.readResource(deposit1, Deposit.class);
+        deposit.setSubmission(null);
+        crudClient.updateResource(deposit);
+        assertEquals(new HashSet<URI>(Arrays.asList(deposit2)), incomingSubmission());
+
+        crudClient.deleteResource(deposit2);
+        createdUris.remove(deposit2);
+        assertTrue(crudClient.getIncoming(submission.getId()).isEmpty());
+    }
+
+    /**
+     * Loads the index from elasticsearch and verifies it can then answer for any entity
+     */
+    @Test
+    public void testLoadFromIndex() {
+        URI deposit = createDeposit(submission.getId());
+        attempt(RETRIES, () -> {
+            assertEquals(deposit, client.findByAttribute(Deposit.class, "submission", submission.getId()));
+        });
+
+        reverseIndex.loadFromIndex(new ElasticsearchPassClient());
+        assertTrue(reverseIndex.isComplete(URI.create("http://example.org/not/read")));
+
+        Map<String, Collection<URI>> incoming = reverseIndex.getIncoming(submission.getId());
+        assertEquals(new HashSet<URI>(Arrays.asList(deposit)), incoming.get("submission"));
+    }
+
+    private URI createDeposit(URI submissionUri) {
+        Deposit deposit = new Deposit();
+        deposit.setSubmission(submissionUri);
+        URI uri = crudClient.createResource(deposit);
+        createdUris.put(uri, Deposit.class);
+        return uri;
+    }
+
+    private HashSet<URI> incomingSubmission() {
+        Collection<URI> sources = crudClient.getIncoming(submission.getId()).get("submission");
+        return sources != null ? new HashSet<URI>(sources) : new HashSet<URI>();
+    }
+
+}
@@ -22,20 +22,30 @@ import java.net.URI;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.beanutils.BeanUtils;
 
 import org.junit.Test;
 
+import org.dataconservancy.pass.client.RetryPolicy;
 import org.dataconservancy.pass.client.fedora.UpdateConflictException;
 import org.dataconservancy.pass.model.Deposit;
 import org.dataconservancy.pass.model.Grant;
 import org.dataconservancy.pass.model.PassEntity;
+import org.dataconservancy.pass.model.Publication;
+import org.dataconservancy.pass.model.Submission;
 import org.dataconservancy.pass.model.User;
 import org.unitils.reflectionassert.ReflectionComparatorMode;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.unitils.reflectionassert.ReflectionAssert.assertReflectionEquals;
 /**
@@ -45,6 +55,8 @@ import static org.unitils.reflectionassert.ReflectionAssert.assertReflectionEqua
  */
 public class UpdateResourceIT extends ClientITBase {
 
+    private static final String UPDATE_DELTA_KEY = "pass.fedora.update.delta";
+
     /* Create a random resource, and replace all its content */
     @Test
     public void replaceAllTest() {
@@ -132,6 +144,57 @@ public class UpdateResourceIT extends ClientITBase {
         client.updateResource(grantCopy2);
     }
 
+    /**
+     * Checks that concurrent updates made with updateWithRetry all take effect, each retrying on a fresh read 
+     * when it conflicts with another
+     * @throws Exception
+     */
+    @Test
+    public void testUpdateWithRetry() throws Exception {
+        Grant grant = random(Grant.class, 2);
+        grant.setCoPis(new ArrayList<>());
+        URI grantId = client.createResource(grant);
+        createdUris.put(grantId, Grant.class);
+
+        int writers = 8;
+        RetryPolicy policy = new RetryPolicy(50, 20, 500);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<Grant>> results = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                URI coPi = new URI("http://example.org/users/" + i);
+                results.add(executor.submit(() -> client.updateWithRetry(grantId, Grant.class, g -> {
+                    List<URI> coPis = new ArrayList<>(g.getCoPis());
+                    coPis.add(coPi);
+                    g.setCoPis(coPis);
+                    return g;
+                }, policy)));
+            }
+            for (Future<Grant> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Grant updated = client.readResource(grantId, Grant.class);
+        assertEquals(writers, updated.getCoPis().size());
+    }
+
+    /**
+     * Checks that nothing is written when the mutator passed to updateWithRetry returns null
+     */
+    @Test
+    public void testUpdateWithRetryNoChange() {
+        Grant grant = random(Grant.class, 2);
+        URI grantId = client.createResource(grant);
+        createdUris.put(grantId, Grant.class);
+        String versionTag = client.readResource(grantId, Grant.class).getVersionTag();
+
+        assertNull(client.updateWithRetry(grantId, Grant.class, g -> null, RetryPolicy.DEFAULT));
+        assertEquals(versionTag, client.readResource(grantId, Grant.class).getVersionTag());
+    }
+
     /**
      * Documenting behavior: simply writing the same object back to the repository results in a different etag.
      *
@@ -161,6 +224,72 @@ public class UpdateResourceIT extends ClientITBase {
         assertEquals(deposit.getId().toString(), updated.getId().toString());
     }
 
+    /* With delta updates, a field whose JSON property name differs from its field name is still sent */
+    @Test
+    public void testUpdateDeltaAbstract() throws Exception {
+        System.setProperty(UPDATE_DELTA_KEY, "true");
+        try {
+            Publication publication = client.readResource(client.createResource(random(Publication.class, 1)),
+                    Publication.class);
+            createdUris.put(publication.getId(), Publication.class);
+
+            publication.setPublicationAbstract("An updated abstract");
+            client.updateResource(publication);
+
+            Publication updated = client.readResource(publication.getId(), Publication.class);
+            assertEquals("An updated abstract", updated.getPublicationAbstract());
+            assertEquals(publication.getTitle(), updated.getTitle());
+        } finally {
+            System.clearProperty(UPDATE_DELTA_KEY);
+        }
+    }
+
+    /* With delta updates, only changed fields are sent */
+    @Test
+    public void testUpdateDelta() throws Exception {
+        System.setProperty(UPDATE_DELTA_KEY, "true");
+        try {
+            Deposit deposit = client.readResource(client.createResource(random(Deposit.class, 1)), Deposit.class);
+            assertFalse(deposit.isDirty());
+
+            String expectedStatusRef = "http://example.org/status/2";
+            deposit.setDepositStatusRef(expectedStatusRef);
+            deposit.setRepositoryCopy(null);
+            Deposit updated = client.updateAndReadResource(deposit, Deposit.class);
+
+            assertNotEquals(deposit.getVersionTag(), updated.getVersionTag());
+            assertFalse(deposit.isDirty());
+            assertEquals(expectedStatusRef, updated.getDepositStatusRef());
+            assertNull(updated.getRepositoryCopy());
+            assertEquals(deposit.getSubmission(), updated.getSubmission());
+            assertEquals(deposit.getRepository(), updated.getRepository());
+            assertEquals(deposit.getDepositStatus(), updated.getDepositStatus());
+        } finally {
+            System.clearProperty(UPDATE_DELTA_KEY);
+        }
+    }
+
+    /* With delta updates, a list changed in place on an entity with no dirty fields is still written */
+    @Test
+    public void testUpdateDeltaListChangedInPlace() throws Exception {
+        System.setProperty(UPDATE_DELTA_KEY, "true");
+        try {
+            Submission submission = client.readResource(client.createResource(random(Submission.class, 1)), 
+                    Submission.class);
+            URI grant = new URI("http://example.org/grant/added");
+            submission.getGrants().add(grant);
+            assertFalse(submission.isDirty());
+
+            Submission updated = client.updateAndReadResource(submission, Submission.class);
+
+            assertNotEquals(submission.getVersionTag(), updated.getVersionTag());
+            assertEquals(submission.getGrants(), updated.getGrants());
+            assertTrue(updated.getGrants().contains(grant));
+        } finally {
+            System.clearProperty(UPDATE_DELTA_KEY);
+        }
+    }
+
     PassEntity removeRelationships(PassEntity resource) {
         try {
             final PassEntity entity = resource.getClass().newInstance();
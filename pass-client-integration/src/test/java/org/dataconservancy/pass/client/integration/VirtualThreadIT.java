@@ -0,0 +1,180 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.integration;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.dataconservancy.pass.client.ClientExecutors;
+import org.dataconservancy.pass.client.EntityGraph;
+import org.dataconservancy.pass.client.FetchPlan;
+import org.dataconservancy.pass.client.GraphLoader;
+import org.dataconservancy.pass.model.Funder;
+import org.dataconservancy.pass.model.Grant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Load tests for running the client on virtual threads. These are skipped unless the tests run on a JVM that 
+ * supports virtual threads, which the java21 profile provides.
+ * @author agent
+ */
+public class VirtualThreadIT extends ClientITBase {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadIT.class);
+
+    /**
+     * More blocked callers than a JVM can usually hold as platform threads
+     */
+    private static final int CALLERS = 10000;
+
+    /**
+     * Size of the platform thread pool virtual threads are compared with
+     */
+    private static final int POOL_SIZE = 50;
+
+    /**
+     * How long each caller in the comparison waits before it reads, standing in for other blocking work such 
+     * as a call to another service
+     */
+    private static final long WAIT_MILLIS = 100;
+
+    private Grant grant;
+
+    @Before
+    public void setUp() {
+        assumeTrue("Virtual threads are not supported by this JVM", ClientExecutors.isVirtualThreadAvailable());
+
+        Funder funder = new Funder();
+        funder.setName("virtual");
+        URI funderUri = client.createResource(funder);
+        createdUris.put(funderUri, Funder.class);
+
+        grant = new Grant();
+        grant.setAwardNumber("virtual-1");
+        grant.setPrimaryFunder(funderUri);
+        URI grantUri = client.createResource(grant);
+        createdUris.put(grantUri, Grant.class);
+        grant = client.readResource(grantUri, Grant.class);
+    }
+
+    /**
+     * Starts many callers at once, each on its own virtual thread, and verifies they are all blocked together 
+     * before they read, and that every read succeeds
+     * @throws Exception
+     */
+    @Test
+    public void testManyConcurrentReads() throws Exception {
+        ExecutorService executor = ClientExecutors.newVirtualThreadExecutor();
+        CountDownLatch ready = new CountDownLatch(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Grant>> reads = new ArrayList<Future<Grant>>();
+        try {
+            for (int i = 0; i < CALLERS; i++) {
+                reads.add(executor.submit(() -> {
+                    ready.countDown();
+                    start.await();
+                    return client.readResource(grant.getId(), Grant.class);
+                }));
+            }
+            assertTrue("Not every caller started", ready.await(60, TimeUnit.SECONDS));
+            start.countDown();
+
+            for (Future<Grant> read : reads) {
+                assertEquals(grant.getAwardNumber(), read.get(5, TimeUnit.MINUTES).getAwardNumber());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Loads graphs with the default executor set to virtual threads
+     */
+    @Test
+    public void testGraphLoaderOnVirtualThreads() {
+        ExecutorService executor = ClientExecutors.newVirtualThreadExecutor();
+        ClientExecutors.setDefault(executor);
+        try {
+            FetchPlan plan = new FetchPlan(1).follow(Grant.class, "primaryFunder");
+            for (int i = 0; i < 100; i++) {
+                EntityGraph graph = new GraphLoader(client).load(grant.getId(), Grant.class, plan);
+                assertEquals(2, graph.size());
+            }
+        } finally {
+            ClientExecutors.setDefault(null);
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Runs the same callers, each waiting and then reading, on a bounded pool of platform threads and on virtual 
+     * threads. The pool can only have as many callers waiting as it has threads, while every virtual thread can 
+     * wait at once, so the virtual threads finish sooner.
+     * @throws Exception
+     */
+    @Test
+    public void testScalesBeyondPlatformPool() throws Exception {
+        int callers = POOL_SIZE * 40;
+        long platformMillis = timeCallers(Executors.newFixedThreadPool(POOL_SIZE), callers);
+        long virtualMillis = timeCallers(ClientExecutors.newVirtualThreadExecutor(), callers);
+        LOG.info("{} callers took {}ms on {} platform threads, and {}ms on virtual threads", callers, 
+                platformMillis, POOL_SIZE, virtualMillis);
+
+        // the pool takes at least this long just to get through the waits
+        assertTrue(platformMillis >= callers / POOL_SIZE * WAIT_MILLIS);
+        assertTrue(String.format("Virtual threads took %sms, the platform pool %sms", virtualMillis, 
+                platformMillis), virtualMillis < platformMillis);
+    }
+
+    /**
+     * Runs callers that each wait, then read the grant, and shuts the executor down
+     * @return how long the callers took, in milliseconds
+     */
+    private long timeCallers(ExecutorService executor, int callers) throws Exception {
+        List<Future<Grant>> reads = new ArrayList<Future<Grant>>();
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < callers; i++) {
+                reads.add(executor.submit(() -> {
+                    TimeUnit.MILLISECONDS.sleep(WAIT_MILLIS);
+                    return client.readResource(grant.getId(), Grant.class);
+                }));
+            }
+            for (Future<Grant> read : reads) {
+                assertEquals(grant.getAwardNumber(), read.get(5, TimeUnit.MINUTES).getAwardNumber());
+            }
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.lang.reflect.Method;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.dataconservancy.pass.client.fedora.FedoraConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the executor that all of the client's internal parallel work runs on: reads by GraphLoader and 
+ * ReferenceResolver when they are not given an executor of their own, entity reads and scroll pages for the 
+ * publish functions, and the parallel deletes of deleteResources. Uploads are single requests, so they do not 
+ * use it. By default this is a pool of daemon threads sized by the pass.fedora.graph.threads setting. When 
+ * pass.fedora.executor is "virtual" and the JVM supports virtual threads (Java 21 and later), each task runs on 
+ * a new virtual thread instead, so that thousands of blocking requests can be in progress without a thread each. 
+ * An application can also supply its own executor with setDefault.
+ * @author agent
+ */
+public final class ClientExecutors {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClientExecutors.class);
+
+    /**
+     * Value of pass.fedora.executor that selects virtual threads
+     */
+    static final String VIRTUAL = "virtual";
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private static volatile Executor defaultExecutor;
+
+    private ClientExecutors() {
+    }
+
+    /**
+     * @return the executor set with setDefault, or else the one chosen by the pass.fedora.executor setting
+     */
+    public static Executor getDefault() {
+        Executor executor = defaultExecutor;
+        if (executor == null) {
+            LOCK.lock();
+            try {
+                executor = defaultExecutor;
+                if (executor == null) {
+                    executor = createDefault();
+                    defaultExecutor = executor;
+                }
+            } finally {
+                LOCK.unlock();
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Replaces the executor used by helpers that are not given one. The executor that is replaced is not shut 
+     * down, since tasks may still be running on it.
+     * @param executor the executor to use, or null to go back to the one chosen by the pass.fedora.executor setting
+     */
+    public static void setDefault(Executor executor) {
+        LOCK.lock();
+        try {
+            defaultExecutor = executor;
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * @return true if the JVM supports virtual threads
+     */
+    public static boolean isVirtualThreadAvailable() {
+        return virtualThreadFactory() != null;
+    }
+
+    /**
+     * Creates an executor that runs each task on a new virtual thread
+     * @return the executor
+     * @throws UnsupportedOperationException if the JVM does not support virtual threads
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        Method factory = virtualThreadFactory();
+        if (factory == null) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by Java "
+                    + System.getProperty("java.version"));
+        }
+        try {
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a virtual thread executor", e);
+        }
+    }
+
+    private static Executor createDefault() {
+        if (VIRTUAL.equalsIgnoreCase(FedoraConfig.getExecutor())) {
+            if (isVirtualThreadAvailable()) {
+                LOG.info("Running parallel reads on virtual threads");
+                return newVirtualThreadExecutor();
+            }
+            LOG.warn("Virtual threads were requested, but are not supported by Java {}, using a thread pool",
+                    System.getProperty("java.version"));
+        }
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(FedoraConfig.getGraphThreads(), r -> {
+            Thread thread = new Thread(r, "pass-client-reader-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * The client is built for Java 8, so the Java 21 factory method is looked up by reflection
+     */
+    private static Method virtualThreadFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+}
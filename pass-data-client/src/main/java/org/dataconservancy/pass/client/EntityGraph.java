@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.dataconservancy.pass.model.PassEntity;
+
+/**
+ * The entities read by GraphLoader for a root URI and FetchPlan. Entities are held by URI, so an entity
+ * that is referred to by several others in the graph appears, and was read, only once.
+ * @author agent
+ */
+public class EntityGraph {
+
+    private final URI root;
+
+    private final Map<URI, PassEntity> entities;
+
+    private final Map<URI, Map<ReferenceField, Set<URI>>> incoming;
+
+    private final PassEntityRegistry registry;
+
+    EntityGraph(URI root, Map<URI, PassEntity> entities, Map<URI, Map<ReferenceField, Set<URI>>> incoming,
+            PassEntityRegistry registry) {
+        this.root = root;
+        this.entities = entities;
+        this.incoming = incoming;
+        this.registry = registry;
+    }
+
+    /**
+     * @return the root entity
+     */
+    public PassEntity getRoot() {
+        return entities.get(root);
+    }
+
+    /**
+     * @param modelClass
+     * @return the root entity
+     */
+    public <T extends PassEntity> T getRoot(Class<T> modelClass) {
+        return modelClass.cast(getRoot());
+    }
+
+    /**
+     * @param uri
+     * @return true if the entity was read as part of the graph
+     */
+    public boolean contains(URI uri) {
+        return entities.containsKey(uri);
+    }
+
+    /**
+     * @param uri
+     * @return the entity with the URI provided, or null if it is not part of the graph
+     */
+    public PassEntity get(URI uri) {
+        return entities.get(uri);
+    }
+
+    /**
+     * @param uri
+     * @param modelClass
+     * @return the entity with the URI provided, or null if it is not part of the graph
+     */
+    public <T extends PassEntity> T get(URI uri, Class<T> modelClass) {
+        return modelClass.cast(entities.get(uri));
+    }
+
+    /**
+     * @return every entity in the graph, in the order they were read
+     */
+    public Collection<PassEntity> getAll() {
+        return Collections.unmodifiableCollection(entities.values());
+    }
+
+    /**
+     * @param modelClass
+     * @return every entity in the graph of the type provided
+     */
+    public <T extends PassEntity> List<T> getAll(Class<T> modelClass) {
+        List<T> matches = new ArrayList<T>();
+        for (PassEntity entity : entities.values()) {
+            if (modelClass.isInstance(entity)) {
+                matches.add(modelClass.cast(entity));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Resolves the references held by a field of an entity in the graph
+     * @param entity an entity in the graph
+     * @param fieldName name of a reference field of the entity
+     * @return the referenced entities that are part of the graph
+     */
+    public List<PassEntity> getReferences(PassEntity entity, String fieldName) {
+        ReferenceField field = registry.get(entity.getClass()).getReferenceField(fieldName);
+        if (field == null) {
+            throw new IllegalArgumentException(String.format("\"%s\" is not a reference field of %s",
+                    fieldName, entity.getClass().getSimpleName()));
+        }
+        List<PassEntity> references = new ArrayList<PassEntity>();
+        for (URI uri : field.getReferences(entity)) {
+            PassEntity reference = entities.get(uri);
+            if (reference != null) {
+                references.add(reference);
+            }
+        }
+        return references;
+    }
+
+    /**
+     * Retrieves the entities that refer to an entity through a field. These are only available when the 
+     * FetchPlan asked for them with followIncoming.
+     * @param uri URI of an entity in the graph
+     * @param modelClass the type that holds the field, for example Deposit
+     * @param fieldName name of the field, for example "submission"
+     * @return the entities that refer to the entity, empty if there are none or they were not read
+     */
+    public <T extends PassEntity> List<T> getIncoming(URI uri, Class<T> modelClass, String fieldName) {
+        Map<ReferenceField, Set<URI>> fields = incoming.get(uri);
+        if (fields == null) {
+            return Collections.emptyList();
+        }
+        ReferenceField field = registry.get(modelClass).getReferenceField(fieldName);
+        Set<URI> sources = field != null ? fields.get(field) : null;
+        if (sources == null) {
+            return Collections.emptyList();
+        }
+        List<T> references = new ArrayList<T>();
+        for (URI source : sources) {
+            PassEntity entity = entities.get(source);
+            if (entity != null) {
+                references.add(modelClass.cast(entity));
+            }
+        }
+        return references;
+    }
+
+    /**
+     * @return the number of entities in the graph
+     */
+    public int size() {
+        return entities.size();
+    }
+
+}
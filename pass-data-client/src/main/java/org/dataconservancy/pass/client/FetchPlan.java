@@ -0,0 +1,168 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.dataconservancy.pass.model.PassEntity;
+import org.dataconservancy.pass.model.PassEntityType;
+
+/**
+ * Describes which parts of an entity graph GraphLoader should read: the reference fields to follow from each 
+ * entity type, the incoming references to collect for each type, and how many references away from the root 
+ * entity to go. For example, to read a Submission with its Publication, Grants and their Funders, and the 
+ * Deposits that point to the Submission:
+ * <pre>
+ * FetchPlan plan = new FetchPlan(2)
+ *         .follow(Submission.class, "publication", "grants")
+ *         .follow(Grant.class, "primaryFunder", "directFunder")
+ *         .followIncoming(Deposit.class, "submission");
+ * </pre>
+ * @author agent
+ */
+public class FetchPlan {
+
+    private final int depth;
+
+    private final PassEntityRegistry registry;
+
+    private final Map<PassEntityType, Set<ReferenceField>> outgoing = new HashMap<PassEntityType, Set<ReferenceField>>();
+
+    private final Map<PassEntityType, Set<ReferenceField>> incoming = new HashMap<PassEntityType, Set<ReferenceField>>();
+
+    /**
+     * Creates an empty plan
+     * @param depth the maximum number of references to follow from the root entity to any other entity
+     */
+    public FetchPlan(int depth) {
+        this(depth, PassEntityRegistry.getDefault());
+    }
+
+    /**
+     * Creates an empty plan that uses the reference fields of the registry provided
+     * @param depth the maximum number of references to follow from the root entity to any other entity
+     * @param registry
+     */
+    public FetchPlan(int depth, PassEntityRegistry registry) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("depth cannot be negative");
+        }
+        if (registry == null) {
+            throw new IllegalArgumentException("registry cannot be null");
+        }
+        this.depth = depth;
+        this.registry = registry;
+    }
+
+    /**
+     * Follows reference fields of an entity type
+     * @param modelClass the type that holds the fields
+     * @param fieldNames names of the reference fields to follow
+     * @return this plan
+     * @throws IllegalArgumentException if a field is not a reference field of the type
+     */
+    public FetchPlan follow(Class<? extends PassEntity> modelClass, String... fieldNames) {
+        PassEntityMetadata metadata = registry.get(modelClass);
+        for (String fieldName : fieldNames) {
+            add(outgoing, metadata.getType(), referenceField(metadata, fieldName));
+        }
+        return this;
+    }
+
+    /**
+     * Follows every reference field of an entity type
+     * @param modelClass the type that holds the fields
+     * @return this plan
+     */
+    public FetchPlan followAll(Class<? extends PassEntity> modelClass) {
+        PassEntityMetadata metadata = registry.get(modelClass);
+        for (ReferenceField field : metadata.getReferenceFields()) {
+            add(outgoing, metadata.getType(), field);
+        }
+        return this;
+    }
+
+    /**
+     * Collects the entities that refer to an entity through a field, for every entity of the field's target
+     * type that is read. For example, {@code followIncoming(Deposit.class, "submission")} reads the Deposits 
+     * of each Submission in the graph.
+     * @param modelClass the type that holds the field
+     * @param fieldName name of the reference field
+     * @return this plan
+     * @throws IllegalArgumentException if the field is not a reference field of the type
+     */
+    public FetchPlan followIncoming(Class<? extends PassEntity> modelClass, String fieldName) {
+        ReferenceField field = referenceField(registry.get(modelClass), fieldName);
+        add(incoming, field.getTarget(), field);
+        return this;
+    }
+
+    /**
+     * @return the maximum number of references to follow from the root entity
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @param type
+     * @return the reference fields to follow from entities of the type provided
+     */
+    public List<ReferenceField> getFields(PassEntityType type) {
+        return get(outgoing, type);
+    }
+
+    /**
+     * @param type
+     * @return the fields that refer to the type provided, whose referring entities should be read
+     */
+    public List<ReferenceField> getIncomingFields(PassEntityType type) {
+        return get(incoming, type);
+    }
+
+    PassEntityRegistry getRegistry() {
+        return registry;
+    }
+
+    private static ReferenceField referenceField(PassEntityMetadata metadata, String fieldName) {
+        ReferenceField field = metadata.getReferenceField(fieldName);
+        if (field == null) {
+            throw new IllegalArgumentException(String.format("\"%s\" is not a reference field of %s",
+                    fieldName, metadata.getType().getName()));
+        }
+        return field;
+    }
+
+    private static void add(Map<PassEntityType, Set<ReferenceField>> fields, PassEntityType type,
+            ReferenceField field) {
+        fields.computeIfAbsent(type, t -> new LinkedHashSet<ReferenceField>()).add(field);
+    }
+
+    private static List<ReferenceField> get(Map<PassEntityType, Set<ReferenceField>> fields, PassEntityType type) {
+        Set<ReferenceField> typeFields = fields.get(type);
+        if (typeFields == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(new ArrayList<ReferenceField>(typeFields));
+    }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import org.dataconservancy.pass.model.PassEntity;
+import org.dataconservancy.pass.model.PassEntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads an entity and the entities linked to it, as described by a FetchPlan. The graph is read one level
+ * at a time: every entity at the same distance from the root is read in parallel, then the references they
+ * hold are gathered for the next level. An entity that is referred to more than once is only read once. 
+ * Reading a graph therefore takes about as many round trips as the plan is deep, rather than one for each 
+ * entity.
+ * @author agent
+ */
+public class GraphLoader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GraphLoader.class);
+
+    private final PassClient client;
+
+    private final Executor executor;
+
+    /**
+     * Creates a loader that reads entities on the pool of threads shared by the client helpers, sized by the
+     * pass.fedora.graph.threads setting
+     * @param client
+     */
+    public GraphLoader(PassClient client) {
+        this(client, ClientExecutors.getDefault());
+    }
+
+    /**
+     * Creates a loader that reads entities using the executor provided
+     * @param client
+     * @param executor
+     */
+    public GraphLoader(PassClient client, Executor executor) {
+        if (client == null) {
+            throw new IllegalArgumentException("client cannot be null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("executor cannot be null");
+        }
+        this.client = client;
+        this.executor = executor;
+    }
+
+    /**
+     * Reads the graph for a root entity, working out the root entity type from its URI
+     * @param root URI of the root entity
+     * @param plan describes which references to follow
+     * @return the entities that were read
+     * @throws IllegalArgumentException if the URI is not in the container of any entity type
+     */
+    public EntityGraph load(URI root, FetchPlan plan) {
+        if (root == null) {
+            throw new IllegalArgumentException("root cannot be null");
+        }
+        PassEntityMetadata metadata = plan.getRegistry().getByUri(root);
+        if (metadata == null) {
+            throw new IllegalArgumentException(String.format("The type of entity %s could not be determined", root));
+        }
+        return load(root, metadata.getType(), plan);
+    }
+
+    /**
+     * Reads the graph for a root entity
+     * @param root URI of the root entity
+     * @param modelClass type of the root entity
+     * @param plan describes which references to follow
+     * @return the entities that were read
+     */
+    public EntityGraph load(URI root, Class<? extends PassEntity> modelClass, FetchPlan plan) {
+        if (root == null) {
+            throw new IllegalArgumentException("root cannot be null");
+        }
+        return load(root, plan.getRegistry().get(modelClass).getType(), plan);
+    }
+
+    private EntityGraph load(URI root, PassEntityType rootType, FetchPlan plan) {
+        PassEntityRegistry registry = plan.getRegistry();
+        Map<URI, PassEntity> entities = new LinkedHashMap<URI, PassEntity>();
+        Map<URI, Map<ReferenceField, Set<URI>>> incoming = new HashMap<URI, Map<ReferenceField, Set<URI>>>();
+
+        Map<URI, PassEntityType> level = new LinkedHashMap<URI, PassEntityType>();
+        level.put(root, rootType);
+        Set<URI> seen = new LinkedHashSet<URI>(level.keySet());
+
+        for (int depth = 0; !level.isEmpty(); depth++) {
+            boolean expand = depth < plan.getDepth();
+            LOG.debug("Reading {} entities at depth {}", level.size(), depth);
+
+            Map<URI, CompletableFuture<? extends PassEntity>> reads =
+                    new LinkedHashMap<URI, CompletableFuture<? extends PassEntity>>();
+            Map<URI, CompletableFuture<Map<String, Collection<URI>>>> incomingReads =
+                    new HashMap<URI, CompletableFuture<Map<String, Collection<URI>>>>();
+            List<CompletableFuture<?>> all = new ArrayList<CompletableFuture<?>>();
+
+            for (Map.Entry<URI, PassEntityType> entry : level.entrySet()) {
+                URI uri = entry.getKey();
+                Class<? extends PassEntity> modelClass = entry.getValue().getModelClass();
+                CompletableFuture<? extends PassEntity> read = 
+                        CompletableFuture.supplyAsync(() -> client.readResource(uri, modelClass), executor);
+                reads.put(uri, read);
+                all.add(read);
+                if (expand && !plan.getIncomingFields(entry.getValue()).isEmpty()) {
+                    CompletableFuture<Map<String, Collection<URI>>> incomingRead = 
+                            CompletableFuture.supplyAsync(() -> client.getIncoming(uri), executor);
+                    incomingReads.put(uri, incomingRead);
+                    all.add(incomingRead);
+                }
+            }
+            await(all);
+
+            Map<URI, PassEntityType> next = new LinkedHashMap<URI, PassEntityType>();
+            for (Map.Entry<URI, CompletableFuture<? extends PassEntity>> read : reads.entrySet()) {
+                URI uri = read.getKey();
+                PassEntity entity = read.getValue().join();
+                entities.put(uri, entity);
+                if (!expand) {
+                    continue;
+                }
+
+                PassEntityType type = level.get(uri);
+                for (ReferenceField field : plan.getFields(type)) {
+                    for (URI reference : field.getReferences(entity)) {
+                        if (seen.add(reference)) {
+                            next.put(reference, field.getTarget());
+                        }
+                    }
+                }
+
+                CompletableFuture<Map<String, Collection<URI>>> incomingRead = incomingReads.get(uri);
+                if (incomingRead != null) {
+                    Map<String, Collection<URI>> links = incomingRead.join();
+                    Map<ReferenceField, Set<URI>> sources = new LinkedHashMap<ReferenceField, Set<URI>>();
+                    for (ReferenceField field : plan.getIncomingFields(type)) {
+                        Set<URI> fieldSources = new LinkedHashSet<URI>();
+                        for (URI source : links.getOrDefault(field.getName(), new ArrayList<URI>())) {
+                            // several types can share a field name, so check the source is of the right type
+                            PassEntityMetadata sourceType = registry.getByUri(source);
+                            if (sourceType != null && sourceType.getType() == field.getOwner()) {
+                                fieldSources.add(source);
+                                if (seen.add(source)) {
+                                    next.put(source, field.getOwner());
+                                }
+                            }
+                        }
+                        sources.put(field, fieldSources);
+                    }
+                    incoming.put(uri, sources);
+                }
+            }
+            level = next;
+        }
+
+        return new EntityGraph(root, entities, incoming, registry);
+    }
+
+    private static void await(List<CompletableFuture<?>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("A problem occurred while reading the entity graph", e.getCause());
+        }
+    }
+
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Publishes the result of reading each item of another publisher, for example the entity at each URI of 
+ * a search. Up to maxConcurrency reads run on an executor at once, and items are only requested from upstream 
+ * when the subscriber has requested results that are not already being read or waiting to be sent, so neither 
+ * the reads nor the results waiting for the subscriber can grow past maxConcurrency. Results are sent in the 
+ * order their reads complete. A read that fails, or returns null, fails the stream.
+ * @param <S> type of item read
+ * @param <T> type of result
+ * @author agent
+ */
+final class HydratingPublisher<S, T> implements PassFlow.Publisher<T> {
+
+    private final PassFlow.Publisher<S> upstream;
+
+    private final Function<? super S, ? extends T> reader;
+
+    private final int maxConcurrency;
+
+    private final Executor executor;
+
+    /**
+     * @param upstream publisher of the items to read
+     * @param reader reads an item, may block
+     * @param maxConcurrency maximum number of reads run at once
+     * @param executor runs the reads
+     */
+    HydratingPublisher(PassFlow.Publisher<S> upstream, Function<? super S, ? extends T> reader, int maxConcurrency, 
+            Executor executor) {
+        if (upstream == null) {
+            throw new IllegalArgumentException("upstream cannot be null");
+        }
+        if (reader == null) {
+            throw new IllegalArgumentException("reader cannot be null");
+        }
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("executor cannot be null");
+        }
+        this.upstream = upstream;
+        this.reader = reader;
+        this.maxConcurrency = maxConcurrency;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(PassFlow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber cannot be null");
+        }
+        Hydration hydration = new Hydration(subscriber);
+        subscriber.onSubscribe(hydration);
+        upstream.subscribe(hydration);
+    }
+
+    /**
+     * Subscribes to upstream on behalf of one downstream subscriber. Every signal is recorded and then handled 
+     * by drain, which only one thread runs at a time, so the subscriber is never called concurrently.
+     */
+    private final class Hydration implements PassFlow.Subscriber<S>, PassFlow.Subscription {
+
+        private final PassFlow.Subscriber<? super T> downstream;
+
+        private volatile PassFlow.Subscription subscription;
+
+        /** items received from upstream that are waiting to be read */
+        private final Queue<S> received = new ConcurrentLinkedQueue<S>();
+
+        /** results waiting to be sent downstream */
+        private final Queue<T> ready = new ConcurrentLinkedQueue<T>();
+
+        private final AtomicInteger reading = new AtomicInteger(0);
+
+        /** items requested from upstream that have not yet arrived */
+        private final AtomicLong requested = new AtomicLong(0);
+
+        /** results requested by the subscriber that have not yet been sent */
+        private final AtomicLong demand = new AtomicLong(0);
+
+        private final AtomicInteger work = new AtomicInteger(0);
+
+        private final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+
+        private volatile boolean upstreamDone = false;
+
+        private volatile boolean cancelled = false;
+
+        private volatile boolean terminated = false;
+
+        /* only used by the thread running drain */
+        private boolean done = false;
+
+        private Hydration(PassFlow.Subscriber<? super T> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(PassFlow.Subscription subscription) {
+            if (this.subscription != null) {
+                subscription.cancel();
+                return;
+            }
+            this.subscription = subscription;
+            if (cancelled || terminated) {
+                // the stream ended before upstream was ready
+                subscription.cancel();
+                return;
+            }
+            drain();
+        }
+
+        @Override
+        public void onNext(S item) {
+            received.offer(item);
+            requested.decrementAndGet();
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error.compareAndSet(null, throwable);
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            upstreamDone = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error.compareAndSet(null, 
+                        new IllegalArgumentException("The number of items requested must be positive, not " + n));
+            } else {
+                demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        private void drain() {
+            if (work.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (!done) {
+                    step();
+                }
+                missed = work.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void step() {
+            if (cancelled || error.get() != null) {
+                finish();
+                return;
+            }
+
+            while (demand.get() > 0 && !ready.isEmpty()) {
+                downstream.onNext(ready.poll());
+                demand.decrementAndGet();
+                if (cancelled || error.get() != null) {
+                    finish();
+                    return;
+                }
+            }
+
+            S item;
+            while ((item = received.poll()) != null) {
+                startRead(item);
+            }
+            if (error.get() != null) {
+                finish();
+                return;
+            }
+
+            if (upstreamDone && reading.get() == 0 && ready.isEmpty()) {
+                done = true;
+                downstream.onComplete();
+                return;
+            }
+
+            PassFlow.Subscription upstreamSubscription = subscription;
+            if (upstreamSubscription != null && !upstreamDone) {
+                long outstanding = requested.get() + reading.get() + ready.size();
+                long more = Math.min(demand.get(), maxConcurrency) - outstanding;
+                if (more > 0) {
+                    requested.addAndGet(more);
+                    upstreamSubscription.request(more);
+                }
+            }
+        }
+
+        private void startRead(S item) {
+            reading.incrementAndGet();
+            try {
+                executor.execute(() -> {
+                    try {
+                        T result = reader.apply(item);
+                        if (result == null) {
+                            throw new IllegalStateException("Nothing could be read for " + item);
+                        }
+                        ready.offer(result);
+                    } catch (Throwable e) {
+                        error.compareAndSet(null, e);
+                    } finally {
+                        reading.decrementAndGet();
+                        drain();
+                    }
+                });
+            } catch (RuntimeException e) {
+                reading.decrementAndGet();
+                error.compareAndSet(null, e);
+            }
+        }
+
+        /**
+         * Ends the stream after a cancel or failure, telling the subscriber about the failure unless it 
+         * cancelled
+         */
+        private void finish() {
+            done = true;
+            terminated = true;
+            PassFlow.Subscription upstreamSubscription = subscription;
+            if (upstreamSubscription != null && !upstreamDone) {
+                upstreamSubscription.cancel();
+            }
+            received.clear();
+            ready.clear();
+            if (!cancelled) {
+                downstream.onError(error.get());
+            }
+        }
+
+    }
+
+}
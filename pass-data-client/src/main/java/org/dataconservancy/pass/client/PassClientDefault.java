@@ -20,12 +20,17 @@ import java.net.URI;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 import org.dataconservancy.pass.client.elasticsearch.ElasticsearchPassClient;
 import org.dataconservancy.pass.client.fedora.FedoraPassCrudClient;
 import org.dataconservancy.pass.model.PassEntity;
+import org.joda.time.DateTime;
 
 /**
  * Creates instances of objects needed to perform PassClient requirements, and redirects to appropriate
@@ -75,6 +80,14 @@ public class PassClientDefault implements PassClient {
         return crudClient.updateAndReadResource(modelObj, modelClass);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> T updateWithRetry(URI uri, Class<T> modelClass, UnaryOperator<T> mutator, RetryPolicy policy) {
+        return crudClient.updateWithRetry(uri, modelClass, mutator, policy);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -83,6 +96,22 @@ public class PassClientDefault implements PassClient {
         crudClient.deleteResource(modelObj);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DeleteReport deleteResources(Collection<URI> uris) {
+        return crudClient.deleteResources(uris);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DeleteReport deleteResources(Collection<URI> uris, int parallelism, boolean transaction, boolean purge) {
+        return crudClient.deleteResources(uris, parallelism, transaction, purge);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -96,6 +125,11 @@ public class PassClientDefault implements PassClient {
         return crudClient.getIncoming(passEntity);
     }
 
+    @Override
+    public Map<String, Collection<URI>> getIncoming(URI passEntity, Predicate<String> fieldFilter, int limit) {
+        return crudClient.getIncoming(passEntity, fieldFilter, limit);
+    }
+
     @Override
     public URI upload(URI entityUri, InputStream content) {
         return upload(entityUri, content, Collections.emptyMap());
@@ -117,6 +151,22 @@ public class PassClientDefault implements PassClient {
         return indexClient.findByAttribute(modelClass, attribute, value);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity, V> Map<V, URI> findByAttributeBatch(Class<T> modelClass, String attribute, Collection<V> values) {
+        return indexClient.findByAttributeBatch(modelClass, attribute, values);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity, V> Map<V, URI> findByAttributeBatch(Class<T> modelClass, String attribute, Collection<V> values, int batchSize) {
+        return indexClient.findByAttributeBatch(modelClass, attribute, values, batchSize);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -149,4 +199,146 @@ public class PassClientDefault implements PassClient {
         return indexClient.findAllByAttributes(modelClass, valueAttributesMap, limit, offset);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> PassFlow.Publisher<URI> publishAllByAttributes(Class<T> modelClass, Map<String, Object> valueAttributesMap) {
+        return indexClient.publishAllByAttributes(modelClass, valueAttributesMap);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> PassFlow.Publisher<T> publishAllEntitiesByAttributes(Class<T> modelClass, Map<String, Object> valueAttributesMap, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        PassFlow.Publisher<URI> uris = indexClient.publishAllByAttributes(modelClass, valueAttributesMap);
+        return new HydratingPublisher<URI, T>(uris, uri -> crudClient.readResource(uri, modelClass), maxConcurrency, 
+                ClientExecutors.getDefault());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> List<T> findAllEntitiesByAttributes(Class<T> modelClass, Map<String, Object> valueAttributesMap) {
+        return indexClient.findAllEntitiesByAttributes(modelClass, valueAttributesMap);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> List<T> findAllEntitiesByAttributes(Class<T> modelClass, Map<String, Object> valueAttributesMap, int limit, int offset) {
+        return indexClient.findAllEntitiesByAttributes(modelClass, valueAttributesMap, limit, offset);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> List<T> findAllEntitiesByAttributes(Class<T> modelClass, Map<String, Object> valueAttributesMap, int limit, int offset, Predicate<? super T> forUpdate) {
+        if (forUpdate == null) {
+            throw new IllegalArgumentException("forUpdate cannot be null");
+        }
+        List<T> entities = indexClient.findAllEntitiesByAttributes(modelClass, valueAttributesMap, limit, offset);
+        for (int i = 0; i < entities.size(); i++) {
+            if (forUpdate.test(entities.get(i))) {
+                entities.set(i, crudClient.readResource(entities.get(i).getId(), modelClass));
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> long countByAttribute(Class<T> modelClass, String attribute, Object value) {
+        return indexClient.countByAttribute(modelClass, attribute, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> long countByAttributes(Class<T> modelClass, Map<String, Object> valueAttributesMap) {
+        return indexClient.countByAttributes(modelClass, valueAttributesMap);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> Map<String, Long> facetCounts(Class<T> modelClass, String field, Map<String, Object> filters) {
+        return indexClient.facetCounts(modelClass, field, filters);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> Map<DateTime, Long> dateHistogramCounts(Class<T> modelClass, String field, String interval, Map<String, Object> filters) {
+        return indexClient.dateHistogramCounts(modelClass, field, interval, filters);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> CompletableFuture<URI> findByAttributeAsync(Class<T> modelClass, String attribute, Object value) {
+        return indexClient.findByAttributeAsync(modelClass, attribute, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttributeAsync(Class<T> modelClass, String attribute, Object value) {
+        return indexClient.findAllByAttributeAsync(modelClass, attribute, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttributeAsync(Class<T> modelClass, String attribute, Object value, int limit, int offset) {
+        return indexClient.findAllByAttributeAsync(modelClass, attribute, value, limit, offset);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttributesAsync(Class<T> modelClass, Map<String, Object> valueAttributesMap) {
+        return indexClient.findAllByAttributesAsync(modelClass, valueAttributesMap);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttributesAsync(Class<T> modelClass, Map<String, Object> valueAttributesMap, int limit, int offset) {
+        return indexClient.findAllByAttributesAsync(modelClass, valueAttributesMap, limit, offset);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> CompletableFuture<Long> countByAttributeAsync(Class<T> modelClass, String attribute, Object value) {
+        return indexClient.countByAttributeAsync(modelClass, attribute, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T extends PassEntity> CompletableFuture<Long> countByAttributesAsync(Class<T> modelClass, Map<String, Object> valueAttributesMap) {
+        return indexClient.countByAttributesAsync(modelClass, valueAttributesMap);
+    }
+
 }
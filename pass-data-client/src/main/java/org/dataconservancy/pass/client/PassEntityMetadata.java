@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.dataconservancy.pass.model.PassEntity;
+import org.dataconservancy.pass.model.PassEntityType;
+
+/**
+ * Everything the clients need to know about one PASS entity type, worked out once when the
+ * PassEntityRegistry is created: its repository container, its type name in the index, and the
+ * fields that refer to other entities.
+ * @author agent
+ */
+public final class PassEntityMetadata {
+
+    private final PassEntityType type;
+
+    private final URI container;
+
+    private final String containerPrefix;
+
+    private final List<ReferenceField> referenceFields;
+
+    private final Map<String, ReferenceField> referenceFieldsByName;
+
+    PassEntityMetadata(PassEntityType type, String baseUrl, List<ReferenceField> referenceFields) {
+        this.type = type;
+        this.container = URI.create(baseUrl + type.getPlural());
+        this.containerPrefix = container.toString() + "/";
+        this.referenceFields = Collections.unmodifiableList(new ArrayList<ReferenceField>(referenceFields));
+        this.referenceFieldsByName = new HashMap<String, ReferenceField>();
+        for (ReferenceField field : referenceFields) {
+            referenceFieldsByName.put(field.getName(), field);
+        }
+    }
+
+    /**
+     * @return the entity type
+     */
+    public PassEntityType getType() {
+        return type;
+    }
+
+    /**
+     * @return the model class of the entity type
+     */
+    public Class<? extends PassEntity> getModelClass() {
+        return type.getModelClass();
+    }
+
+    /**
+     * @return URI of the repository container that entities of this type are created in
+     */
+    public URI getContainer() {
+        return container;
+    }
+
+    /**
+     * @return the type name used for this entity type in the index
+     */
+    public String getIndexType() {
+        return type.getName();
+    }
+
+    /**
+     * @return the fields of this type that refer to other entities, in declaration order
+     */
+    public List<ReferenceField> getReferenceFields() {
+        return referenceFields;
+    }
+
+    /**
+     * @param name name of the field
+     * @return the reference field with the name provided, or null if this type has no such reference field
+     */
+    public ReferenceField getReferenceField(String name) {
+        return referenceFieldsByName.get(name);
+    }
+
+    /**
+     * @param uri
+     * @return true if the URI is within the container for this type
+     */
+    boolean contains(URI uri) {
+        return uri.toString().startsWith(containerPrefix);
+    }
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.dataconservancy.pass.client.fedora.FedoraConfig;
+import org.dataconservancy.pass.model.PassEntityType;
+
+import static org.dataconservancy.pass.model.PassEntityType.CONTRIBUTOR;
+import static org.dataconservancy.pass.model.PassEntityType.DEPOSIT;
+import static org.dataconservancy.pass.model.PassEntityType.FILE;
+import static org.dataconservancy.pass.model.PassEntityType.FUNDER;
+import static org.dataconservancy.pass.model.PassEntityType.GRANT;
+import static org.dataconservancy.pass.model.PassEntityType.JOURNAL;
+import static org.dataconservancy.pass.model.PassEntityType.POLICY;
+import static org.dataconservancy.pass.model.PassEntityType.PUBLICATION;
+import static org.dataconservancy.pass.model.PassEntityType.PUBLISHER;
+import static org.dataconservancy.pass.model.PassEntityType.REPOSITORY;
+import static org.dataconservancy.pass.model.PassEntityType.REPOSITORY_COPY;
+import static org.dataconservancy.pass.model.PassEntityType.SUBMISSION;
+import static org.dataconservancy.pass.model.PassEntityType.USER;
+
+/**
+ * Holds the metadata of every PASS entity type, keyed by model class and by type, so that the clients can
+ * look up a type's container, index type name and reference fields without any string work. The metadata
+ * is built once, when the registry is created.
+ * @author agent
+ */
+public final class PassEntityRegistry {
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private static volatile PassEntityRegistry defaultRegistry;
+
+    private final Map<Class<?>, PassEntityMetadata> byClass = new HashMap<Class<?>, PassEntityMetadata>();
+
+    private final Map<PassEntityType, PassEntityMetadata> byType =
+            new EnumMap<PassEntityType, PassEntityMetadata>(PassEntityType.class);
+
+    /**
+     * Creates a registry for a repository
+     * @param baseUrl base URL of the repository, which the type containers are relative to
+     */
+    public PassEntityRegistry(String baseUrl) {
+        if (baseUrl == null || baseUrl.length() == 0) {
+            throw new IllegalArgumentException("baseUrl cannot be empty");
+        }
+        if (!baseUrl.endsWith("/")) {
+            baseUrl = baseUrl + "/";
+        }
+
+        Map<PassEntityType, List<ReferenceField>> references = referenceFields();
+        for (PassEntityType type : PassEntityType.values()) {
+            PassEntityMetadata metadata = new PassEntityMetadata(type, baseUrl, references.get(type));
+            byClass.put(type.getModelClass(), metadata);
+            byType.put(type, metadata);
+        }
+    }
+
+    /**
+     * Retrieves the registry for the repository configured in FedoraConfig. It is created the first time it
+     * is requested, so later changes to the configured base URL are not picked up.
+     * @return the default registry
+     */
+    public static PassEntityRegistry getDefault() {
+        PassEntityRegistry registry = defaultRegistry;
+        if (registry == null) {
+            LOCK.lock();
+            try {
+                registry = defaultRegistry;
+                if (registry == null) {
+                    registry = new PassEntityRegistry(FedoraConfig.getBaseUrl());
+                    defaultRegistry = registry;
+                }
+            } finally {
+                LOCK.unlock();
+            }
+        }
+        return registry;
+    }
+
+    /**
+     * @param modelClass
+     * @return metadata for the model class
+     * @throws IllegalArgumentException if the class is not a PASS entity type
+     */
+    public PassEntityMetadata get(Class<?> modelClass) {
+        PassEntityMetadata metadata = modelClass != null ? byClass.get(modelClass) : null;
+        if (metadata == null) {
+            throw new IllegalArgumentException(String.format("Entity type \"%s\" is not recognized",
+                    modelClass != null ? modelClass.getSimpleName() : null));
+        }
+        return metadata;
+    }
+
+    /**
+     * @param type
+     * @return metadata for the entity type
+     */
+    public PassEntityMetadata get(PassEntityType type) {
+        if (type == null) {
+            throw new IllegalArgumentException("type cannot be null");
+        }
+        return byType.get(type);
+    }
+
+    /**
+     * Works out the type of an entity from its URI, using the container it is in
+     * @param uri URI of an entity in the repository
+     * @return metadata for the entity type, or null if the URI is not in any type's container
+     */
+    public PassEntityMetadata getByUri(URI uri) {
+        if (uri == null) {
+            return null;
+        }
+        for (PassEntityMetadata metadata : byType.values()) {
+            if (metadata.contains(uri)) {
+                return metadata;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return metadata for every entity type
+     */
+    public Collection<PassEntityMetadata> getAll() {
+        return Collections.unmodifiableCollection(byType.values());
+    }
+
+    /**
+     * The fields of each type that refer to other entities. URI fields that point outside the repository,
+     * such as File.uri or Repository.url, are not included.
+     */
+    private static Map<PassEntityType, List<ReferenceField>> referenceFields() {
+        Map<PassEntityType, List<ReferenceField>> fields =
+                new EnumMap<PassEntityType, List<ReferenceField>>(PassEntityType.class);
+        for (PassEntityType type : PassEntityType.values()) {
+            fields.put(type, new ArrayList<ReferenceField>());
+        }
+
+        add(fields, CONTRIBUTOR, "publication", PUBLICATION);
+        add(fields, CONTRIBUTOR, "user", USER);
+        add(fields, DEPOSIT, "submission", SUBMISSION);
+        add(fields, DEPOSIT, "repository", REPOSITORY);
+        add(fields, DEPOSIT, "repositoryCopy", REPOSITORY_COPY);
+        add(fields, FILE, "submission", SUBMISSION);
+        add(fields, FUNDER, "policy", POLICY);
+        add(fields, GRANT, "primaryFunder", FUNDER);
+        add(fields, GRANT, "directFunder", FUNDER);
+        add(fields, GRANT, "pi", USER);
+        add(fields, GRANT, "coPis", USER);
+        add(fields, JOURNAL, "publisher", PUBLISHER);
+        add(fields, POLICY, "repositories", REPOSITORY);
+        add(fields, PUBLICATION, "journal", JOURNAL);
+        add(fields, REPOSITORY_COPY, "publication", PUBLICATION);
+        add(fields, REPOSITORY_COPY, "repository", REPOSITORY);
+        add(fields, SUBMISSION, "publication", PUBLICATION);
+        add(fields, SUBMISSION, "repositories", REPOSITORY);
+        add(fields, SUBMISSION, "user", USER);
+        add(fields, SUBMISSION, "grants", GRANT);
+
+        return fields;
+    }
+
+    private static void add(Map<PassEntityType, List<ReferenceField>> fields, PassEntityType owner, String name,
+            PassEntityType target) {
+        fields.get(owner).add(new ReferenceField(owner, name, target));
+    }
+
+}
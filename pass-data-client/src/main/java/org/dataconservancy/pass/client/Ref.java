@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.net.URI;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.dataconservancy.pass.model.PassEntity;
+
+/**
+ * A reference to another entity that is read the first time it is needed. References created together by 
+ * ReferenceResolver, for example all of the Grants of a Submission, are read together: the first call to 
+ * get on any of them reads all of those not yet read, in parallel. Once read, the entity is remembered by 
+ * the resolver, so every reference to the same URI returns the same instance.
+ * @author agent
+ */
+public final class Ref<T extends PassEntity> {
+
+    private final URI uri;
+
+    private final Class<T> modelClass;
+
+    private final ReferenceResolver resolver;
+
+    private final ReferenceResolver.Batch batch;
+
+    Ref(URI uri, Class<T> modelClass, ReferenceResolver resolver, ReferenceResolver.Batch batch) {
+        this.uri = uri;
+        this.modelClass = modelClass;
+        this.resolver = resolver;
+        this.batch = batch;
+    }
+
+    /**
+     * @return the URI of the referenced entity, available without reading it
+     */
+    public URI getUri() {
+        return uri;
+    }
+
+    /**
+     * @return the type of the referenced entity
+     */
+    public Class<T> getModelClass() {
+        return modelClass;
+    }
+
+    /**
+     * @return true if the entity has already been read
+     */
+    public boolean isResolved() {
+        return resolver.isResolved(uri);
+    }
+
+    /**
+     * Retrieves the referenced entity, reading it and the references created with it if they have not 
+     * been read yet
+     * @return the referenced entity
+     */
+    public T get() {
+        return ReferenceResolver.join(getAsync());
+    }
+
+    /**
+     * Starts reading the referenced entity, and the references created with it, without waiting for them
+     * @return a future that completes with the referenced entity
+     */
+    public CompletableFuture<T> getAsync() {
+        resolver.fetch(batch);
+        return resolver.load(uri, modelClass).thenApply(modelClass::cast);
+    }
+
+    @Override
+    public String toString() {
+        return "Ref[" + modelClass.getSimpleName() + " " + uri + "]";
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.lang.reflect.Field;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.dataconservancy.pass.model.PassEntity;
+import org.dataconservancy.pass.model.PassEntityType;
+
+/**
+ * Describes a field of a PASS model class that holds the URI, or list of URIs, of other PASS entities,
+ * for example Submission.grants. Fields that hold URIs of external resources, such as Repository.url,
+ * are not reference fields.
+ * @author agent
+ */
+public final class ReferenceField {
+
+    private final PassEntityType owner;
+
+    private final String name;
+
+    private final PassEntityType target;
+
+    private final boolean multiple;
+
+    private final Field field;
+
+    ReferenceField(PassEntityType owner, String name, PassEntityType target) {
+        this.owner = owner;
+        this.name = name;
+        this.target = target;
+        try {
+            this.field = owner.getModelClass().getDeclaredField(name);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(String.format("%s has no field %s", owner.getName(), name), e);
+        }
+        this.field.setAccessible(true);
+        this.multiple = List.class.isAssignableFrom(field.getType());
+    }
+
+    /**
+     * @return the type of entity that holds the field
+     */
+    public PassEntityType getOwner() {
+        return owner;
+    }
+
+    /**
+     * @return the name of the field, which is also its JSON property name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the type of entity that the field refers to
+     */
+    public PassEntityType getTarget() {
+        return target;
+    }
+
+    /**
+     * @return true if the field holds a list of references
+     */
+    public boolean isMultiple() {
+        return multiple;
+    }
+
+    /**
+     * Retrieves the references held by this field of an entity, leaving out nulls
+     * @param entity an entity of the owner type
+     * @return list of referenced URIs, empty if there are none
+     */
+    public List<URI> getReferences(PassEntity entity) {
+        if (entity == null || entity.getClass() != owner.getModelClass()) {
+            throw new IllegalArgumentException(String.format("The entity must be a %s", owner.getName()));
+        }
+        try {
+            Object value = field.get(entity);
+            if (value == null) {
+                return Collections.emptyList();
+            }
+            if (!multiple) {
+                return Collections.singletonList((URI) value);
+            }
+            List<URI> references = new ArrayList<URI>();
+            for (Object uri : (List<?>) value) {
+                if (uri != null) {
+                    references.add((URI) uri);
+                }
+            }
+            return references;
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(String.format("Could not read %s.%s", owner.getName(), name), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return owner.getName() + "." + name;
+    }
+
+}
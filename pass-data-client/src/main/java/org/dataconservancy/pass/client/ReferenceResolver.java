@@ -0,0 +1,224 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import org.dataconservancy.pass.model.PassEntity;
+
+/**
+ * Creates lazy references (Ref) to the entities that an entity's reference fields point to, for example:
+ * <pre>
+ * ReferenceResolver resolver = new ReferenceResolver(client);
+ * List&lt;Ref&lt;Grant&gt;&gt; grants = resolver.refs(submission, "grants", Grant.class);
+ * Funder funder = resolver.ref(grants.get(0).get(), "primaryFunder", Funder.class).get();
+ * </pre>
+ * Nothing is read until a reference is used. The entities of one field are read together, in parallel, and 
+ * each entity is read at most once by a resolver, so a resolver is a cache and should be discarded, or 
+ * cleared, when its entities may be out of date, such as at the end of a request.
+ * @author agent
+ */
+public class ReferenceResolver {
+
+    private final PassClient client;
+
+    private final Executor executor;
+
+    private final PassEntityRegistry registry;
+
+    private final Map<URI, CompletableFuture<PassEntity>> cache = new ConcurrentHashMap<URI, CompletableFuture<PassEntity>>();
+
+    /**
+     * Creates a resolver that reads entities on the pool of threads shared by the client helpers
+     * @param client
+     */
+    public ReferenceResolver(PassClient client) {
+        this(client, ClientExecutors.getDefault());
+    }
+
+    /**
+     * Creates a resolver that reads entities using the executor provided
+     * @param client
+     * @param executor
+     */
+    public ReferenceResolver(PassClient client, Executor executor) {
+        if (client == null) {
+            throw new IllegalArgumentException("client cannot be null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("executor cannot be null");
+        }
+        this.client = client;
+        this.executor = executor;
+        this.registry = PassEntityRegistry.getDefault();
+    }
+
+    /**
+     * Creates a reference to an entity
+     * @param uri
+     * @param modelClass type of the entity
+     * @return the reference
+     */
+    public <T extends PassEntity> Ref<T> ref(URI uri, Class<T> modelClass) {
+        if (uri == null) {
+            throw new IllegalArgumentException("uri cannot be null");
+        }
+        registry.get(modelClass);
+        return new Ref<T>(uri, modelClass, this, new Batch(Collections.singletonList(uri), modelClass));
+    }
+
+    /**
+     * Creates a reference to the entity held by a single-valued reference field
+     * @param entity the entity holding the field
+     * @param fieldName name of the field, for example "publication"
+     * @param modelClass type of the referenced entity
+     * @return the reference, or null if the field is empty
+     */
+    public <T extends PassEntity> Ref<T> ref(PassEntity entity, String fieldName, Class<T> modelClass) {
+        List<Ref<T>> refs = refs(entity, fieldName, modelClass);
+        return refs.isEmpty() ? null : refs.get(0);
+    }
+
+    /**
+     * Creates references to the entities held by a reference field. The references are read together the 
+     * first time one of them is used.
+     * @param entity the entity holding the field
+     * @param fieldName name of the field, for example "grants"
+     * @param modelClass type of the referenced entities
+     * @return the references, in the order they are held by the field
+     */
+    public <T extends PassEntity> List<Ref<T>> refs(PassEntity entity, String fieldName, Class<T> modelClass) {
+        if (entity == null) {
+            throw new IllegalArgumentException("entity cannot be null");
+        }
+        ReferenceField field = registry.get(entity.getClass()).getReferenceField(fieldName);
+        if (field == null) {
+            throw new IllegalArgumentException(String.format("\"%s\" is not a reference field of %s",
+                    fieldName, entity.getClass().getSimpleName()));
+        }
+        if (field.getTarget().getModelClass() != modelClass) {
+            throw new IllegalArgumentException(String.format("%s refers to %s, not %s", field,
+                    field.getTarget().getName(), modelClass != null ? modelClass.getSimpleName() : null));
+        }
+
+        List<URI> uris = field.getReferences(entity);
+        Batch batch = new Batch(uris, modelClass);
+        List<Ref<T>> refs = new ArrayList<Ref<T>>(uris.size());
+        for (URI uri : uris) {
+            refs.add(new Ref<T>(uri, modelClass, this, batch));
+        }
+        return refs;
+    }
+
+    /**
+     * Reads the entities held by a reference field, in parallel, reusing any this resolver has already read
+     * @param entity the entity holding the field
+     * @param fieldName name of the field
+     * @param modelClass type of the referenced entities
+     * @return the referenced entities, in the order they are held by the field
+     */
+    public <T extends PassEntity> List<T> resolve(PassEntity entity, String fieldName, Class<T> modelClass) {
+        List<Ref<T>> refs = refs(entity, fieldName, modelClass);
+        List<T> entities = new ArrayList<T>(refs.size());
+        for (Ref<T> ref : refs) {
+            entities.add(ref.get());
+        }
+        return entities;
+    }
+
+    /**
+     * Forgets the entities that have been read, so that references are read again when they are next used
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    boolean isResolved(URI uri) {
+        CompletableFuture<PassEntity> future = cache.get(uri);
+        return future != null && future.isDone() && !future.isCompletedExceptionally();
+    }
+
+    /**
+     * Starts reading each entity of the batch that has not been read, or is not being read
+     */
+    void fetch(Batch batch) {
+        for (URI uri : batch.uris) {
+            load(uri, batch.modelClass);
+        }
+    }
+
+    /**
+     * Retrieves the read of an entity, starting it if it has not been started
+     */
+    CompletableFuture<PassEntity> load(URI uri, Class<? extends PassEntity> modelClass) {
+        CompletableFuture<PassEntity> future = cache.get(uri);
+        if (future == null) {
+            CompletableFuture<PassEntity> started = new CompletableFuture<PassEntity>();
+            future = cache.putIfAbsent(uri, started);
+            if (future == null) {
+                future = started;
+                CompletableFuture.supplyAsync(() -> (PassEntity) client.readResource(uri, modelClass), executor)
+                        .whenComplete((entity, e) -> {
+                            if (e != null) {
+                                // a failed read is forgotten, so that it is tried again the next time it is needed
+                                cache.remove(uri, started);
+                                started.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+                            } else {
+                                started.complete(entity);
+                            }
+                        });
+            }
+        }
+        return future;
+    }
+
+    static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("A problem occurred while reading a referenced entity", e.getCause());
+        }
+    }
+
+    /**
+     * References that are read together
+     */
+    static final class Batch {
+
+        private final List<URI> uris;
+
+        private final Class<? extends PassEntity> modelClass;
+
+        Batch(List<URI> uris, Class<? extends PassEntity> modelClass) {
+            this.uris = uris;
+            this.modelClass = modelClass;
+        }
+
+    }
+
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.dataconservancy.pass.client.elasticsearch.ElasticsearchPassClient;
+import org.dataconservancy.pass.model.PassEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An in-memory index of the references between PASS entities, kept in both directions: from each target to 
+ * the fields and entities that refer to it, and from each source entity to what it refers to. The second is 
+ * needed to remove the old references of an entity when it changes or is deleted.
+ * <p>
+ * The index is fed with the entities a client reads and writes, and can be loaded in bulk from elasticsearch 
+ * using loadFromIndex. It can only answer for a target when it knows about every entity that refers to it: 
+ * that is, once it has been loaded in bulk, or once the incoming references of that target have been recorded 
+ * with putIncoming. Changes made by other clients are not seen, so the index should only be used where this 
+ * client is the only writer, or where slightly stale incoming references are acceptable.
+ * </p>
+ * @author agent
+ */
+public class ReverseReferenceIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReverseReferenceIndex.class);
+
+    private static final ReverseReferenceIndex DEFAULT_INDEX = new ReverseReferenceIndex();
+
+    private final PassEntityRegistry registry;
+
+    private final Map<URI, Map<String, Set<URI>>> incoming = new HashMap<URI, Map<String, Set<URI>>>();
+
+    private final Map<URI, Map<String, Set<URI>>> outgoing = new HashMap<URI, Map<String, Set<URI>>>();
+
+    private final Set<URI> completeTargets = new HashSet<URI>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean loaded = false;
+
+    /**
+     * Creates an empty index that uses the default entity registry
+     */
+    public ReverseReferenceIndex() {
+        this(PassEntityRegistry.getDefault());
+    }
+
+    /**
+     * Creates an empty index
+     * @param registry provides the reference fields of each entity type
+     */
+    public ReverseReferenceIndex(PassEntityRegistry registry) {
+        if (registry == null) {
+            throw new IllegalArgumentException("registry cannot be null");
+        }
+        this.registry = registry;
+    }
+
+    /**
+     * Retrieves the index shared by the clients in this JVM, which FedoraPassCrudClient maintains and uses 
+     * when the pass.fedora.incoming.index setting is true
+     * @return the shared index
+     */
+    public static ReverseReferenceIndex getDefault() {
+        return DEFAULT_INDEX;
+    }
+
+    /**
+     * Records the current references of an entity, replacing any recorded before
+     * @param entity an entity that was read or written
+     */
+    public void update(PassEntity entity) {
+        if (entity == null || entity.getId() == null) {
+            return;
+        }
+        Map<String, Set<URI>> references = new HashMap<String, Set<URI>>();
+        for (ReferenceField field : registry.get(entity.getClass()).getReferenceFields()) {
+            List<URI> targets = field.getReferences(entity);
+            if (!targets.isEmpty()) {
+                references.put(field.getName(), new HashSet<URI>(targets));
+            }
+        }
+        replace(entity.getId(), references);
+    }
+
+    /**
+     * Removes the references held by an entity, for example because it was deleted
+     * @param source URI of the entity
+     */
+    public void remove(URI source) {
+        replace(source, Collections.<String, Set<URI>>emptyMap());
+        lock.writeLock().lock();
+        try {
+            completeTargets.remove(source);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records the complete set of incoming references for a target, as retrieved from the repository. After 
+     * this, the index can answer getIncoming for the target.
+     * @param target URI of the entity that is referred to
+     * @param references field name to the URIs of the entities that refer to the target through it
+     */
+    public void putIncoming(URI target, Map<String, Collection<URI>> references) {
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<String, Collection<URI>> entry : references.entrySet()) {
+                for (URI source : entry.getValue()) {
+                    add(source, entry.getKey(), target);
+                }
+            }
+            completeTargets.add(target);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param target
+     * @return true if the index knows every entity that refers to the target
+     */
+    public boolean isComplete(URI target) {
+        if (loaded) {
+            return true;
+        }
+        lock.readLock().lock();
+        try {
+            return completeTargets.contains(target);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves the incoming references of a target, in the same form as PassClient.getIncoming. Only entities 
+     * the index knows about are included, see isComplete.
+     * @param target URI of the entity that is referred to
+     * @return field name to the URIs of the entities that refer to the target through it
+     */
+    public Map<String, Collection<URI>> getIncoming(URI target) {
+        lock.readLock().lock();
+        try {
+            Map<String, Set<URI>> fields = incoming.get(target);
+            if (fields == null) {
+                return Collections.emptyMap();
+            }
+            Map<String, Collection<URI>> result = new HashMap<String, Collection<URI>>();
+            for (Map.Entry<String, Set<URI>> entry : fields.entrySet()) {
+                result.put(entry.getKey(), new HashSet<URI>(entry.getValue()));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the references held by every entity in the elasticsearch index. Once loaded, the index answers 
+     * for every target.
+     * @param indexClient
+     */
+    public void loadFromIndex(ElasticsearchPassClient indexClient) {
+        long start = System.currentTimeMillis();
+        for (PassEntityMetadata metadata : registry.getAll()) {
+            List<String> fieldNames = new ArrayList<String>();
+            for (ReferenceField field : metadata.getReferenceFields()) {
+                fieldNames.add(field.getName());
+            }
+            if (fieldNames.isEmpty()) {
+                continue;
+            }
+            indexClient.forEachSource(metadata.getModelClass(), fieldNames, source -> {
+                Object id = source.get("@id");
+                if (id == null) {
+                    return;
+                }
+                Map<String, Set<URI>> references = new HashMap<String, Set<URI>>();
+                for (String fieldName : fieldNames) {
+                    Set<URI> targets = toUris(source.get(fieldName));
+                    if (!targets.isEmpty()) {
+                        references.put(fieldName, targets);
+                    }
+                }
+                replace(URI.create(id.toString()), references);
+            });
+        }
+        loaded = true;
+        LOG.info("Loaded reverse reference index in {}ms", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Empties the index
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            incoming.clear();
+            outgoing.clear();
+            completeTargets.clear();
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void replace(URI source, Map<String, Set<URI>> references) {
+        lock.writeLock().lock();
+        try {
+            Map<String, Set<URI>> previous = outgoing.remove(source);
+            if (previous != null) {
+                for (Map.Entry<String, Set<URI>> entry : previous.entrySet()) {
+                    for (URI target : entry.getValue()) {
+                        Map<String, Set<URI>> fields = incoming.get(target);
+                        Set<URI> sources = fields != null ? fields.get(entry.getKey()) : null;
+                        if (sources != null) {
+                            sources.remove(source);
+                            if (sources.isEmpty()) {
+                                fields.remove(entry.getKey());
+                            }
+                            if (fields.isEmpty()) {
+                                incoming.remove(target);
+                            }
+                        }
+                    }
+                }
+            }
+            for (Map.Entry<String, Set<URI>> entry : references.entrySet()) {
+                for (URI target : entry.getValue()) {
+                    add(source, entry.getKey(), target);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(URI source, String field, URI target) {
+        outgoing.computeIfAbsent(source, s -> new HashMap<String, Set<URI>>())
+                .computeIfAbsent(field, f -> new HashSet<URI>()).add(target);
+        incoming.computeIfAbsent(target, t -> new HashMap<String, Set<URI>>())
+                .computeIfAbsent(field, f -> new HashSet<URI>()).add(source);
+    }
+
+    private static Set<URI> toUris(Object value) {
+        Set<URI> uris = new HashSet<URI>();
+        if (value instanceof Collection) {
+            for (Object item : (Collection<?>) value) {
+                if (item != null) {
+                    uris.add(URI.create(item.toString()));
+                }
+            }
+        } else if (value != null) {
+            uris.add(URI.create(value.toString()));
+        }
+        return uris;
+    }
+
+}
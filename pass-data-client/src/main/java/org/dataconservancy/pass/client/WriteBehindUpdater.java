@@ -0,0 +1,279 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+import org.dataconservancy.pass.client.fedora.FedoraConfig;
+import org.dataconservancy.pass.model.PassEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds updates for a short time before writing them, so that several updates to the same entity are sent 
+ * to the repository as one, for example:
+ * <pre>
+ * try (WriteBehindUpdater updater = new WriteBehindUpdater(client, (entity, e) -&gt; handle(entity, e))) {
+ *     submission.setSubmitted(true);
+ *     updater.update(submission);
+ *     submission.setAggregatedDepositStatus(AggregatedDepositStatus.IN_PROGRESS);
+ *     updater.update(submission);
+ * }
+ * </pre>
+ * Each update takes a copy of the entity, so the caller can go on changing it. Updates to an entity that 
+ * arrive while an earlier one is held are merged with it (see PassEntity.merge), keeping the later value of 
+ * a field changed by both. The held updates for an entity are written the window after the first of them 
+ * arrived, all of the held updates are written when updates are held for the maximum number of entities, and 
+ * flush writes them straight away. Writes happen in the order they are made, one at a time, on the updater's 
+ * timer thread or on the thread that caused the flush.
+ * <p>
+ * Updates are written with updateResource, so an update is only written if the entity has not changed in the 
+ * repository since the version it was made to, including changes written by this updater. The caller's entity 
+ * keeps the version tag it was read with, so once its updates have been written, read it again before updating 
+ * it in a later window. Updates that cannot be written, including conflicts, are passed to the failure callback 
+ * with their exception, since the caller has usually moved on by then.
+ * </p>
+ * @author agent
+ */
+public class WriteBehindUpdater implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WriteBehindUpdater.class);
+
+    private final PassClient client;
+
+    private final long windowMillis;
+
+    private final int maxPending;
+
+    private final BiConsumer<? super PassEntity, ? super RuntimeException> onFailure;
+
+    private final ScheduledExecutorService timer;
+
+    /** guards pending and closed */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** held while taking updates from pending and writing them, so that they are written in order */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final Map<URI, Pending> pending = new LinkedHashMap<URI, Pending>();
+
+    private boolean closed = false;
+
+    /**
+     * Creates an updater using the window and size configured in FedoraConfig
+     * @param client
+     * @param onFailure receives each update that could not be written, with the exception
+     */
+    public WriteBehindUpdater(PassClient client, BiConsumer<? super PassEntity, ? super RuntimeException> onFailure) {
+        this(client, FedoraConfig.getWriteBehindWindow(), FedoraConfig.getWriteBehindSize(), onFailure);
+    }
+
+    /**
+     * Creates an updater
+     * @param client
+     * @param windowMillis how long the updates to an entity are held before they are written
+     * @param maxPending number of entities updates are held for before all of them are written
+     * @param onFailure receives each update that could not be written, with the exception
+     */
+    public WriteBehindUpdater(PassClient client, long windowMillis, int maxPending, 
+            BiConsumer<? super PassEntity, ? super RuntimeException> onFailure) {
+        if (client == null) {
+            throw new IllegalArgumentException("client cannot be null");
+        }
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("windowMillis cannot be negative");
+        }
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("maxPending must be at least 1");
+        }
+        if (onFailure == null) {
+            throw new IllegalArgumentException("onFailure cannot be null");
+        }
+        this.client = client;
+        this.windowMillis = windowMillis;
+        this.maxPending = maxPending;
+        this.onFailure = onFailure;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pass-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Holds an update to an entity, to be written later
+     * @param entity an entity read from the repository, and then changed
+     * @throws IllegalStateException if the updater has been closed
+     */
+    public void update(PassEntity entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("entity cannot be null");
+        }
+        if (entity.getId() == null) {
+            throw new IllegalArgumentException("entity must have an ID to be updated");
+        }
+        if (entity.isIndexSourced()) {
+            throw new IllegalArgumentException(String.format("Cannot update %s: the %s was retrieved from the " + 
+                    "index and may be out of date. Read it from the repository before updating.", entity.getId(),
+                    entity.getClass().getSimpleName()));
+        }
+
+        PassEntity copy = PassEntity.mutableCopy(entity);
+        URI uri = entity.getId();
+        boolean full;
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("The updater has been closed");
+            }
+            Pending held = pending.get(uri);
+            if (held != null) {
+                held.entity = PassEntity.merge(held.entity, copy);
+                LOG.debug("Merged an update of {} with the one already held", uri);
+            } else {
+                Pending added = new Pending(uri, copy);
+                pending.put(uri, added);
+                timer.schedule(() -> flush(added), windowMillis, TimeUnit.MILLISECONDS);
+            }
+            full = pending.size() >= maxPending;
+        } finally {
+            lock.unlock();
+        }
+
+        if (full) {
+            LOG.debug("Writing held updates, updates are held for {} entities", maxPending);
+            flush();
+        }
+    }
+
+    /**
+     * Writes all of the updates being held, returning once they have been written or passed to the failure 
+     * callback
+     */
+    public void flush() {
+        writeLock.lock();
+        try {
+            List<Pending> due;
+            lock.lock();
+            try {
+                due = new ArrayList<Pending>(pending.values());
+                pending.clear();
+            } finally {
+                lock.unlock();
+            }
+            write(due);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return number of entities with updates being held
+     */
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the updates being held and stops the updater. Updates made after it is closed are rejected.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+        } finally {
+            lock.unlock();
+        }
+        flush();
+        timer.shutdownNow();
+    }
+
+    /**
+     * Writes the updates to an entity when its window ends, unless they were already written by a flush
+     */
+    private void flush(Pending due) {
+        writeLock.lock();
+        try {
+            lock.lock();
+            try {
+                if (pending.get(due.uri) != due) {
+                    return;
+                }
+                pending.remove(due.uri);
+            } finally {
+                lock.unlock();
+            }
+            List<Pending> single = new ArrayList<Pending>(1);
+            single.add(due);
+            write(single);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes updates that have been taken from pending. The write lock is taken before they are removed, so 
+     * that updates are written in the order they were removed.
+     */
+    private void write(List<Pending> due) {
+        for (Pending held : due) {
+            try {
+                client.updateResource(held.entity);
+            } catch (RuntimeException e) {
+                LOG.debug("Could not write the held update of {}: {}", held.uri, e.getMessage());
+                try {
+                    onFailure.accept(held.entity, e);
+                } catch (RuntimeException callbackError) {
+                    LOG.error("The failure callback threw an exception for {}", held.uri, callbackError);
+                }
+            }
+        }
+    }
+
+    /**
+     * The merged updates held for one entity
+     */
+    private static final class Pending {
+
+        private final URI uri;
+
+        /* only accessed while holding the updater's lock, until it is removed from pending */
+        private PassEntity entity;
+
+        private Pending(URI uri, PassEntity entity) {
+            this.uri = uri;
+            this.entity = entity;
+        }
+
+    }
+
+}
@@ -39,6 +39,39 @@ public class ElasticsearchConfig {
     private static final String INDEXER_LIMIT_KEY = "pass.elasticsearch.limit";
     private static final Integer DEFAULT_INDEXER_LIMIT = 200;
 
+    private static final String INDEXER_BATCH_SIZE_KEY = "pass.elasticsearch.batchsize";
+    private static final Integer DEFAULT_INDEXER_BATCH_SIZE = 100;
+
+    private static final String BREAKER_KEY = "pass.elasticsearch.breaker";
+    private static final String DEFAULT_BREAKER = "false";
+
+    private static final String BREAKER_WINDOW_KEY = "pass.elasticsearch.breaker.window";
+    private static final Integer DEFAULT_BREAKER_WINDOW = 20;
+
+    private static final String BREAKER_RATE_KEY = "pass.elasticsearch.breaker.rate";
+    private static final Integer DEFAULT_BREAKER_RATE = 50;
+
+    private static final String BREAKER_OPEN_KEY = "pass.elasticsearch.breaker.open";
+    private static final Integer DEFAULT_BREAKER_OPEN = 10000;
+
+    private static final String COALESCE_KEY = "pass.elasticsearch.coalesce";
+    private static final String DEFAULT_COALESCE = "false";
+
+    private static final String BULKHEAD_KEY = "pass.elasticsearch.bulkhead";
+    private static final String DEFAULT_BULKHEAD = "0";
+
+    private static final String BULKHEAD_WAIT_KEY = "pass.elasticsearch.bulkhead.wait";
+    private static final Integer DEFAULT_BULKHEAD_WAIT = 30000;
+
+    private static final String HEDGE_KEY = "pass.elasticsearch.hedge";
+    private static final String DEFAULT_HEDGE = "false";
+
+    private static final String HEDGE_PERCENTILE_KEY = "pass.elasticsearch.hedge.percentile";
+    private static final Integer DEFAULT_HEDGE_PERCENTILE = 95;
+
+    private static final String HEDGE_MIN_DELAY_KEY = "pass.elasticsearch.hedge.mindelay";
+    private static final Integer DEFAULT_HEDGE_MIN_DELAY = 5;
+
     
     /**
      * Get indexer URL(s), defaults to DEFAULT_INDEXER_URL if one not set
@@ -85,5 +118,174 @@ public class ElasticsearchConfig {
         return limit;
     }
 
+
+    /**
+     * Get the maximum number of searches that will be packed into a single multi-search request, defaults to 
+     * DEFAULT_INDEXER_BATCH_SIZE if environment variable not set
+     * @return
+     */
+    public static Integer getIndexerBatchSize() {
+        Integer batchSize = DEFAULT_INDEXER_BATCH_SIZE;
+        
+        try {
+            String sBatchSize = ConfigUtil.getSystemProperty(INDEXER_BATCH_SIZE_KEY, DEFAULT_INDEXER_BATCH_SIZE.toString());
+            batchSize = Integer.parseInt(sBatchSize);
+            if (batchSize < 1) {
+                batchSize = DEFAULT_INDEXER_BATCH_SIZE;
+                LOG.warn("Index batch size environment variable was less than 1, using default batch size of " + batchSize);
+            }
+        } catch (Exception e) {
+            batchSize = DEFAULT_INDEXER_BATCH_SIZE;
+            LOG.warn("Batch size environment variable could not be converted to an Integer, using default batch size of " + batchSize, e);
+        }
+        
+        LOG.debug("Using indexer batch size of: {}", batchSize);
+        return batchSize;
+    }
+    
+
+
+    /**
+     * Get whether requests to the index go through a circuit breaker, defaults to DEFAULT_BREAKER if environment 
+     * variable not set
+     * @return
+     */
+    public static boolean getBreaker() {
+        boolean breaker = Boolean.parseBoolean(ConfigUtil.getSystemProperty(BREAKER_KEY, DEFAULT_BREAKER));
+        LOG.debug("Using index circuit breaker: {}", breaker);
+        return breaker;
+    }
+
+
+    /**
+     * Get the number of recent requests whose outcome the circuit breaker keeps, defaults to 
+     * DEFAULT_BREAKER_WINDOW if environment variable not set
+     * @return
+     */
+    public static Integer getBreakerWindow() {
+        return getPositiveInteger(BREAKER_WINDOW_KEY, DEFAULT_BREAKER_WINDOW, "Circuit breaker window");
+    }
+
+
+    /**
+     * Get the percentage of failed requests at which the circuit breaker opens, defaults to 
+     * DEFAULT_BREAKER_RATE if environment variable not set
+     * @return
+     */
+    public static Integer getBreakerRate() {
+        Integer rate = getPositiveInteger(BREAKER_RATE_KEY, DEFAULT_BREAKER_RATE, "Circuit breaker rate");
+        if (rate > 100) {
+            rate = DEFAULT_BREAKER_RATE;
+            LOG.warn("Circuit breaker rate environment variable was over 100, using default rate of " + rate);
+        }
+        return rate;
+    }
+
+
+    /**
+     * Get how long, in milliseconds, the circuit breaker stays open before trial requests are made, defaults to 
+     * DEFAULT_BREAKER_OPEN if environment variable not set
+     * @return
+     */
+    public static Integer getBreakerOpen() {
+        return getPositiveInteger(BREAKER_OPEN_KEY, DEFAULT_BREAKER_OPEN, "Circuit breaker open time");
+    }
+
+
+    /**
+     * Get whether concurrent identical searches and counts are coalesced into one request, defaults to 
+     * DEFAULT_COALESCE if environment variable not set
+     * @return
+     */
+    public static boolean getCoalesce() {
+        boolean coalesce = Boolean.parseBoolean(ConfigUtil.getSystemProperty(COALESCE_KEY, DEFAULT_COALESCE));
+        LOG.debug("Using index coalescing: {}", coalesce);
+        return coalesce;
+    }
+
+
+    /**
+     * Get whether searches are sent to a second host when the first is slow to answer, defaults to 
+     * DEFAULT_HEDGE if environment variable not set
+     * @return
+     */
+    public static boolean getHedge() {
+        boolean hedge = Boolean.parseBoolean(ConfigUtil.getSystemProperty(HEDGE_KEY, DEFAULT_HEDGE));
+        LOG.debug("Using hedged searches: {}", hedge);
+        return hedge;
+    }
+
+
+    /**
+     * Get the percentile of recent search latencies after which a search is sent to a second host, defaults to 
+     * DEFAULT_HEDGE_PERCENTILE if environment variable not set
+     * @return
+     */
+    public static Integer getHedgePercentile() {
+        Integer percentile = getPositiveInteger(HEDGE_PERCENTILE_KEY, DEFAULT_HEDGE_PERCENTILE, "Hedge percentile");
+        if (percentile > 100) {
+            percentile = DEFAULT_HEDGE_PERCENTILE;
+            LOG.warn("Hedge percentile environment variable was over 100, using default percentile of " + percentile);
+        }
+        return percentile;
+    }
+
+
+    /**
+     * Get the shortest time, in milliseconds, a search waits before it is sent to a second host, defaults to 
+     * DEFAULT_HEDGE_MIN_DELAY if environment variable not set
+     * @return
+     */
+    public static Integer getHedgeMinDelay() {
+        return getPositiveInteger(HEDGE_MIN_DELAY_KEY, DEFAULT_HEDGE_MIN_DELAY, "Hedge minimum delay");
+    }
+
+
+    /**
+     * Get the number of requests that may be in progress to the index at once, defaults to DEFAULT_BULKHEAD, 
+     * meaning no cap, if environment variable not set
+     * @return
+     */
+    public static Integer getBulkhead() {
+        Integer permits = 0;
+
+        try {
+            permits = Integer.parseInt(ConfigUtil.getSystemProperty(BULKHEAD_KEY, DEFAULT_BULKHEAD));
+        } catch (Exception e) {
+            LOG.warn("Bulkhead environment variable could not be converted to an Integer, index requests will not be capped", e);
+        }
+
+        LOG.debug("Using index bulkhead of: {}", permits);
+        return permits;
+    }
+
+
+    /**
+     * Get how long, in milliseconds, a request may wait for the bulkhead before it fails, defaults to 
+     * DEFAULT_BULKHEAD_WAIT if environment variable not set
+     * @return
+     */
+    public static Integer getBulkheadWait() {
+        return getPositiveInteger(BULKHEAD_WAIT_KEY, DEFAULT_BULKHEAD_WAIT, "Bulkhead wait");
+    }
+
+
+    private static Integer getPositiveInteger(String key, Integer defaultValue, String description) {
+        Integer value = defaultValue;
+
+        try {
+            value = Integer.parseInt(ConfigUtil.getSystemProperty(key, defaultValue.toString()));
+            if (value < 1) {
+                value = defaultValue;
+                LOG.warn(description + " environment variable was less than 1, using default of " + value);
+            }
+        } catch (Exception e) {
+            value = defaultValue;
+            LOG.warn(description + " environment variable could not be converted to an Integer, using default of " + value, e);
+        }
+
+        LOG.debug("Using {} of: {}", description.toLowerCase(), value);
+        return value;
+    }
     
 }
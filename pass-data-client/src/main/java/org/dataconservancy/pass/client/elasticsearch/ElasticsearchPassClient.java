@@ -15,30 +15,88 @@
  */
 package org.dataconservancy.pass.client.elasticsearch;
 
+import java.io.IOException;
+
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpHost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.entity.NStringEntity;
 
+import org.dataconservancy.pass.client.ClientExecutors;
+import org.dataconservancy.pass.client.PassEntityRegistry;
+import org.dataconservancy.pass.client.PassFlow;
+import org.dataconservancy.pass.client.PassJsonAdapter;
+import org.dataconservancy.pass.client.adapter.PassJsonAdapterBasic;
+import org.dataconservancy.pass.client.support.Bulkhead;
+import org.dataconservancy.pass.client.support.CircuitBreaker;
+import org.dataconservancy.pass.client.support.LatencyWindow;
+import org.dataconservancy.pass.client.support.SingleFlight;
 import org.dataconservancy.pass.model.PassEntity;
-import org.dataconservancy.pass.model.PassEntityType;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.ClearScrollRequest;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequest;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseException;
+import org.elasticsearch.client.ResponseListener;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.query.Operator;
 import org.elasticsearch.index.query.QueryStringQueryBuilder;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramInterval;
+import org.elasticsearch.search.aggregations.bucket.histogram.Histogram;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -72,12 +130,129 @@ public class ElasticsearchPassClient {
     
     private static final String ID_FIELDNAME = "@id";
 
+    private static final String COUNT_ENDPOINT = "/_count";
+
+    /**
+     * Template for the body of a _count request, where %s is the query
+     */
+    private static final String COUNT_BODY_TEMPLATE = "{\"query\":%s}";
+
+    private static final String COUNT_FIELDNAME = "count";
+
+    /**
+     * Name given to the aggregation in facet queries
+     */
+    private static final String FACET_NAME = "facet";
+
+    /**
+     * How long elasticsearch keeps a scroll open between pages
+     */
+    private static final TimeValue SCROLL_KEEPALIVE = TimeValue.timeValueMinutes(1);
+
+    /**
+     * Number of trial requests that must succeed before an open circuit breaker closes
+     */
+    private static final int BREAKER_TRIAL_REQUESTS = 3;
+
+    /**
+     * Guards creation of the breaker, bulkhead and hedge timer shared by the clients in the JVM
+     */
+    private static final ReentrantLock DEFAULTS_LOCK = new ReentrantLock();
+
+    private static volatile CircuitBreaker defaultBreaker;
+
+    private static final SingleFlight<String, Set<URI>> SHARED_SEARCHES = new SingleFlight<String, Set<URI>>();
+
+    private static final SingleFlight<String, Long> SHARED_COUNTS = new SingleFlight<String, Long>();
+
+    /**
+     * Latencies of recent searches sent to a single host of each cluster, used to work out the hedge delay
+     */
+    private static final ConcurrentHashMap<String, LatencyWindow> HEDGE_LATENCIES = 
+            new ConcurrentHashMap<String, LatencyWindow>();
+
+    private static volatile ScheduledExecutorService hedgeTimer;
+
+    private static volatile Bulkhead defaultBulkhead;
+
     /**
      * URL(s) of indexer
      */
     private final HttpHost[] hosts;
-        
+
+    /**
+     * Identifies the cluster the hosts belong to, so that searches are only coalesced with those sent to the 
+     * same cluster
+     */
+    private final String cluster;
+
+    /**
+     * Latencies of recent searches sent to a single host of this client's cluster, shared with other clients of 
+     * the same cluster
+     */
+    private final LatencyWindow hedgeLatencies;
+
+    /**
+     * A JSON adapter for PASS, used to convert index documents to entities
+     */
+    private final PassJsonAdapter adapter;
+
+    /**
+     * Metadata of the PASS entity types
+     */
+    private final PassEntityRegistry registry = PassEntityRegistry.getDefault();
+
+    /**
+     * Fails requests fast while the index is failing, or null if no circuit breaker is used
+     */
+    private CircuitBreaker breaker = ElasticsearchConfig.getBreaker() ? getDefaultBreaker() : null;
+
+    /**
+     * Whether concurrent identical searches and counts are coalesced into one request
+     */
+    private boolean coalesce = ElasticsearchConfig.getCoalesce();
+
+    /**
+     * Caps the number of requests in progress to the index, or null if they are not capped
+     */
+    private Bulkhead bulkhead = ElasticsearchConfig.getBulkhead() > 0 ? getDefaultBulkhead() : null;
+
+    /**
+     * Whether searches are sent to a second host when the first is slow to answer
+     */
+    private boolean hedge = ElasticsearchConfig.getHedge();
+
+    /**
+     * Percentile of recent search latencies after which a search is hedged
+     */
+    private final int hedgePercentile = ElasticsearchConfig.getHedgePercentile();
+
+    /**
+     * Shortest time, in milliseconds, a search waits before it is hedged
+     */
+    private final int hedgeMinDelay = ElasticsearchConfig.getHedgeMinDelay();
+
+    /**
+     * Chooses the host each hedged search is sent to first, in turn
+     */
+    private final AtomicInteger nextHost = new AtomicInteger(0);
+
+    /**
+     * Instantiates the client using the default JSON adapter
+     */
     public ElasticsearchPassClient() {
+        this(new PassJsonAdapterBasic());
+    }
+
+    /**
+     * Support passing in of the JSON adapter
+     * @param adapter
+     */
+    public ElasticsearchPassClient(PassJsonAdapter adapter) {
+        if (adapter == null) {
+            throw new IllegalArgumentException("adapter parameter cannot be null");
+        }
+        this.adapter = adapter;
         Set<URL> indexerUrls = ElasticsearchConfig.getIndexerHostUrl();      
         hosts = new HttpHost[indexerUrls.size()];
         int count = 0;
@@ -86,6 +261,8 @@ public class ElasticsearchPassClient {
             hosts[count] = new HttpHost(url.getHost(), url.getPort(), url.getProtocol());
             count = count+1;
         }
+        cluster = Arrays.stream(hosts).map(HttpHost::toURI).sorted().collect(Collectors.joining(","));
+        hedgeLatencies = HEDGE_LATENCIES.computeIfAbsent(cluster, key -> new LatencyWindow(500, 20));
         
     }
     
@@ -96,21 +273,11 @@ public class ElasticsearchPassClient {
         validateModelParam(modelClass);
         validateAttribValParams(attribute, value, true);
                 
-        String indexType = null;
-        
-        if (PassEntityType.getTypeByName(modelClass.getSimpleName())!=null) {
-            indexType = PassEntityType.getTypeByName(modelClass.getSimpleName()).getName();
-        }
+        String indexType = registry.get(modelClass).getIndexType();
 
-        String attribs = null;
-        if (value != null) {
-            attribs = String.format(QS_ATTRIB_TEMPLATE, attribute, value.toString());
-        } else {
-            attribs = String.format(QS_ATTRIB_NOT_EXISTS_TEMPLATE, attribute);
-        }
-        String querystring = String.format(QS_TEMPLATE, indexType, attribs);
-             
-        Set<URI> passEntityUris = getIndexerResults(querystring, 2, 0); //get 2 so we can check only one result matched
+        String querystring = singleMatchQuerystring(indexType, attribute, value);
+
+        Set<URI> passEntityUris = findUris(querystring, 2, 0); //get 2 so we can check only one result matched
         if (passEntityUris.size()>1) {
             throw new RuntimeException("More than one results was returned by this query. findByAttribute() searches should match only one result");
         }
@@ -121,7 +288,57 @@ public class ElasticsearchPassClient {
         return passEntityUri;
     }
 
-        
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#findByAttributeBatch(Class, String, Collection)
+     */
+    public <T extends PassEntity, V> Map<V, URI> findByAttributeBatch(Class<T> modelClass, String attribute, Collection<V> values) {
+        return findByAttributeBatch(modelClass, attribute, values, ElasticsearchConfig.getIndexerBatchSize());
+    }
+
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#findByAttributeBatch(Class, String, Collection, int)
+     */
+    public <T extends PassEntity, V> Map<V, URI> findByAttributeBatch(Class<T> modelClass, String attribute, Collection<V> values, int batchSize) {
+        validateModelParam(modelClass);
+        validateAttribValuesParams(attribute, values);
+        if (batchSize < 1) {throw new IllegalArgumentException("The batchSize value cannot be less than 1");}
+
+        LOG.debug("Searching for {} {} values of {} in batches of {}", values.size(), attribute, modelClass.getSimpleName(), batchSize);
+
+        String indexType = registry.get(modelClass).getIndexType();
+
+        //de-duplicate while keeping the order the values were supplied in
+        List<V> distinctValues = new ArrayList<V>(new LinkedHashSet<V>(values));
+        Map<V, URI> passEntityUris = new LinkedHashMap<V, URI>();
+        List<V> nonUniqueValues = new ArrayList<V>();
+
+        for (int start = 0; start < distinctValues.size(); start = start + batchSize) {
+            List<V> batch = distinctValues.subList(start, Math.min(start + batchSize, distinctValues.size()));
+            List<String> querystrings = new ArrayList<String>();
+            for (V value : batch) {
+                querystrings.add(singleMatchQuerystring(indexType, attribute, value));
+            }
+
+            List<Set<URI>> batchResults = guarded(() -> getIndexerResults(querystrings, 2, 0)); //get 2 so we can check only one result matched
+            for (int i = 0; i < batch.size(); i++) {
+                Set<URI> matches = batchResults.get(i);
+                if (matches.size()>1) {
+                    nonUniqueValues.add(batch.get(i));
+                }
+                passEntityUris.put(batch.get(i), matches.size()==1 ? matches.iterator().next() : null);
+            }
+        }
+
+        if (nonUniqueValues.size()>0) {
+            throw new RuntimeException(String.format("More than one result was returned for the following %s values: %s. "
+                    + "findByAttributeBatch() searches should match only one result per value", attribute, nonUniqueValues));
+        }
+        return passEntityUris;
+    }
+
+
     /**
      * @see org.dataconservancy.pass.client.PassClient#findAllByAttribute(Class, String, Object)
      */
@@ -138,20 +355,10 @@ public class ElasticsearchPassClient {
         validateAttribValParams(attribute, value, true);
         validLimitOffsetParams(limit, offset);
                 
-        String indexType = null;
-        
-        if (PassEntityType.getTypeByName(modelClass.getSimpleName())!=null) {
-            indexType = PassEntityType.getTypeByName(modelClass.getSimpleName()).getName();
-        }
+        String indexType = registry.get(modelClass).getIndexType();
 
-        String attribs = null;
-        if (value != null) {
-            attribs = String.format(QS_ATTRIB_TEMPLATE, attribute, value.toString());
-        } else {
-            attribs = String.format(NOT_EXISTS_TEMPLATE, attribute);
-        }
-        String querystring = String.format(QS_TEMPLATE, indexType, attribs);                
-        Set<URI> passEntityUris = getIndexerResults(querystring, limit, offset);
+        String querystring = attributeQuerystring(indexType, attribute, value);
+        Set<URI> passEntityUris = findUris(querystring, limit, offset);
         
         return passEntityUris;
     }
@@ -175,91 +382,1215 @@ public class ElasticsearchPassClient {
         
         LOG.debug("Searching for {} using multiple filters", modelClass.getSimpleName());
         
-        String indexType = null;
-        
-        if (PassEntityType.getTypeByName(modelClass.getSimpleName())!=null) {
-            indexType = PassEntityType.getTypeByName(modelClass.getSimpleName()).getName();
-        }
+        String indexType = registry.get(modelClass).getIndexType();
         
-        StringBuilder attribs = new StringBuilder("");
-        for(Entry<String,Object> attr : valueAttributesMap.entrySet()) {
-            if (attr.getValue() != null) {
-                attribs.append(String.format(QS_ATTRIB_TEMPLATE, attr.getKey(), attr.getValue().toString()));
-            } else {
-                attribs.append(String.format(QS_ATTRIB_NOT_EXISTS_TEMPLATE, attr.getKey()));
-            }
-        }
-        String querystring = String.format(QS_TEMPLATE, indexType, attribs);
+        String querystring = attributesQuerystring(indexType, valueAttributesMap);
                 
-        Set<URI> passEntityUris = getIndexerResults(querystring, limit, offset);
+        Set<URI> passEntityUris = findUris(querystring, limit, offset);
         return passEntityUris;
     }
-    
-    
+
+
     /**
-     * Retrieve search results from elasticsearch
-     * @param querystring
-     * @param limit
-     * @param offset
-     * @return
+     * @see org.dataconservancy.pass.client.PassClient#publishAllByAttributes(Class, Map<String, Object>)
      */
-    private Set<URI> getIndexerResults(String querystring, int limit, int offset) {
-        
-        Set<URI> passEntityUris = new HashSet<URI>();
-        
-        try (RestHighLevelClient client = new RestHighLevelClient(RestClient.builder(hosts))){
-            
-            SearchRequest searchRequest = new SearchRequest(); 
-            SearchSourceBuilder sourceBuilder = new SearchSourceBuilder(); 
-            sourceBuilder.from(offset);
-            sourceBuilder.size(limit);
+    public <T extends PassEntity> PassFlow.Publisher<URI> publishAllByAttributes(Class<T> modelClass, Map<String, Object> valueAttributesMap) {
+        validateModelParam(modelClass);
+        validateAttribMapParam(valueAttributesMap);
 
-            LOG.debug("Searching index using querystring: {}, with limit {} and offset {}", querystring,  limit, offset);
-            //(content:this OR name:this)
-            QueryStringQueryBuilder matchQueryBuilder = new QueryStringQueryBuilder(querystring);
-                        
-            matchQueryBuilder.defaultOperator(Operator.AND);
-            sourceBuilder.query(matchQueryBuilder);
-            searchRequest.source(sourceBuilder);
-            SearchResponse searchResponse = client.search(searchRequest);
-            SearchHits hits = searchResponse.getHits();
-            Iterator<SearchHit> hitsIt = hits.iterator();
-            
-            while (hitsIt.hasNext()){
-                String idField = hitsIt.next().getSourceAsMap().get(ID_FIELDNAME).toString();
-                passEntityUris.add(new URI(idField));
-            }
-        } catch (URISyntaxException e) {
-            throw new RuntimeException("Something was wrong with the record returned from the indexer. The ID could not be recognized as a URI", e);
-        } catch (Exception e) {
-            throw new RuntimeException(String.format("An error occurred while processing the query: %s", querystring), e);
+        String indexType = registry.get(modelClass).getIndexType();
+        String querystring = attributesQuerystring(indexType, valueAttributesMap);
+        int pageSize = Math.max(1, ElasticsearchConfig.getIndexerLimit());
+
+        return new ScrollPublisher(this, querystring, pageSize, ClientExecutors.getDefault());
+    }
+
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#findAllEntitiesByAttributes(Class, Map<String, Object>)
+     */
+    public <T extends PassEntity> List<T> findAllEntitiesByAttributes(Class<T> modelClass, Map<String, Object> valueAttributesMap) {
+        return findAllEntitiesByAttributes(modelClass, valueAttributesMap, ElasticsearchConfig.getIndexerLimit(), 0);
+    }
+
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#findAllEntitiesByAttributes(Class, Map<String, Object>, int, int)
+     */
+    public <T extends PassEntity> List<T> findAllEntitiesByAttributes(Class<T> modelClass, Map<String, Object> valueAttributesMap, int limit, int offset) {
+        validateModelParam(modelClass);
+        validateAttribMapParam(valueAttributesMap);
+        validLimitOffsetParams(limit, offset);
+
+        LOG.debug("Retrieving {} entities from the index using multiple filters", modelClass.getSimpleName());
+
+        String indexType = registry.get(modelClass).getIndexType();
+
+        String querystring = attributesQuerystring(indexType, valueAttributesMap);
+        return guarded(() -> getIndexerEntities(querystring, limit, offset, modelClass));
+    }
+
+
+    /**
+     * Passes the source document of every record of a type in the index to the consumer provided, reading 
+     * them a page at a time using a scroll, so that all of the records can be visited however many there are. 
+     * Only the fields requested are retrieved, plus the @id of each record.
+     * @param modelClass type of record to visit
+     * @param fields names of the fields to retrieve
+     * @param consumer receives the source document of each record as a map
+     */
+    public <T extends PassEntity> void forEachSource(Class<T> modelClass, Collection<String> fields, Consumer<Map<String, Object>> consumer) {
+        validateModelParam(modelClass);
+        if (fields==null) {throw new IllegalArgumentException("fields cannot be null");}
+        if (consumer==null) {throw new IllegalArgumentException("consumer cannot be null");}
+
+        String indexType = registry.get(modelClass).getIndexType();
+        String querystring = String.format(QS_TEMPLATE, indexType, "");
+        List<String> includes = new ArrayList<String>(fields);
+        includes.add(ID_FIELDNAME);
+
+        guarded(() -> {
+            scrollSources(querystring, includes, consumer);
+            return null;
+        });
+    }
+
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#facetCounts(Class, String, Map<String, Object>)
+     */
+    public <T extends PassEntity> Map<String, Long> facetCounts(Class<T> modelClass, String field, Map<String, Object> filters) {
+        validateModelParam(modelClass);
+        validateFacetParams(field, filters);
+
+        LOG.debug("Counting {} per value of {}", modelClass.getSimpleName(), field);
+
+        String indexType = registry.get(modelClass).getIndexType();
+
+        String querystring = attributesQuerystring(indexType, filters != null ? filters : Collections.emptyMap());
+        TermsAggregationBuilder aggregation = AggregationBuilders.terms(FACET_NAME)
+                .field(field)
+                .size(ElasticsearchConfig.getIndexerLimit());
+
+        Terms terms = guarded(() -> getIndexerAggregations(querystring, aggregation)).get(FACET_NAME);
+
+        Map<String, Long> counts = new LinkedHashMap<String, Long>();
+        for (Terms.Bucket bucket : terms.getBuckets()) {
+            counts.put(bucket.getKeyAsString(), bucket.getDocCount());
         }
-            
-        return passEntityUris;
-        
+        return counts;
     }
-    
-    private <T extends PassEntity> void validateAttribMapParam(Map<String,Object> valueAttributesMap) {
-        if (valueAttributesMap==null || valueAttributesMap.size()==0) {throw new IllegalArgumentException("valueAttributesMap cannot be empty");}
-        for (Entry<String,Object> entry : valueAttributesMap.entrySet()) {
-            validateAttribValParams(entry.getKey(), entry.getValue(), true);
+
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#dateHistogramCounts(Class, String, String, Map<String, Object>)
+     */
+    public <T extends PassEntity> Map<DateTime, Long> dateHistogramCounts(Class<T> modelClass, String field, String interval, Map<String, Object> filters) {
+        validateModelParam(modelClass);
+        validateFacetParams(field, filters);
+        if (interval==null || interval.length()==0) {throw new IllegalArgumentException("interval cannot be empty");}
+
+        LOG.debug("Counting {} per {} of {}", modelClass.getSimpleName(), interval, field);
+
+        String indexType = registry.get(modelClass).getIndexType();
+
+        String querystring = attributesQuerystring(indexType, filters != null ? filters : Collections.emptyMap());
+        DateHistogramAggregationBuilder aggregation = AggregationBuilders.dateHistogram(FACET_NAME)
+                .field(field)
+                .dateHistogramInterval(new DateHistogramInterval(interval));
+
+        Histogram histogram = guarded(() -> getIndexerAggregations(querystring, aggregation)).get(FACET_NAME);
+
+        Map<DateTime, Long> counts = new LinkedHashMap<DateTime, Long>();
+        for (Histogram.Bucket bucket : histogram.getBuckets()) {
+            counts.put(new DateTime(bucket.getKey(), DateTimeZone.UTC), bucket.getDocCount());
         }
+        return counts;
     }
-    
-    private <T extends PassEntity> void validateModelParam(Class<T> modelClass) {
-        if (modelClass==null) {throw new IllegalArgumentException("modelClass cannot be null");}
-        if (modelClass==PassEntity.class) {throw new IllegalArgumentException("modelClass cannot be the abstract class 'PassEntity.class'");}
+
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#findByAttributeAsync(Class, String, Object)
+     */
+    public <T extends PassEntity> CompletableFuture<URI> findByAttributeAsync(Class<T> modelClass, String attribute, Object value) {
+        validateModelParam(modelClass);
+        validateAttribValParams(attribute, value, true);
+
+        String indexType = registry.get(modelClass).getIndexType();
+
+        String querystring = singleMatchQuerystring(indexType, attribute, value);
+
+        return findUrisAsync(querystring, 2, 0).thenApply(passEntityUris -> { //get 2 so we can check only one result matched
+            if (passEntityUris.size()>1) {
+                throw new RuntimeException("More than one results was returned by this query. findByAttribute() searches should match only one result");
+            }
+            return passEntityUris.size()>0 ? passEntityUris.iterator().next() : null;
+        });
     }
-    
-    private void validLimitOffsetParams(int limit, int offset) {
-        if (offset < 0) {throw new IllegalArgumentException("The offset value cannot be less than 0");}       
-        if (limit < 0) {throw new IllegalArgumentException("The limit value cannot be less than 0");}        
+
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#findAllByAttributeAsync(Class, String, Object)
+     */
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttributeAsync(Class<T> modelClass, String attribute, Object value) {
+        return findAllByAttributeAsync(modelClass, attribute, value, ElasticsearchConfig.getIndexerLimit(), 0);
     }
-    
-    private void validateAttribValParams(String attribute, Object value, boolean allowNullValues) {
-        if (attribute==null || attribute.length()==0) {throw new IllegalArgumentException("attribute cannot be null or empty");}
-        if (value instanceof Collection<?>) {throw new IllegalArgumentException("Value for attribute " + attribute + " cannot be a Collection");}
-        if (value==null && !allowNullValues) {throw new IllegalArgumentException("Value cannot be null or empty");}
+
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#findAllByAttributeAsync(Class, String, Object, int, int)
+     */
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttributeAsync(Class<T> modelClass, String attribute, Object value, int limit, int offset) {
+        validateModelParam(modelClass);
+        validateAttribValParams(attribute, value, true);
+        validLimitOffsetParams(limit, offset);
+
+        String indexType = registry.get(modelClass).getIndexType();
+
+        String querystring = attributeQuerystring(indexType, attribute, value);
+        return findUrisAsync(querystring, limit, offset);
     }
-    
+
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#findAllByAttributesAsync(Class, Map<String, Object>)
+     */
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttributesAsync(Class<T> modelClass, Map<String, Object> valueAttributesMap) {
+        return findAllByAttributesAsync(modelClass, valueAttributesMap, ElasticsearchConfig.getIndexerLimit(), 0);
+    }
+
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#findAllByAttributesAsync(Class, Map<String, Object>, int, int)
+     */
+    public <T extends PassEntity> CompletableFuture<Set<URI>> findAllByAttributesAsync(Class<T> modelClass, Map<String, Object> valueAttributesMap, int limit, int offset) {
+        validateModelParam(modelClass);
+        validateAttribMapParam(valueAttributesMap);
+        validLimitOffsetParams(limit, offset);
+
+        String indexType = registry.get(modelClass).getIndexType();
+
+        String querystring = attributesQuerystring(indexType, valueAttributesMap);
+        return findUrisAsync(querystring, limit, offset);
+    }
+
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#countByAttributeAsync(Class, String, Object)
+     */
+    public <T extends PassEntity> CompletableFuture<Long> countByAttributeAsync(Class<T> modelClass, String attribute, Object value) {
+        validateModelParam(modelClass);
+        validateAttribValParams(attribute, value, true);
+
+        String indexType = registry.get(modelClass).getIndexType();
+
+        String querystring = attributeQuerystring(indexType, attribute, value);
+        return countAsync(querystring);
+    }
+
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#countByAttributesAsync(Class, Map<String, Object>)
+     */
+    public <T extends PassEntity> CompletableFuture<Long> countByAttributesAsync(Class<T> modelClass, Map<String, Object> valueAttributesMap) {
+        validateModelParam(modelClass);
+        validateAttribMapParam(valueAttributesMap);
+
+        String indexType = registry.get(modelClass).getIndexType();
+
+        String querystring = attributesQuerystring(indexType, valueAttributesMap);
+        return countAsync(querystring);
+    }
+
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#countByAttribute(Class, String, Object)
+     */
+    public <T extends PassEntity> long countByAttribute(Class<T> modelClass, String attribute, Object value) {
+        validateModelParam(modelClass);
+        validateAttribValParams(attribute, value, true);
+
+        String indexType = registry.get(modelClass).getIndexType();
+
+        String querystring = attributeQuerystring(indexType, attribute, value);
+        return count(querystring);
+    }
+
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#countByAttributes(Class, Map<String, Object>)
+     */
+    public <T extends PassEntity> long countByAttributes(Class<T> modelClass, Map<String, Object> valueAttributesMap) {
+        validateModelParam(modelClass);
+        validateAttribMapParam(valueAttributesMap);
+
+        LOG.debug("Counting {} using multiple filters", modelClass.getSimpleName());
+
+        String indexType = registry.get(modelClass).getIndexType();
+
+        String querystring = attributesQuerystring(indexType, valueAttributesMap);
+        return count(querystring);
+    }
+    
+    
+    /**
+     * Scroll through the records matching the querystring, passing the source of each to the consumer
+     * @param querystring
+     * @param includes names of the fields to retrieve
+     * @param consumer
+     */
+    private void scrollSources(String querystring, List<String> includes, Consumer<Map<String, Object>> consumer) {
+
+        try (RestHighLevelClient client = new RestHighLevelClient(RestClient.builder(hosts))){
+
+            LOG.debug("Scrolling through index records using querystring: {}", querystring);
+            SearchRequest searchRequest = buildSearchRequest(querystring, ElasticsearchConfig.getIndexerLimit(), 0);
+            searchRequest.source().fetchSource(includes.toArray(new String[includes.size()]), null);
+            searchRequest.scroll(SCROLL_KEEPALIVE);
+            SearchResponse searchResponse = client.search(searchRequest);
+            String scrollId = searchResponse.getScrollId();
+            try {
+                while (searchResponse.getHits().getHits().length > 0) {
+                    for (SearchHit hit : searchResponse.getHits()) {
+                        consumer.accept(hit.getSourceAsMap());
+                    }
+                    SearchScrollRequest scrollRequest = new SearchScrollRequest(scrollId);
+                    scrollRequest.scroll(SCROLL_KEEPALIVE);
+                    searchResponse = client.searchScroll(scrollRequest);
+                    scrollId = searchResponse.getScrollId();
+                }
+            } finally {
+                ClearScrollRequest clearRequest = new ClearScrollRequest();
+                clearRequest.addScrollId(scrollId);
+                client.clearScroll(clearRequest);
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(String.format("An error occurred while scrolling through the query: %s", querystring), e);
+        }
+    }
+
+
+    /**
+     * Opens a scroll over the records matching a querystring and reads its first page of URIs
+     * @param querystring
+     * @param pageSize number of records per page
+     * @return the first page, holding the ID to use to read the next one
+     */
+    ScrollPublisher.Page openScroll(String querystring, int pageSize) {
+        return guarded(() -> {
+            try (RestHighLevelClient client = new RestHighLevelClient(RestClient.builder(hosts))){
+                LOG.debug("Opening a scroll using querystring: {}, with page size {}", querystring, pageSize);
+                SearchRequest searchRequest = buildSearchRequest(querystring, pageSize, 0);
+                searchRequest.source().fetchSource(ID_FIELDNAME, null);
+                searchRequest.scroll(SCROLL_KEEPALIVE);
+                return toPage(client.search(searchRequest));
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(String.format("An error occurred while scrolling through the query: %s", querystring), e);
+            }
+        });
+    }
+
+
+    /**
+     * Reads the next page of URIs from a scroll
+     * @param scrollId ID returned with the previous page
+     * @return the next page, which is empty if there are no more records
+     */
+    ScrollPublisher.Page continueScroll(String scrollId) {
+        return guarded(() -> {
+            try (RestHighLevelClient client = new RestHighLevelClient(RestClient.builder(hosts))){
+                SearchScrollRequest scrollRequest = new SearchScrollRequest(scrollId);
+                scrollRequest.scroll(SCROLL_KEEPALIVE);
+                return toPage(client.searchScroll(scrollRequest));
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException("An error occurred while reading the next page of a scroll", e);
+            }
+        });
+    }
+
+
+    /**
+     * Releases a scroll before it expires
+     * @param scrollId
+     */
+    void clearScroll(String scrollId) {
+        try (RestHighLevelClient client = new RestHighLevelClient(RestClient.builder(hosts))){
+            ClearScrollRequest clearRequest = new ClearScrollRequest();
+            clearRequest.addScrollId(scrollId);
+            client.clearScroll(clearRequest);
+        } catch (Exception e) {
+            throw new RuntimeException("An error occurred while clearing a scroll", e);
+        }
+    }
+
+
+    /**
+     * Reads the URIs from a page of scroll results, in the order they were returned
+     * @param searchResponse
+     * @return
+     * @throws URISyntaxException
+     */
+    private ScrollPublisher.Page toPage(SearchResponse searchResponse) throws URISyntaxException {
+        List<URI> uris = new ArrayList<URI>();
+        for (SearchHit hit : searchResponse.getHits()) {
+            uris.add(new URI(hit.getSourceAsMap().get(ID_FIELDNAME).toString()));
+        }
+        return new ScrollPublisher.Page(uris, searchResponse.getScrollId());
+    }
+
+
+    /**
+     * Retrieve search results from elasticsearch
+     * @param querystring
+     * @param limit
+     * @param offset
+     * @return
+     */
+    private Set<URI> getIndexerResults(String querystring, int limit, int offset) {
+
+        Set<URI> passEntityUris = null;
+
+        try (RestHighLevelClient client = new RestHighLevelClient(RestClient.builder(hosts))){
+
+            LOG.debug("Searching index using querystring: {}, with limit {} and offset {}", querystring,  limit, offset);
+            SearchRequest searchRequest = buildSearchRequest(querystring, limit, offset);
+            SearchResponse searchResponse = client.search(searchRequest);
+            passEntityUris = getHitUris(searchResponse.getHits());
+        } catch (URISyntaxException e) {
+            throw new RuntimeException("Something was wrong with the record returned from the indexer. The ID could not be recognized as a URI", e);
+        } catch (Exception e) {
+            throw new RuntimeException(String.format("An error occurred while processing the query: %s", querystring), e);
+        }
+
+        return passEntityUris;
+
+    }
+
+
+    /**
+     * Retrieve search results from elasticsearch as entities, converting the document stored in each hit's _source. 
+     * Each entity is marked as index-sourced and has no version tag. Results are returned in the order of the hits.
+     * @param querystring
+     * @param limit
+     * @param offset
+     * @param modelClass
+     * @return
+     */
+    private <T extends PassEntity> List<T> getIndexerEntities(String querystring, int limit, int offset, Class<T> modelClass) {
+
+        List<T> passEntities = new ArrayList<T>();
+
+        try (RestHighLevelClient client = new RestHighLevelClient(RestClient.builder(hosts))){
+
+            LOG.debug("Searching index using querystring: {}, with limit {} and offset {}", querystring,  limit, offset);
+            SearchRequest searchRequest = buildSearchRequest(querystring, limit, offset);
+            SearchResponse searchResponse = client.search(searchRequest);
+
+            for (SearchHit hit : searchResponse.getHits()) {
+                if (!hit.hasSource()) {
+                    throw new RuntimeException("A record returned from the indexer did not include its source document");
+                }
+                T passEntity = adapter.toModel(BytesReference.toBytes(hit.getSourceRef()), modelClass);
+                passEntity.markIndexSourced();
+                passEntities.add(passEntity);
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(String.format("An error occurred while processing the query: %s", querystring), e);
+        }
+
+        return passEntities;
+
+    }
+
+
+    /**
+     * Retrieve the number of records matching the querystring from the elasticsearch _count endpoint. 
+     * No documents are transferred, only the total.
+     * @param querystring
+     * @return
+     */
+    private long getIndexerCount(String querystring) {
+
+        try (RestHighLevelClient client = new RestHighLevelClient(RestClient.builder(hosts))){
+
+            LOG.debug("Counting index records using querystring: {}", querystring);
+            Response response = client.getLowLevelClient().performRequest("POST", COUNT_ENDPOINT, Collections.emptyMap(),
+                    buildCountBody(querystring));
+            return readCount(response);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(String.format("An error occurred while processing the count query: %s", querystring), e);
+        }
+
+    }
+
+
+    /**
+     * Run an aggregation over the records matching the querystring. No hits are returned, only the 
+     * aggregation results.
+     * @param querystring
+     * @param aggregation
+     * @return
+     */
+    private Aggregations getIndexerAggregations(String querystring, AggregationBuilder aggregation) {
+
+        try (RestHighLevelClient client = new RestHighLevelClient(RestClient.builder(hosts))){
+
+            LOG.debug("Aggregating index records using querystring: {}", querystring);
+            SearchRequest searchRequest = buildSearchRequest(querystring, 0, 0);
+            searchRequest.source().aggregation(aggregation);
+            SearchResponse searchResponse = client.search(searchRequest);
+            return searchResponse.getAggregations();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(String.format("An error occurred while processing the aggregation query: %s", querystring), e);
+        }
+
+    }
+
+
+    /**
+     * Build the body of a _count request for the querystring provided
+     * @param querystring
+     * @return
+     */
+    private HttpEntity buildCountBody(String querystring) {
+        return new NStringEntity(String.format(COUNT_BODY_TEMPLATE, Strings.toString(buildQuery(querystring))),
+                ContentType.APPLICATION_JSON);
+    }
+
+
+    /**
+     * Read the total from a _count response
+     * @param response
+     * @return
+     * @throws IOException
+     */
+    private long readCount(Response response) throws IOException {
+        JsonNode count = new ObjectMapper().readTree(response.getEntity().getContent()).get(COUNT_FIELDNAME);
+        if (count == null) {
+            throw new RuntimeException("The count response from the indexer did not contain a count");
+        }
+        return count.asLong();
+    }
+
+
+    /**
+     * Retrieve search results from elasticsearch without blocking. The returned future is completed by the 
+     * client's I/O thread, so dependent stages should not block.
+     * @param querystring
+     * @param limit
+     * @param offset
+     * @return
+     */
+    private CompletableFuture<Set<URI>> getIndexerResultsAsync(String querystring, int limit, int offset) {
+
+        LOG.debug("Searching index asynchronously using querystring: {}, with limit {} and offset {}", querystring,  limit, offset);
+        SearchRequest searchRequest = buildSearchRequest(querystring, limit, offset);
+        String errorMessage = String.format("An error occurred while processing the query: %s", querystring);
+
+        return searchAsync(searchRequest, errorMessage).thenApply(searchResponse -> {
+            try {
+                return getHitUris(searchResponse.getHits());
+            } catch (URISyntaxException e) {
+                throw new RuntimeException("Something was wrong with the record returned from the indexer. The ID could not be recognized as a URI", e);
+            }
+        });
+
+    }
+
+
+    /**
+     * Run a search without blocking. When hedging is on and there is more than one host, the search is sent to 
+     * one host, chosen in turn, and if that has not answered within the hedge delay, or fails, it is also sent to 
+     * the next host. The first answer is used. Until enough searches have completed to work out the delay, 
+     * searches are only sent to a second host when the first fails.
+     * @param searchRequest
+     * @param errorMessage
+     * @return
+     */
+    private CompletableFuture<SearchResponse> searchAsync(SearchRequest searchRequest, String errorMessage) {
+        if (!isHedged()) {
+            return searchAsync(hosts, searchRequest, errorMessage);
+        }
+
+        int first = Math.floorMod(nextHost.getAndIncrement(), hosts.length);
+        HedgedSearch search = new HedgedSearch(searchRequest, errorMessage, hosts[first], hosts[(first + 1) % hosts.length]);
+        search.send(search.primary);
+
+        long delayNanos = hedgeLatencies.getPercentile(hedgePercentile);
+        if (delayNanos >= 0 && !search.result.isDone()) {
+            long delayMillis = Math.max(hedgeMinDelay, TimeUnit.NANOSECONDS.toMillis(delayNanos));
+            getHedgeTimer().schedule(search::hedge, delayMillis, TimeUnit.MILLISECONDS);
+        }
+        return search.result;
+    }
+
+
+    private boolean isHedged() {
+        return hedge && hosts.length > 1;
+    }
+
+
+    /**
+     * Waits for a future, throwing the exception it failed with
+     * @param future
+     * @return
+     */
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+
+    private static ScheduledExecutorService getHedgeTimer() {
+        ScheduledExecutorService timer = hedgeTimer;
+        if (timer == null) {
+            DEFAULTS_LOCK.lock();
+            try {
+                timer = hedgeTimer;
+                if (timer == null) {
+                    timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "pass-elasticsearch-hedge");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    hedgeTimer = timer;
+                }
+            } finally {
+                DEFAULTS_LOCK.unlock();
+            }
+        }
+        return timer;
+    }
+
+
+    /**
+     * Sets whether searches are hedged across hosts, replacing the pass.elasticsearch.hedge setting
+     * @param hedge
+     */
+    public void setHedge(boolean hedge) {
+        this.hedge = hedge;
+    }
+
+
+    /**
+     * @return true if searches are hedged across hosts
+     */
+    public boolean getHedge() {
+        return hedge;
+    }
+
+
+    /**
+     * Run a search without blocking against the hosts provided, recording its latency for the hedge delay
+     * @param searchHosts
+     * @param searchRequest
+     * @param errorMessage
+     * @return
+     */
+    private CompletableFuture<SearchResponse> timedSearch(HttpHost[] searchHosts, SearchRequest searchRequest,
+            String errorMessage) {
+        long start = System.nanoTime();
+        CompletableFuture<SearchResponse> response = searchAsync(searchHosts, searchRequest, errorMessage);
+        response.thenRun(() -> hedgeLatencies.record(System.nanoTime() - start));
+        return response;
+    }
+
+
+    private CompletableFuture<SearchResponse> searchAsync(HttpHost[] searchHosts, SearchRequest searchRequest,
+            String errorMessage) {
+        return withAsyncClient(searchHosts, client -> {
+            CompletableFuture<SearchResponse> searchResponse = new CompletableFuture<SearchResponse>();
+            client.searchAsync(searchRequest, ActionListener.wrap(searchResponse::complete,
+                    e -> searchResponse.completeExceptionally(new RuntimeException(errorMessage, e))));
+            return searchResponse;
+        });
+    }
+
+
+    /**
+     * Retrieve the number of records matching the querystring from the elasticsearch _count endpoint without 
+     * blocking. The returned future is completed by the client's I/O thread, so dependent stages should not block.
+     * @param querystring
+     * @return
+     */
+    private CompletableFuture<Long> getIndexerCountAsync(String querystring) {
+
+        LOG.debug("Counting index records asynchronously using querystring: {}", querystring);
+        HttpEntity body = buildCountBody(querystring);
+        String errorMessage = String.format("An error occurred while processing the count query: %s", querystring);
+
+        return withAsyncClient(client -> {
+            CompletableFuture<Long> count = new CompletableFuture<Long>();
+            client.getLowLevelClient().performRequestAsync("POST", COUNT_ENDPOINT, Collections.emptyMap(), body,
+                    new ResponseListener() {
+                        @Override
+                        public void onSuccess(Response response) {
+                            try {
+                                count.complete(readCount(response));
+                            } catch (Exception e) {
+                                count.completeExceptionally(new RuntimeException(errorMessage, e));
+                            }
+                        }
+
+                        @Override
+                        public void onFailure(Exception e) {
+                            count.completeExceptionally(new RuntimeException(errorMessage, e));
+                        }
+                    });
+            return count;
+        });
+
+    }
+
+
+    /**
+     * Runs an asynchronous call with a new elasticsearch client, closing the client once the call completes. 
+     * The client cannot be closed by its own I/O thread, so closing is handed off to another thread.
+     * @param call
+     * @return the future returned by the call
+     */
+    private <V> CompletableFuture<V> withAsyncClient(Function<RestHighLevelClient, CompletableFuture<V>> call) {
+        return withAsyncClient(hosts, call);
+    }
+
+
+    /**
+     * Runs an asynchronous call with a new elasticsearch client for the hosts provided, closing the client once 
+     * the call completes. The bulkhead is checked before the breaker, so that a call turned away because too 
+     * many are in progress neither takes a breaker permit nor counts as a success.
+     * @param clientHosts
+     * @param call
+     * @return the future returned by the call
+     */
+    private <V> CompletableFuture<V> withAsyncClient(HttpHost[] clientHosts,
+            Function<RestHighLevelClient, CompletableFuture<V>> call) {
+        Bulkhead currentBulkhead = bulkhead;
+        return currentBulkhead != null
+                ? currentBulkhead.executeAsync(() -> withBreaker(clientHosts, call))
+                : withBreaker(clientHosts, call);
+    }
+
+
+    /**
+     * Runs an asynchronous call with a new elasticsearch client if the breaker allows it, recording the outcome 
+     * with the breaker
+     * @param clientHosts
+     * @param call
+     * @return the future returned by the call, or a failed future if the breaker is open
+     */
+    private <V> CompletableFuture<V> withBreaker(HttpHost[] clientHosts,
+            Function<RestHighLevelClient, CompletableFuture<V>> call) {
+        CircuitBreaker currentBreaker = breaker;
+        long permit = 0;
+        if (currentBreaker != null) {
+            try {
+                permit = currentBreaker.acquirePermission();
+            } catch (RuntimeException e) {
+                CompletableFuture<V> rejected = new CompletableFuture<V>();
+                rejected.completeExceptionally(e);
+                return rejected;
+            }
+        }
+        RestHighLevelClient client = new RestHighLevelClient(RestClient.builder(clientHosts));
+        CompletableFuture<V> future = null;
+        try {
+            future = call.apply(client);
+        } catch (RuntimeException e) {
+            closeClient(client);
+            if (currentBreaker != null) {
+                currentBreaker.onResult(permit, e);
+            }
+            throw e;
+        }
+        if (currentBreaker != null) {
+            long callPermit = permit;
+            future.whenComplete((result, error) -> currentBreaker.onResult(callPermit, error));
+        }
+        future.whenCompleteAsync((result, error) -> closeClient(client));
+        return future;
+    }
+
+
+    /**
+     * Retrieve search results, sharing the results of an identical search in progress when searches are coalesced. 
+     * Each caller gets its own copy of the results.
+     * @param querystring
+     * @param limit
+     * @param offset
+     * @return
+     */
+    private Set<URI> findUris(String querystring, int limit, int offset) {
+        // hedged searches are made asynchronously, and already go through the circuit breaker
+        Supplier<Set<URI>> search = isHedged()
+                ? () -> join(getIndexerResultsAsync(querystring, limit, offset))
+                : () -> guarded(() -> getIndexerResults(querystring, limit, offset));
+        if (!coalesce) {
+            return search.get();
+        }
+        return new HashSet<URI>(SHARED_SEARCHES.execute(searchKey(querystring, limit, offset), search));
+    }
+
+
+    /**
+     * Retrieve search results without blocking, sharing the results of an identical search in progress when 
+     * searches are coalesced. Each caller gets its own copy of the results.
+     * @param querystring
+     * @param limit
+     * @param offset
+     * @return
+     */
+    private CompletableFuture<Set<URI>> findUrisAsync(String querystring, int limit, int offset) {
+        if (!coalesce) {
+            return getIndexerResultsAsync(querystring, limit, offset);
+        }
+        return SHARED_SEARCHES.executeAsync(searchKey(querystring, limit, offset),
+                () -> getIndexerResultsAsync(querystring, limit, offset)).thenApply(HashSet::new);
+    }
+
+
+    /**
+     * Retrieve the number of records matching the querystring, sharing the result of an identical count in 
+     * progress when counts are coalesced
+     * @param querystring
+     * @return
+     */
+    private long count(String querystring) {
+        if (!coalesce) {
+            return guarded(() -> getIndexerCount(querystring));
+        }
+        return SHARED_COUNTS.execute(countKey(querystring), () -> guarded(() -> getIndexerCount(querystring)));
+    }
+
+
+    /**
+     * Retrieve the number of records matching the querystring without blocking, sharing the result of an 
+     * identical count in progress when counts are coalesced
+     * @param querystring
+     * @return
+     */
+    private CompletableFuture<Long> countAsync(String querystring) {
+        if (!coalesce) {
+            return getIndexerCountAsync(querystring);
+        }
+        return SHARED_COUNTS.executeAsync(countKey(querystring), () -> getIndexerCountAsync(querystring));
+    }
+
+
+    private String searchKey(String querystring, int limit, int offset) {
+        return cluster + " " + limit + ":" + offset + ":" + querystring;
+    }
+
+
+    private String countKey(String querystring) {
+        return cluster + " " + querystring;
+    }
+
+
+    /**
+     * Sets whether concurrent identical searches and counts are coalesced into one request, replacing the 
+     * pass.elasticsearch.coalesce setting. Requests are coalesced with those of the other clients in the JVM.
+     * @param coalesce
+     */
+    public void setCoalesce(boolean coalesce) {
+        this.coalesce = coalesce;
+    }
+
+
+    /**
+     * @return true if concurrent identical searches and counts are coalesced
+     */
+    public boolean getCoalesce() {
+        return coalesce;
+    }
+
+
+    /**
+     * Runs a request to the index through the bulkhead and the circuit breaker, where they are used. As with 
+     * asynchronous calls, the bulkhead is checked before the breaker, so that a request turned away because too 
+     * many are in progress neither takes a breaker permit nor counts as a success.
+     * @param request
+     * @return the result of the request
+     */
+    private <V> V guarded(Supplier<V> request) {
+        CircuitBreaker currentBreaker = breaker;
+        Supplier<V> broken = currentBreaker != null ? () -> currentBreaker.execute(request) : request;
+        Bulkhead currentBulkhead = bulkhead;
+        return currentBulkhead != null ? currentBulkhead.execute(broken) : broken.get();
+    }
+
+
+    /**
+     * Sets the bulkhead that caps the number of requests in progress to the index, replacing the one chosen by 
+     * the pass.elasticsearch.bulkhead setting
+     * @param bulkhead the bulkhead to use, or null to leave requests uncapped
+     */
+    public void setBulkhead(Bulkhead bulkhead) {
+        this.bulkhead = bulkhead;
+    }
+
+
+    private static Bulkhead getDefaultBulkhead() {
+        Bulkhead shared = defaultBulkhead;
+        if (shared == null) {
+            DEFAULTS_LOCK.lock();
+            try {
+                shared = defaultBulkhead;
+                if (shared == null) {
+                    shared = new Bulkhead("Elasticsearch", ElasticsearchConfig.getBulkhead(),
+                            ElasticsearchConfig.getBulkheadWait());
+                    defaultBulkhead = shared;
+                }
+            } finally {
+                DEFAULTS_LOCK.unlock();
+            }
+        }
+        return shared;
+    }
+
+
+    /**
+     * Sets the circuit breaker that requests to the index go through, replacing the one chosen by the 
+     * pass.elasticsearch.breaker setting
+     * @param breaker the breaker to use, or null to send requests without one
+     */
+    public void setBreaker(CircuitBreaker breaker) {
+        this.breaker = breaker;
+    }
+
+
+    /**
+     * @return the circuit breaker that requests to the index go through, or null if none is used
+     */
+    public CircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+
+    private static CircuitBreaker getDefaultBreaker() {
+        CircuitBreaker shared = defaultBreaker;
+        if (shared == null) {
+            DEFAULTS_LOCK.lock();
+            try {
+                shared = defaultBreaker;
+                if (shared == null) {
+                    int window = ElasticsearchConfig.getBreakerWindow();
+                    shared = new CircuitBreaker("Elasticsearch", window, Math.max(1, window / 2),
+                            ElasticsearchConfig.getBreakerRate(), ElasticsearchConfig.getBreakerOpen(),
+                            BREAKER_TRIAL_REQUESTS, ElasticsearchPassClient::isOutage);
+                    defaultBreaker = shared;
+                }
+            } finally {
+                DEFAULTS_LOCK.unlock();
+            }
+        }
+        return shared;
+    }
+
+
+    /**
+     * A request shows the index is failing if it could not be completed, or the index answered with a server 
+     * error. The low level client reports every error response as an IOException, so those are checked by status.
+     * @param e
+     * @return
+     */
+    private static boolean isOutage(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ResponseException) {
+                return ((ResponseException) cause).getResponse().getStatusLine().getStatusCode() >= 500;
+            }
+            if (cause instanceof ElasticsearchStatusException) {
+                return ((ElasticsearchStatusException) cause).status().getStatus() >= 500;
+            }
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private void closeClient(RestHighLevelClient client) {
+        try {
+            client.close();
+        } catch (IOException e) {
+            LOG.warn("Failed to close the elasticsearch client: {}", e.getMessage(), e);
+        }
+    }
+
+
+    /**
+     * Retrieve search results for several querystrings from elasticsearch using a single multi-search request.
+     * The results are returned in the same order as the querystrings supplied.
+     * @param querystrings
+     * @param limit
+     * @param offset
+     * @return
+     */
+    private List<Set<URI>> getIndexerResults(List<String> querystrings, int limit, int offset) {
+
+        List<Set<URI>> results = new ArrayList<Set<URI>>();
+
+        try (RestHighLevelClient client = new RestHighLevelClient(RestClient.builder(hosts))){
+
+            LOG.debug("Searching index using {} querystrings, with limit {} and offset {}", querystrings.size(),  limit, offset);
+            MultiSearchRequest multiSearchRequest = new MultiSearchRequest();
+            for (String querystring : querystrings) {
+                multiSearchRequest.add(buildSearchRequest(querystring, limit, offset));
+            }
+            MultiSearchResponse multiSearchResponse = client.multiSearch(multiSearchRequest);
+            MultiSearchResponse.Item[] items = multiSearchResponse.getResponses();
+
+            for (int i = 0; i < items.length; i++) {
+                if (items[i].isFailure()) {
+                    throw new RuntimeException(String.format("An error occurred while processing the query: %s",
+                            querystrings.get(i)), items[i].getFailure());
+                }
+                results.add(getHitUris(items[i].getResponse().getHits()));
+            }
+        } catch (URISyntaxException e) {
+            throw new RuntimeException("Something was wrong with the record returned from the indexer. The ID could not be recognized as a URI", e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(String.format("An error occurred while processing a batch of %s queries", querystrings.size()), e);
+        }
+
+        return results;
+
+    }
+
+
+    /**
+     * Build a search request for the querystring provided
+     * @param querystring
+     * @param limit
+     * @param offset
+     * @return
+     */
+    private SearchRequest buildSearchRequest(String querystring, int limit, int offset) {
+        SearchRequest searchRequest = new SearchRequest();
+        SearchSourceBuilder sourceBuilder = new SearchSourceBuilder();
+        sourceBuilder.from(offset);
+        sourceBuilder.size(limit);
+
+        sourceBuilder.query(buildQuery(querystring));
+        searchRequest.source(sourceBuilder);
+        return searchRequest;
+    }
+
+
+    /**
+     * Build the query for the querystring provided
+     * @param querystring
+     * @return
+     */
+    private QueryStringQueryBuilder buildQuery(String querystring) {
+        //(content:this OR name:this)
+        QueryStringQueryBuilder matchQueryBuilder = new QueryStringQueryBuilder(querystring);
+
+        matchQueryBuilder.defaultOperator(Operator.AND);
+        return matchQueryBuilder;
+    }
+
+
+    /**
+     * Read the ID of each search hit into a Set of URIs
+     * @param hits
+     * @return
+     * @throws URISyntaxException
+     */
+    private Set<URI> getHitUris(SearchHits hits) throws URISyntaxException {
+        Set<URI> passEntityUris = new HashSet<URI>();
+        Iterator<SearchHit> hitsIt = hits.iterator();
+
+        while (hitsIt.hasNext()){
+            String idField = hitsIt.next().getSourceAsMap().get(ID_FIELDNAME).toString();
+            passEntityUris.add(new URI(idField));
+        }
+        return passEntityUris;
+    }
+
+
+    /**
+     * Build the querystring used to find a single record of the index type by attribute value
+     * @param indexType
+     * @param attribute
+     * @param value
+     * @return
+     */
+    private String singleMatchQuerystring(String indexType, String attribute, Object value) {
+        String attribs = null;
+        if (value != null) {
+            attribs = String.format(QS_ATTRIB_TEMPLATE, attribute, value.toString());
+        } else {
+            attribs = String.format(QS_ATTRIB_NOT_EXISTS_TEMPLATE, attribute);
+        }
+        return String.format(QS_TEMPLATE, indexType, attribs);
+    }
+
+    /**
+     * Build the querystring used to find all records of the index type matching the attribute value
+     * @param indexType
+     * @param attribute
+     * @param value
+     * @return
+     */
+    private String attributeQuerystring(String indexType, String attribute, Object value) {
+        String attribs = null;
+        if (value != null) {
+            attribs = String.format(QS_ATTRIB_TEMPLATE, attribute, value.toString());
+        } else {
+            attribs = String.format(NOT_EXISTS_TEMPLATE, attribute);
+        }
+        return String.format(QS_TEMPLATE, indexType, attribs);
+    }
+
+    /**
+     * Build the querystring used to find all records of the index type matching all of the attribute values
+     * @param indexType
+     * @param valueAttributesMap
+     * @return
+     */
+    private String attributesQuerystring(String indexType, Map<String, Object> valueAttributesMap) {
+        StringBuilder attribs = new StringBuilder("");
+        // attributes are sorted, so that the same filters always produce the same querystring
+        for(Entry<String,Object> attr : new TreeMap<String,Object>(valueAttributesMap).entrySet()) {
+            if (attr.getValue() != null) {
+                attribs.append(String.format(QS_ATTRIB_TEMPLATE, attr.getKey(), attr.getValue().toString()));
+            } else {
+                attribs.append(String.format(QS_ATTRIB_NOT_EXISTS_TEMPLATE, attr.getKey()));
+            }
+        }
+        return String.format(QS_TEMPLATE, indexType, attribs);
+    }
+
+    private void validateAttribValuesParams(String attribute, Collection<?> values) {
+        if (values==null) {throw new IllegalArgumentException("values cannot be null");}
+        for (Object value : values) {
+            validateAttribValParams(attribute, value, true);
+        }
+    }
+
+    private <T extends PassEntity> void validateAttribMapParam(Map<String,Object> valueAttributesMap) {
+        if (valueAttributesMap==null || valueAttributesMap.size()==0) {throw new IllegalArgumentException("valueAttributesMap cannot be empty");}
+        for (Entry<String,Object> entry : valueAttributesMap.entrySet()) {
+            validateAttribValParams(entry.getKey(), entry.getValue(), true);
+        }
+    }
+    
+    private void validateFacetParams(String field, Map<String,Object> filters) {
+        if (field==null || field.length()==0) {throw new IllegalArgumentException("field cannot be empty");}
+        if (filters!=null) {
+            for (Entry<String,Object> entry : filters.entrySet()) {
+                validateAttribValParams(entry.getKey(), entry.getValue(), true);
+            }
+        }
+    }
+    
+    private <T extends PassEntity> void validateModelParam(Class<T> modelClass) {
+        if (modelClass==null) {throw new IllegalArgumentException("modelClass cannot be null");}
+        if (modelClass==PassEntity.class) {throw new IllegalArgumentException("modelClass cannot be the abstract class 'PassEntity.class'");}
+    }
+    
+    private void validLimitOffsetParams(int limit, int offset) {
+        if (offset < 0) {throw new IllegalArgumentException("The offset value cannot be less than 0");}       
+        if (limit < 0) {throw new IllegalArgumentException("The limit value cannot be less than 0");}        
+    }
+    
+    private void validateAttribValParams(String attribute, Object value, boolean allowNullValues) {
+        if (attribute==null || attribute.length()==0) {throw new IllegalArgumentException("attribute cannot be null or empty");}
+        if (value instanceof Collection<?>) {throw new IllegalArgumentException("Value for attribute " + attribute + " cannot be a Collection");}
+        if (value==null && !allowNullValues) {throw new IllegalArgumentException("Value cannot be null or empty");}
+    }
+    
+
+    /**
+     * A search sent to one host, and to a second if the first is slow to answer or fails
+     */
+    private final class HedgedSearch {
+
+        private final SearchRequest searchRequest;
+
+        private final String errorMessage;
+
+        private final HttpHost primary;
+
+        private final HttpHost secondary;
+
+        private final CompletableFuture<SearchResponse> result = new CompletableFuture<SearchResponse>();
+
+        private final AtomicBoolean hedged = new AtomicBoolean(false);
+
+        /**
+         * Number of hosts the search has been sent to that have not yet answered
+         */
+        private final AtomicInteger pending = new AtomicInteger(1);
+
+        /**
+         * The error of the last host to fail, set before it is counted off pending
+         */
+        private volatile Throwable lastError;
+
+        private HedgedSearch(SearchRequest searchRequest, String errorMessage, HttpHost primary, HttpHost secondary) {
+            this.searchRequest = searchRequest;
+            this.errorMessage = errorMessage;
+            this.primary = primary;
+            this.secondary = secondary;
+        }
+
+        /**
+         * Sends the search to the secondary host, unless it has already been sent. The hedge is counted in 
+         * pending before it is claimed, so that the primary failing in between cannot end the search while the 
+         * hedge is about to be sent.
+         */
+        private void hedge() {
+            if (result.isDone()) {
+                return;
+            }
+            pending.incrementAndGet();
+            if (hedged.compareAndSet(false, true)) {
+                LOG.debug("Sending search to {} as well, after no answer from {}", secondary, primary);
+                send(secondary);
+            } else if (pending.decrementAndGet() == 0) {
+                // every host that was sent the search failed while this call was counted
+                result.completeExceptionally(lastError);
+            }
+        }
+
+        private void send(HttpHost host) {
+            timedSearch(new HttpHost[] {host}, searchRequest, errorMessage).whenComplete((response, error) -> {
+                if (error == null) {
+                    result.complete(response);
+                    return;
+                }
+                if (host == primary) {
+                    hedge();
+                }
+                lastError = error;
+                if (pending.decrementAndGet() == 0) {
+                    result.completeExceptionally(error);
+                }
+            });
+        }
+
+    }
+
 }
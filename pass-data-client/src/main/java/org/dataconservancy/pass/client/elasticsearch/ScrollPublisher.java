@@ -0,0 +1,216 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.elasticsearch;
+
+import java.net.URI;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.dataconservancy.pass.client.PassFlow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes the URIs of the records matching a querystring, reading them from the index a page at a time with 
+ * a scroll. A page is only read when the subscriber has requested more URIs than are left from the last one, and 
+ * pages are read on an executor, so the subscriber's thread is never blocked. Each subscriber gets its own scroll, 
+ * which is cleared when the stream completes, fails or is cancelled.
+ * @author agent
+ */
+final class ScrollPublisher implements PassFlow.Publisher<URI> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ScrollPublisher.class);
+
+    private final ElasticsearchPassClient client;
+
+    private final String querystring;
+
+    private final int pageSize;
+
+    private final Executor executor;
+
+    ScrollPublisher(ElasticsearchPassClient client, String querystring, int pageSize, Executor executor) {
+        this.client = client;
+        this.querystring = querystring;
+        this.pageSize = pageSize;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(PassFlow.Subscriber<? super URI> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber cannot be null");
+        }
+        ScrollSubscription subscription = new ScrollSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * A page of URIs read from a scroll
+     */
+    static final class Page {
+
+        private final List<URI> uris;
+
+        private final String scrollId;
+
+        Page(List<URI> uris, String scrollId) {
+            this.uris = uris;
+            this.scrollId = scrollId;
+        }
+
+    }
+
+    private final class ScrollSubscription implements PassFlow.Subscription {
+
+        private final PassFlow.Subscriber<? super URI> subscriber;
+
+        private final AtomicLong demand = new AtomicLong(0);
+
+        /**
+         * Counts the calls for the stream to be worked on, so that only one thread works on it at a time, and 
+         * a call made while it is being worked on is not lost
+         */
+        private final AtomicInteger work = new AtomicInteger(0);
+
+        private volatile boolean cancelled = false;
+
+        private volatile Throwable badRequest;
+
+        /*
+         * Only used by the thread working on the stream
+         */
+        private final Deque<URI> buffer = new ArrayDeque<URI>();
+
+        private String scrollId;
+
+        private boolean exhausted = false;
+
+        private boolean done = false;
+
+        private ScrollSubscription(PassFlow.Subscriber<? super URI> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                badRequest = new IllegalArgumentException("The number of items requested must be positive, not " + n);
+            } else {
+                demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (work.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RuntimeException e) {
+                    cancelled = true;
+                    if (!done) {
+                        done = true;
+                        subscriber.onError(e);
+                    }
+                }
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                if (!done) {
+                    step();
+                }
+                missed = work.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Sends as many URIs as have been requested, reading pages as needed
+         */
+        private void step() {
+            try {
+                while (!cancelled && badRequest == null) {
+                    if (buffer.isEmpty()) {
+                        if (exhausted) {
+                            finish(null);
+                            return;
+                        }
+                        if (demand.get() == 0) {
+                            return;
+                        }
+                        readPage();
+                    } else if (demand.get() > 0) {
+                        subscriber.onNext(buffer.poll());
+                        demand.decrementAndGet();
+                    } else {
+                        return;
+                    }
+                }
+                finish(badRequest);
+            } catch (RuntimeException e) {
+                finish(e);
+            }
+        }
+
+        private void readPage() {
+            Page page = scrollId == null ? client.openScroll(querystring, pageSize) : client.continueScroll(scrollId);
+            scrollId = page.scrollId;
+            buffer.addAll(page.uris);
+            // a short page is the last, so there is no need to ask for another to find out
+            exhausted = page.uris.size() < pageSize;
+        }
+
+        /**
+         * Ends the stream, notifying the subscriber unless it cancelled
+         * @param error the exception the stream failed with, or null if it completed or was cancelled
+         */
+        private void finish(Throwable error) {
+            done = true;
+            buffer.clear();
+            if (scrollId != null) {
+                try {
+                    client.clearScroll(scrollId);
+                } catch (RuntimeException e) {
+                    LOG.warn("Could not clear the scroll for {}: {}", querystring, e.getMessage());
+                }
+                scrollId = null;
+            }
+            if (cancelled) {
+                return;
+            }
+            if (error != null) {
+                subscriber.onError(error);
+            } else {
+                subscriber.onComplete();
+            }
+        }
+
+    }
+
+}
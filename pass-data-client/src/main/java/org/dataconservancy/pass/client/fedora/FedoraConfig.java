@@ -37,6 +37,66 @@ public class FedoraConfig {
     private static final String BASEURL_KEY = "pass.fedora.baseurl";
     private static final String DEFAULT_BASE_URL = "http://localhost:8080/fcrepo/rest/";
 
+    private static final String UPDATE_DELTA_KEY = "pass.fedora.update.delta";
+    private static final String DEFAULT_UPDATE_DELTA = "false";
+
+    private static final String COMPACT_REFERENCES_KEY = "pass.fedora.compact.references";
+    private static final String DEFAULT_COMPACT_REFERENCES = "false";
+
+    private static final String INCOMING_INDEX_KEY = "pass.fedora.incoming.index";
+    private static final String DEFAULT_INCOMING_INDEX = "false";
+
+    private static final String LIMITER_KEY = "pass.fedora.limiter";
+    private static final String DEFAULT_LIMITER = "false";
+
+    private static final String LIMITER_MAX_KEY = "pass.fedora.limiter.max";
+    private static final String DEFAULT_LIMITER_MAX = "64";
+
+    private static final String LIMITER_WAIT_KEY = "pass.fedora.limiter.wait";
+    private static final String DEFAULT_LIMITER_WAIT = "30000";
+
+    private static final String BREAKER_KEY = "pass.fedora.breaker";
+    private static final String DEFAULT_BREAKER = "false";
+
+    private static final String BREAKER_WINDOW_KEY = "pass.fedora.breaker.window";
+    private static final String DEFAULT_BREAKER_WINDOW = "20";
+
+    private static final String BREAKER_RATE_KEY = "pass.fedora.breaker.rate";
+    private static final String DEFAULT_BREAKER_RATE = "50";
+
+    private static final String BREAKER_OPEN_KEY = "pass.fedora.breaker.open";
+    private static final String DEFAULT_BREAKER_OPEN = "10000";
+
+    private static final String COALESCE_KEY = "pass.fedora.coalesce";
+    private static final String DEFAULT_COALESCE = "false";
+
+    private static final String BULKHEAD_KEY_PREFIX = "pass.fedora.bulkhead.";
+    private static final String DEFAULT_BULKHEAD = "0";
+
+    private static final String BULKHEAD_WAIT_KEY_SUFFIX = ".wait";
+    private static final String DEFAULT_BULKHEAD_WAIT = "30000";
+
+    private static final String EXECUTOR_KEY = "pass.fedora.executor";
+    private static final String DEFAULT_EXECUTOR = "platform";
+
+    private static final String GRAPH_THREADS_KEY = "pass.fedora.graph.threads";
+    private static final String DEFAULT_GRAPH_THREADS = "8";
+
+    private static final String WRITE_BEHIND_WINDOW_KEY = "pass.fedora.writebehind.window";
+    private static final String DEFAULT_WRITE_BEHIND_WINDOW = "1000";
+
+    private static final String WRITE_BEHIND_SIZE_KEY = "pass.fedora.writebehind.size";
+    private static final String DEFAULT_WRITE_BEHIND_SIZE = "100";
+
+    private static final String DELETE_THREADS_KEY = "pass.fedora.delete.threads";
+    private static final String DEFAULT_DELETE_THREADS = "8";
+
+    private static final String DELETE_TRANSACTION_KEY = "pass.fedora.delete.transaction";
+    private static final String DEFAULT_DELETE_TRANSACTION = "false";
+
+    private static final String DELETE_PURGE_KEY = "pass.fedora.delete.purge";
+    private static final String DEFAULT_DELETE_PURGE = "false";
+
     
     /**
      * @param baseUrl the baseUrl to set
@@ -69,6 +129,204 @@ public class FedoraConfig {
         return user;
     }
     
+    /**
+     * Retrieve whether updates should only send the fields that have changed, from a system property, or use 
+     * default
+     * @return true if updates should send only changed fields
+     */
+    public static boolean getUpdateDelta() {
+        boolean updateDelta = Boolean.parseBoolean(ConfigUtil.getSystemProperty(UPDATE_DELTA_KEY, DEFAULT_UPDATE_DELTA));
+        LOG.debug("Using update delta: {}", updateDelta);
+        return updateDelta;
+    }
+    
+    /**
+     * Retrieve whether lists of references should be held relative to the base URL in entities that are read, 
+     * from a system property, or use default
+     * @return true if references should be compacted
+     */
+    public static boolean getCompactReferences() {
+        boolean compactReferences = Boolean.parseBoolean(ConfigUtil.getSystemProperty(COMPACT_REFERENCES_KEY, DEFAULT_COMPACT_REFERENCES));
+        LOG.debug("Using compact references: {}", compactReferences);
+        return compactReferences;
+    }
+    
+    /**
+     * Retrieve whether incoming references should be kept in, and answered from, an in-memory index, from a 
+     * system property, or use default
+     * @return true if the index should be used
+     */
+    public static boolean getIncomingIndex() {
+        boolean incomingIndex = Boolean.parseBoolean(ConfigUtil.getSystemProperty(INCOMING_INDEX_KEY, DEFAULT_INCOMING_INDEX));
+        LOG.debug("Using incoming index: {}", incomingIndex);
+        return incomingIndex;
+    }
+    
+    /**
+     * Retrieve whether the number of requests in progress to the repository should be limited, adapting the 
+     * limit to the repository's latency, from a system property, or use default
+     * @return true if requests should be limited
+     */
+    public static boolean getLimiter() {
+        boolean limiter = Boolean.parseBoolean(ConfigUtil.getSystemProperty(LIMITER_KEY, DEFAULT_LIMITER));
+        LOG.debug("Using limiter: {}", limiter);
+        return limiter;
+    }
+    
+    /**
+     * Retrieve the highest number of requests that may be in progress to the repository at once, from a 
+     * system property, or use default
+     * @return the maximum limit
+     */
+    public static int getLimiterMax() {
+        return getInt(LIMITER_MAX_KEY, DEFAULT_LIMITER_MAX, 1, "Limiter max");
+    }
+    
+    /**
+     * Retrieve how long, in milliseconds, a request may wait for the limiter before it fails, from a system 
+     * property, or use default
+     * @return the maximum wait in milliseconds
+     */
+    public static long getLimiterWait() {
+        return getLong(LIMITER_WAIT_KEY, DEFAULT_LIMITER_WAIT, 0, Long.MAX_VALUE, "Limiter wait");
+    }
+    
+    /**
+     * Retrieve whether requests to the repository go through a circuit breaker, from a system property, or use default
+     * @return true if a circuit breaker is used
+     */
+    public static boolean getBreaker() {
+        boolean breaker = Boolean.parseBoolean(ConfigUtil.getSystemProperty(BREAKER_KEY, DEFAULT_BREAKER));
+        LOG.debug("Using breaker: {}", breaker);
+        return breaker;
+    }
+    
+    /**
+     * Retrieve the number of recent requests whose outcome the circuit breaker keeps, from a system property, 
+     * or use default
+     * @return the window size
+     */
+    public static int getBreakerWindow() {
+        return getInt(BREAKER_WINDOW_KEY, DEFAULT_BREAKER_WINDOW, 1, "Breaker window");
+    }
+    
+    /**
+     * Retrieve the percentage of failed requests in the window at which the circuit breaker opens, from a 
+     * system property, or use default
+     * @return the failure rate, as a percentage
+     */
+    public static int getBreakerRate() {
+        return (int) getLong(BREAKER_RATE_KEY, DEFAULT_BREAKER_RATE, 1, 100, "Breaker rate");
+    }
+    
+    /**
+     * Retrieve how long, in milliseconds, the circuit breaker stays open before trial requests are made, from 
+     * a system property, or use default
+     * @return the open time in milliseconds
+     */
+    public static long getBreakerOpen() {
+        return getLong(BREAKER_OPEN_KEY, DEFAULT_BREAKER_OPEN, 0, Long.MAX_VALUE, "Breaker open time");
+    }
+    
+    /**
+     * Retrieve whether concurrent reads of the same resource are coalesced into one request, from a system 
+     * property, or use default
+     * @return true if reads are coalesced
+     */
+    public static boolean getCoalesce() {
+        boolean coalesce = Boolean.parseBoolean(ConfigUtil.getSystemProperty(COALESCE_KEY, DEFAULT_COALESCE));
+        LOG.debug("Using coalesce: {}", coalesce);
+        return coalesce;
+    }
+    
+    /**
+     * Retrieve the number of requests of a kind that may be in progress to the repository at once, from a 
+     * system property, or use default
+     * @param kind "read", "write" or "binary"
+     * @return the maximum number of requests, or 0 if the number is not capped
+     */
+    public static int getBulkhead(String kind) {
+        return getInt(BULKHEAD_KEY_PREFIX + kind, DEFAULT_BULKHEAD, 0, "Bulkhead " + kind);
+    }
+    
+    /**
+     * Retrieve how long, in milliseconds, a request of a kind may wait for its bulkhead before it fails, from a 
+     * system property, or use default
+     * @param kind "read", "write" or "binary"
+     * @return the maximum wait in milliseconds
+     */
+    public static long getBulkheadWait(String kind) {
+        return getLong(BULKHEAD_KEY_PREFIX + kind + BULKHEAD_WAIT_KEY_SUFFIX, DEFAULT_BULKHEAD_WAIT, 0, 
+                Long.MAX_VALUE, "Bulkhead " + kind + " wait");
+    }
+    
+    /**
+     * Retrieve the number of threads in the pool ClientExecutors runs the client's internal parallel work on, from 
+     * a system property, or use default
+     * @return number of threads
+     */
+    public static int getGraphThreads() {
+        return getInt(GRAPH_THREADS_KEY, DEFAULT_GRAPH_THREADS, 1, "Graph loader threads");
+    }
+    
+    /**
+     * Retrieve the kind of threads ClientExecutors runs the client's internal parallel work on, "platform" or 
+     * "virtual", from a system property, or use default
+     * @return kind of threads
+     */
+    public static String getExecutor() {
+        String executor = ConfigUtil.getSystemProperty(EXECUTOR_KEY, DEFAULT_EXECUTOR);
+        LOG.debug("Using executor: {}", executor);
+        return executor;
+    }
+    
+    /**
+     * Retrieve how long, in milliseconds, a WriteBehindUpdater holds the updates to an entity before writing them, 
+     * from a system property, or use default
+     * @return window in milliseconds
+     */
+    public static long getWriteBehindWindow() {
+        return getLong(WRITE_BEHIND_WINDOW_KEY, DEFAULT_WRITE_BEHIND_WINDOW, 0, Long.MAX_VALUE, "Write-behind window");
+    }
+    
+    /**
+     * Retrieve the number of entities a WriteBehindUpdater holds updates for before writing them all, from a 
+     * system property, or use default
+     * @return maximum number of entities with pending updates
+     */
+    public static int getWriteBehindSize() {
+        return getInt(WRITE_BEHIND_SIZE_KEY, DEFAULT_WRITE_BEHIND_SIZE, 1, "Write-behind size");
+    }
+    
+    /**
+     * Retrieve the number of deletes deleteResources runs in parallel, from a system property, or use default
+     * @return number of deletes in parallel
+     */
+    public static int getDeleteThreads() {
+        return getInt(DELETE_THREADS_KEY, DEFAULT_DELETE_THREADS, 1, "Delete threads");
+    }
+    
+    /**
+     * Retrieve whether deleteResources groups deletes into transactions, from a system property, or use default
+     * @return true if deletes should be made in transactions
+     */
+    public static boolean getDeleteTransaction() {
+        boolean transaction = Boolean.parseBoolean(ConfigUtil.getSystemProperty(DELETE_TRANSACTION_KEY, DEFAULT_DELETE_TRANSACTION));
+        LOG.debug("Using delete transactions: {}", transaction);
+        return transaction;
+    }
+    
+    /**
+     * Retrieve whether deleteResources also deletes the tombstones left by the deletes, from a system property, 
+     * or use default
+     * @return true if tombstones should be deleted
+     */
+    public static boolean getDeletePurge() {
+        boolean purge = Boolean.parseBoolean(ConfigUtil.getSystemProperty(DELETE_PURGE_KEY, DEFAULT_DELETE_PURGE));
+        LOG.debug("Using delete purge: {}", purge);
+        return purge;
+    }
+    
     /**
      * @return the container path
      */
@@ -85,4 +343,46 @@ public class FedoraConfig {
         return path;
     }
     
+    /**
+     * Retrieve a whole number setting from a system property, using the default if it is not set, is not a 
+     * number, or is less than the minimum, so that a bad setting cannot stop clients being created
+     * @param key
+     * @param defaultValue
+     * @param min smallest value allowed
+     * @param description name of the setting used when logging
+     * @return the value
+     */
+    private static int getInt(String key, String defaultValue, int min, String description) {
+        return (int) getLong(key, defaultValue, min, Integer.MAX_VALUE, description);
+    }
+    
+    /**
+     * Retrieve a whole number setting from a system property, using the default if it is not set, is not a 
+     * number, or is outside the range allowed
+     * @param key
+     * @param defaultValue
+     * @param min smallest value allowed
+     * @param max largest value allowed
+     * @param description name of the setting used when logging
+     * @return the value
+     */
+    private static long getLong(String key, String defaultValue, long min, long max, String description) {
+        long value = Long.parseLong(defaultValue);
+        
+        try {
+            long configured = Long.parseLong(ConfigUtil.getSystemProperty(key, defaultValue));
+            if (configured < min || configured > max) {
+                LOG.warn("{} setting {} was not between {} and {}, using default of {}", description, configured, 
+                        min, max, value);
+            } else {
+                value = configured;
+            }
+        } catch (Exception e) {
+            LOG.warn(description + " setting could not be converted to a number, using default of " + value, e);
+        }
+        
+        LOG.debug("Using {}: {}", description.toLowerCase(), value);
+        return value;
+    }
+    
 }
@@ -15,6 +15,7 @@
  */
 package org.dataconservancy.pass.client.fedora;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -24,13 +25,30 @@ import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import okhttp3.Interceptor;
 import okhttp3.MediaType;
@@ -42,9 +60,18 @@ import okhttp3.logging.HttpLoggingInterceptor;
 
 import org.apache.http.HttpStatus;
 
+import org.dataconservancy.pass.client.ClientExecutors;
+import org.dataconservancy.pass.client.DeleteReport;
 import org.dataconservancy.pass.client.PassClientDefault;
+import org.dataconservancy.pass.client.PassEntityRegistry;
 import org.dataconservancy.pass.client.PassJsonAdapter;
+import org.dataconservancy.pass.client.RetryPolicy;
+import org.dataconservancy.pass.client.ReverseReferenceIndex;
 import org.dataconservancy.pass.client.adapter.PassJsonAdapterBasic;
+import org.dataconservancy.pass.client.support.AdaptiveLimiter;
+import org.dataconservancy.pass.client.support.Bulkhead;
+import org.dataconservancy.pass.client.support.CircuitBreaker;
+import org.dataconservancy.pass.client.support.SingleFlight;
 import org.dataconservancy.pass.model.PassEntity;
 import org.fcrepo.client.PostBuilder;
 import org.slf4j.Logger;
@@ -75,12 +102,38 @@ public class FedoraPassCrudClient {
     private final static String INCOMING_INCLUDETYPE = "http://fedora.info/definitions/v4/repository#InboundReferences";
     private final static String ETAG_HEADER = "ETag";
     private final static String ETAG_WEAK_PREFIX = "W/";
+    private final static JsonFactory JSON_FACTORY = new JsonFactory();
+    private final static int INITIAL_LIMIT = 8;
+    private final static int BREAKER_TRIAL_REQUESTS = 3;
+    private final static int DELETE_TRANSACTION_SIZE = 500;
+    private final static String TRANSACTION_PATH = "fcr:tx";
+    private final static String TOMBSTONE_PATH = "/fcr:tombstone";
+
+    /**
+     * Guards creation of the limiter and breaker shared by the clients in the JVM. A lock is used rather than 
+     * synchronized, so that a virtual thread waiting for it does not pin its carrier thread.
+     */
+    private static final ReentrantLock DEFAULTS_LOCK = new ReentrantLock();
+
+    private static volatile AdaptiveLimiter defaultLimiter;
+
+    private static volatile CircuitBreaker defaultBreaker;
+
+    private static final Map<String, Bulkhead> SHARED_BULKHEADS = new ConcurrentHashMap<String, Bulkhead>();
+
+    private static final SingleFlight<URI, Representation> SHARED_READS = new SingleFlight<URI, Representation>();
     
     /** 
      * The Fedora client tool 
      */
     private FcrepoClient client;
 
+    /**
+     * The Fedora client used for uploading binary content, which has its own connections when this client 
+     * creates it, so that uploads do not hold up reads
+     */
+    private FcrepoClient binaryClient;
+
     /**
      * OkHttp client, for when using HTTP is desired
      */
@@ -91,15 +144,46 @@ public class FedoraPassCrudClient {
      */
     private PassJsonAdapter adapter;
 
+    /**
+     * Metadata of the PASS entity types
+     */
+    private PassEntityRegistry registry = PassEntityRegistry.getDefault();
+
+    /**
+     * Index of incoming references, or null if incoming references are always read from the repository
+     */
+    private ReverseReferenceIndex reverseIndex = FedoraConfig.getIncomingIndex() ? ReverseReferenceIndex.getDefault() : null;
+
+    /**
+     * Limits the number of requests in progress, or null if requests are not limited
+     */
+    private AdaptiveLimiter limiter = FedoraConfig.getLimiter() ? getDefaultLimiter() : null;
+
+    /**
+     * Fails requests fast while the repository is failing, or null if no circuit breaker is used
+     */
+    private CircuitBreaker breaker = FedoraConfig.getBreaker() ? getDefaultBreaker() : null;
+
+    /**
+     * Coalesces concurrent reads of the same resource, or null if every read is sent to the repository
+     */
+    private SingleFlight<URI, Representation> reads = FedoraConfig.getCoalesce() ? SHARED_READS : null;
+
+    /**
+     * Cap the number of reads, writes and uploads in progress, each separately, or null where a kind is not capped
+     */
+    private Bulkhead readBulkhead = getDefaultBulkhead("read");
+
+    private Bulkhead writeBulkhead = getDefaultBulkhead("write");
+
+    private Bulkhead binaryBulkhead = getDefaultBulkhead("binary");
+
     /**
      * Instantiates default implementations of the underlying Fedora client, JSON adapter, and OkHttpClient.
      */
     public FedoraPassCrudClient() {
-        this(FcrepoClient.client()
-                .credentials(FedoraConfig.getUserName(), FedoraConfig.getPassword())
-                .throwExceptionOnFailure()
-                .build(),
-             new PassJsonAdapterBasic());
+        this(buildFcrepoClient(), new PassJsonAdapterBasic());
+        this.binaryClient = buildFcrepoClient();
     }
 
     /** 
@@ -115,6 +199,7 @@ public class FedoraPassCrudClient {
             throw new IllegalArgumentException("adapter parameter cannot be null");
         }
         this.client = client;
+        this.binaryClient = client;
         this.adapter = adapter;
 
         OkHttpClient.Builder okBuilder = new OkHttpClient.Builder();
@@ -157,6 +242,7 @@ public class FedoraPassCrudClient {
             throw new IllegalArgumentException("okhttpclient parameter cannot be null");
         }
         this.client = client;
+        this.binaryClient = client;
         this.adapter = adapter;
         this.okHttpClient = okHttpClient;
     }
@@ -165,14 +251,14 @@ public class FedoraPassCrudClient {
      * @see org.dataconservancy.pass.client.PassClient#createResource(PassEntity)
      */
     public URI createResource(PassEntity modelObj) {
-        return createInternal(modelObj, true).getId();
+        return guarded(writeBulkhead, () -> createInternal(modelObj, true)).getId();
     }
 
     /**
      * @see org.dataconservancy.pass.client.PassClient#createResource(PassEntity)
      */
     public <T extends PassEntity> T createAndReadResource(T modelObj, Class<T> modelClass) {
-        return createInternal(modelObj, true);
+        return guarded(writeBulkhead, () -> createInternal(modelObj, true));
     }
 
     /**
@@ -186,12 +272,376 @@ public class FedoraPassCrudClient {
         return updateInternal(modelObj, true, true);
     }
 
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#updateWithRetry(URI, Class, UnaryOperator, RetryPolicy)
+     */
+    public <T extends PassEntity> T updateWithRetry(URI uri, Class<T> modelClass, UnaryOperator<T> mutator, RetryPolicy policy) {
+        if (uri == null) {
+            throw new IllegalArgumentException("uri cannot be null");
+        }
+        if (mutator == null) {
+            throw new IllegalArgumentException("mutator cannot be null");
+        }
+        if (policy == null) {
+            throw new IllegalArgumentException("policy cannot be null");
+        }
+
+        // the first read may share one in progress, but a retry needs a version written after the conflict
+        T entity = readResource(uri, modelClass);
+        for (int attempt = 1; ; attempt++) {
+            T updated = mutator.apply(entity);
+            if (updated == null) {
+                LOG.debug("Not updating {}, the mutator returned null", uri);
+                return null;
+            }
+            try {
+                String etag = write(updated);
+                if (etag != null && !updated.isFrozen()) {
+                    updated.setVersionTag(etag);
+                }
+                return updated;
+            } catch (UpdateConflictException e) {
+                if (attempt >= policy.getMaxAttempts()) {
+                    throw new UpdateConflictException(format("Failed to update %s after %d attempts, it was " +
+                            "updated elsewhere each time", uri, attempt), e);
+                }
+                long delay = policy.getDelay(attempt);
+                LOG.debug("Update of {} conflicted on attempt {}, retrying in {}ms", uri, attempt, delay);
+                pause(delay);
+            }
+            entity = guarded(readBulkhead, () -> readInternal(uri, modelClass));
+        }
+    }
+
+    private static void pause(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to retry an update", e);
+        }
+    }
+
     /**
      * @see org.dataconservancy.pass.client.PassClient#deleteResource(URI)
      */
     public void deleteResource(URI uri) {
+        guarded(writeBulkhead, () -> {
+            deleteInternal(uri);
+            return null;
+        });
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#deleteResources(Collection)
+     */
+    public DeleteReport deleteResources(Collection<URI> uris) {
+        return deleteResources(uris, FedoraConfig.getDeleteThreads(), FedoraConfig.getDeleteTransaction(),
+                FedoraConfig.getDeletePurge());
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#deleteResources(Collection, int, boolean, boolean)
+     */
+    public DeleteReport deleteResources(Collection<URI> uris, int parallelism, boolean transaction, boolean purge) {
+        if (uris == null) {
+            throw new IllegalArgumentException("uris cannot be null");
+        }
+        if (uris.contains(null)) {
+            throw new IllegalArgumentException("uris cannot contain null");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+
+        List<URI> distinct = new ArrayList<URI>(new LinkedHashSet<URI>(uris));
+        Set<URI> deleted = ConcurrentHashMap.newKeySet();
+        Set<URI> notFound = ConcurrentHashMap.newKeySet();
+        Map<URI, Exception> failures = new ConcurrentHashMap<URI, Exception>();
+
+        if (transaction) {
+            // a transaction cannot safely take concurrent requests, so the groups are deleted in parallel instead
+            List<List<URI>> groups = new ArrayList<List<URI>>();
+            for (int start = 0; start < distinct.size(); start += DELETE_TRANSACTION_SIZE) {
+                groups.add(distinct.subList(start, Math.min(start + DELETE_TRANSACTION_SIZE, distinct.size())));
+            }
+            inParallel(groups, parallelism, group -> deleteInTransaction(group, purge, deleted, notFound, failures));
+        } else {
+            inParallel(distinct, parallelism, uri -> {
+                try {
+                    if (deleteOne(uri, purge)) {
+                        deleted.add(uri);
+                    } else {
+                        notFound.add(uri);
+                    }
+                } catch (RuntimeException e) {
+                    LOG.debug("Could not delete {}: {}", uri, e.getMessage());
+                    failures.put(uri, e);
+                }
+            });
+        }
+
+        if (reverseIndex != null) {
+            deleted.forEach(reverseIndex::remove);
+        }
+
+        // report in the order the URIs were passed in
+        Set<URI> deletedInOrder = new LinkedHashSet<URI>();
+        Set<URI> notFoundInOrder = new LinkedHashSet<URI>();
+        Map<URI, Exception> failuresInOrder = new LinkedHashMap<URI, Exception>();
+        for (URI uri : distinct) {
+            if (deleted.contains(uri)) {
+                deletedInOrder.add(uri);
+            } else if (notFound.contains(uri)) {
+                notFoundInOrder.add(uri);
+            } else {
+                failuresInOrder.put(uri, failures.get(uri));
+            }
+        }
+        DeleteReport report = new DeleteReport(deletedInOrder, notFoundInOrder, failuresInOrder);
+        LOG.info("Deleted resources: {}", report);
+        return report;
+    }
+
+    /**
+     * Deletes a group of resources in a transaction, which is committed only if every delete succeeded. The 
+     * deletes are made one at a time, and stop at the first failure since the transaction is then rolled back.
+     */
+    private void deleteInTransaction(List<URI> group, boolean purge, Set<URI> deleted, Set<URI> notFound, 
+            Map<URI, Exception> failures) {
+        String tx;
+        try {
+            tx = guarded(writeBulkhead, this::beginTransaction);
+        } catch (RuntimeException e) {
+            group.forEach(uri -> failures.put(uri, e));
+            return;
+        }
+
+        Set<URI> groupDeleted = new HashSet<URI>();
+        Set<URI> groupNotFound = new HashSet<URI>();
+        URI failed = null;
+        RuntimeException failure = null;
+        for (URI uri : group) {
+            try {
+                if (deleteOne(inTransaction(uri, tx), purge)) {
+                    groupDeleted.add(uri);
+                } else {
+                    groupNotFound.add(uri);
+                }
+            } catch (RuntimeException e) {
+                LOG.debug("Could not delete {}: {}", uri, e.getMessage());
+                failed = uri;
+                failure = e;
+                break;
+            }
+        }
+
+        if (failure == null) {
+            try {
+                guarded(writeBulkhead, () -> endTransaction(tx, "fcr:commit"));
+                deleted.addAll(groupDeleted);
+                notFound.addAll(groupNotFound);
+            } catch (RuntimeException e) {
+                group.forEach(uri -> failures.put(uri, e));
+            }
+            return;
+        }
+
+        try {
+            guarded(writeBulkhead, () -> endTransaction(tx, "fcr:rollback"));
+        } catch (RuntimeException e) {
+            LOG.warn("Could not roll back transaction {}, it will expire: {}", tx, e.getMessage());
+        }
+        RuntimeException rolledBack = new RuntimeException(format("Not deleted, the transaction was rolled back " +
+                "because the delete of %s failed", failed));
+        for (URI uri : group) {
+            failures.put(uri, uri.equals(failed) ? failure : rolledBack);
+        }
+    }
+
+    /**
+     * Runs an action for each item, with up to parallelism actions in progress at once. The calling thread works 
+     * through the items, helped by up to parallelism - 1 workers on the executor from ClientExecutors, so deletes 
+     * run on virtual threads or an application's executor when one is set. With the default thread pool, the 
+     * pool size set by pass.fedora.graph.threads also limits how many helpers run at once. Helpers that have not 
+     * started by the time the items run out are not waited for, so the call completes even if the executor is 
+     * busy, including when it is called from one of the executor's own threads.
+     */
+    private static <T> void inParallel(List<T> items, int parallelism, Consumer<T> action) {
+        Queue<T> remaining = new ConcurrentLinkedQueue<T>(items);
+        Runnable worker = () -> {
+            T item;
+            while ((item = remaining.poll()) != null) {
+                action.accept(item);
+            }
+        };
+
+        int helpers = Math.min(parallelism, items.size()) - 1;
+        if (helpers < 1) {
+            worker.run();
+            return;
+        }
+
+        ReentrantLock lock = new ReentrantLock();
+        Condition idle = lock.newCondition();
+        int[] running = {0};
+        boolean[] finished = {false};
+        Runnable helper = () -> {
+            lock.lock();
+            try {
+                if (finished[0]) {
+                    return;
+                }
+                running[0]++;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                worker.run();
+            } finally {
+                lock.lock();
+                try {
+                    if (--running[0] == 0) {
+                        idle.signalAll();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        };
+
+        Executor executor = ClientExecutors.getDefault();
+        try {
+            for (int i = 0; i < helpers; i++) {
+                executor.execute(helper);
+            }
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Could not start all of the helpers, continuing with fewer: {}", e.getMessage());
+        }
+        worker.run();
+
+        lock.lock();
+        try {
+            finished[0] = true;
+            while (running[0] > 0) {
+                idle.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes a resource, and its tombstone if purge is set
+     * @param uri
+     * @param purge
+     * @return true if the resource was deleted, false if there was none or it had already been deleted
+     */
+    private boolean deleteOne(URI uri, boolean purge) {
+        int status = guarded(writeBulkhead, () -> delete(uri.toString(), false));
+        if (status == HttpStatus.SC_NOT_FOUND) {
+            return false;
+        }
+        if (purge) {
+            guarded(writeBulkhead, () -> delete(uri.toString() + TOMBSTONE_PATH, true));
+        }
+        return status != HttpStatus.SC_GONE;
+    }
+
+    /**
+     * Sends a DELETE. A missing resource is reported by its status rather than as an error.
+     * @param url
+     * @param tombstone true if the URL is of a tombstone
+     * @return status code of the response
+     */
+    private int delete(String url, boolean tombstone) {
+        Request request = new Request.Builder().url(url).delete().build();
+        try (Response res = okHttpClient.newCall(request).execute()) {
+            int status = res.code();
+            LOG.debug("Resource deletion status: {} {}", url, status);
+            boolean missing = status == HttpStatus.SC_NOT_FOUND || (status == HttpStatus.SC_GONE && !tombstone);
+            if ((status < 200 || status > 299) && !missing) {
+                throw new FedoraStatusException(format("Failed to delete %s - unexpected status code %s: %s",
+                        url, status, res.body().string()), status);
+            }
+            return status;
+        } catch (IOException e) {
+            throw new RuntimeException("A problem occurred while attempting to delete " + url, e);
+        }
+    }
+
+    /**
+     * Starts a repository transaction
+     * @return URL of the transaction, which resource paths are appended to
+     */
+    private String beginTransaction() {
+        Request request = new Request.Builder()
+                .url(baseUrl() + TRANSACTION_PATH)
+                .post(RequestBody.create(null, new byte[0]))
+                .build();
+        try (Response res = okHttpClient.newCall(request).execute()) {
+            String location = res.header("Location");
+            if (res.code() != HttpStatus.SC_CREATED || location == null) {
+                throw new FedoraStatusException(format("Failed to start a transaction - unexpected status code %s: %s",
+                        res.code(), res.body().string()), res.code());
+            }
+            LOG.debug("Started transaction {}", location);
+            return location.endsWith("/") ? location : location + "/";
+        } catch (IOException e) {
+            throw new RuntimeException("A problem occurred while attempting to start a transaction", e);
+        }
+    }
+
+    /**
+     * Commits or rolls back a transaction
+     * @param tx URL of the transaction
+     * @param action "fcr:commit" or "fcr:rollback"
+     */
+    private Void endTransaction(String tx, String action) {
+        Request request = new Request.Builder()
+                .url(tx + TRANSACTION_PATH + "/" + action)
+                .post(RequestBody.create(null, new byte[0]))
+                .build();
+        try (Response res = okHttpClient.newCall(request).execute()) {
+            if (res.code() < 200 || res.code() > 299) {
+                throw new FedoraStatusException(format("Failed to %s transaction %s - unexpected status code %s: %s",
+                        action, tx, res.code(), res.body().string()), res.code());
+            }
+            LOG.debug("Ended transaction {} with {}", tx, action);
+            return null;
+        } catch (IOException e) {
+            throw new RuntimeException(format("A problem occurred while attempting to %s transaction %s", action, tx), e);
+        }
+    }
+
+    /**
+     * Works out the URI of a resource within a transaction
+     * @param uri URI of the resource, which must be within the repository
+     * @param tx URL of the transaction
+     */
+    private static URI inTransaction(URI uri, String tx) {
+        String base = baseUrl();
+        if (!uri.toString().startsWith(base)) {
+            throw new IllegalArgumentException(format("%s is not in the repository at %s, so cannot be deleted " +
+                    "in a transaction", uri, base));
+        }
+        return URI.create(tx + uri.toString().substring(base.length()));
+    }
+
+    private static String baseUrl() {
+        String base = FedoraConfig.getBaseUrl();
+        return base.endsWith("/") ? base : base + "/";
+    }
+
+    private void deleteInternal(URI uri) {
         try (FcrepoResponse response = new DeleteBuilder(uri, client).perform()) {
-            LOG.info("Resource deletion status: {}", response.getStatusCode());
+            LOG.debug("Resource deletion status: {}", response.getStatusCode());
+            if (reverseIndex != null) {
+                reverseIndex.remove(uri);
+            }
         } catch (IOException | FcrepoOperationFailedException e) {
             throw new RuntimeException("A problem occurred while attempting to delete a Resource", e);
         }
@@ -200,7 +650,23 @@ public class FedoraPassCrudClient {
     /**
      * @see org.dataconservancy.pass.client.PassClient#readResource(URI, Class)
      */
-    public <T extends PassEntity> T readResource(URI uri, Class<T> modelClass) {      
+    public <T extends PassEntity> T readResource(URI uri, Class<T> modelClass) {
+        SingleFlight<URI, Representation> currentReads = reads;
+        Representation representation = currentReads != null
+                ? currentReads.execute(uri, () -> guarded(readBulkhead, () -> fetch(uri)))
+                : guarded(readBulkhead, () -> fetch(uri));
+        return toEntity(representation, modelClass);
+    }
+
+    private <T extends PassEntity> T readInternal(URI uri, Class<T> modelClass) {
+        return toEntity(fetch(uri), modelClass);
+    }
+
+    /**
+     * Retrieves the body and version tag of a resource, without converting it to an entity, so that the same 
+     * representation can be converted for each caller when reads are coalesced
+     */
+    private Representation fetch(URI uri) {
 
         List<URI> omits = new ArrayList<URI>();
         try {
@@ -215,68 +681,163 @@ public class FedoraPassCrudClient {
                 .perform()) {
 
           LOG.info("Resource read status: {}", response.getStatusCode());
-          T model = adapter.toModel(response.getBody(), modelClass);
+          byte[] body = readBytes(response.getBody());
           
           //remove the etag prefix, not needed for version comparison
           String etag = response.getHeaderValue(ETAG_HEADER);
           if (etag!=null && etag.contains(ETAG_WEAK_PREFIX)) {
               etag = etag.replace(ETAG_WEAK_PREFIX, "");
           }
-          model.setVersionTag(etag);
-          
-          return model;
+          return new Representation(body, etag);
           
         } catch (IOException | FcrepoOperationFailedException e) {
             throw new RuntimeException("A problem occurred while attempting to read a Resource", e);
         }        
     }
 
+    private static byte[] readBytes(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return bytes.toByteArray();
+    }
+
+    private <T extends PassEntity> T toEntity(Representation representation, Class<T> modelClass) {
+        T model = adapter.toModel(representation.body, modelClass);
+        model.setVersionTag(representation.etag);
+
+        if (FedoraConfig.getCompactReferences()) {
+            model.compactReferences(FedoraConfig.getBaseUrl());
+        }
+
+        if (reverseIndex != null) {
+            reverseIndex.update(model);
+        }
+
+        return model;
+    }
+
     /**
      * @see org.dataconservancy.pass.client.PassClient#getIncoming(URI)
      */
     public Map<String, Collection<URI>> getIncoming(URI passEntityUri) {
+        if (reverseIndex != null && reverseIndex.isComplete(passEntityUri)) {
+            LOG.debug("Reading incoming references of {} from the reverse index", passEntityUri);
+            return reverseIndex.getIncoming(passEntityUri);
+        }
+
+        Map<String, Collection<URI>> result = guarded(readBulkhead, () -> readIncoming(passEntityUri, field -> true, 0));
+
+        if (reverseIndex != null) {
+            reverseIndex.putIncoming(passEntityUri, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * @see org.dataconservancy.pass.client.PassClient#getIncoming(URI, Predicate, int)
+     */
+    public Map<String, Collection<URI>> getIncoming(URI passEntityUri, Predicate<String> fieldFilter, int limit) {
+        if (fieldFilter == null) {
+            throw new IllegalArgumentException("fieldFilter cannot be null");
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit cannot be negative");
+        }
+        if (reverseIndex != null && reverseIndex.isComplete(passEntityUri)) {
+            LOG.debug("Reading incoming references of {} from the reverse index", passEntityUri);
+            Map<String, Collection<URI>> result = new HashMap<>();
+            int count = 0;
+            for (Map.Entry<String, Collection<URI>> entry : reverseIndex.getIncoming(passEntityUri).entrySet()) {
+                if (!fieldFilter.test(entry.getKey())) {
+                    continue;
+                }
+                for (URI source : entry.getValue()) {
+                    result.computeIfAbsent(entry.getKey(), f -> new HashSet<>()).add(source);
+                    if (++count == limit) {
+                        return result;
+                    }
+                }
+            }
+            return result;
+        }
+        return guarded(readBulkhead, () -> readIncoming(passEntityUri, fieldFilter, limit));
+    }
+
+    /**
+     * Reads the inbound references of a resource from the repository. The response is parsed a token at a time 
+     * rather than read into a tree, only the links whose field passes the filter are kept, and reading stops 
+     * as soon as the limit is reached.
+     * @param passEntityUri
+     * @param fieldFilter
+     * @param limit maximum number of links to return, or 0 for no limit
+     * @return the links, keyed by field
+     */
+    private Map<String, Collection<URI>> readIncoming(URI passEntityUri, Predicate<String> fieldFilter, int limit) {
         List<URI> include = Collections.singletonList(URI.create(INCOMING_INCLUDETYPE));
         List<URI> omits = Collections.singletonList(URI.create(SERVER_MANAGED_OMITTYPE));
 
         try (FcrepoResponse response = new GetBuilder(passEntityUri, client)
                 .accept(COMPACTED_ACCEPTTYPE)
                 .preferRepresentation(include, omits)
-                .perform()) {
+                .perform();
+             JsonParser parser = JSON_FACTORY.createParser(response.getBody())) {
 
             LOG.info("Resource read status: {}", response.getStatusCode());
 
-            JsonNode raw = new ObjectMapper().readTree(response.getBody());
-            JsonNode graph = raw.withArray("@graph");
+            Map<String, Collection<URI>> result = new ConcurrentHashMap<>();
 
-            if (graph == null || graph.size() < 1) {
-                return Collections.emptyMap();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return result;
             }
 
-            Map<String, Collection<URI>> result = new ConcurrentHashMap<>();
-
-            graph.elements().forEachRemaining((node) -> {
-                if (!node.has("@id")) {
-                    return;
+            // Find the @graph array, skipping everything else in the document
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("@graph".equals(name) && value == JsonToken.START_ARRAY) {
+                    break;
                 }
+                parser.skipChildren();
+            }
+            if (parser.getCurrentToken() != JsonToken.START_ARRAY) {
+                return result;
+            }
 
-                URI incomingLink = URI.create(node.get("@id").asText());
+            int count = 0;
+            List<String> fields = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                // The @id of a node is not necessarily its first field, so hold on to its fields until the end
+                String id = null;
+                fields.clear();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    if ("@id".equals(field)) {
+                        id = parser.getValueAsString();
+                    } else if (fieldFilter.test(field)) {
+                        fields.add(field);
+                    }
+                    parser.skipChildren();
+                }
 
-                // Filter out any nodes in the graph that refer to the requested PASS entity
-                // Remaining nodes in the graph are incoming links
-                if (passEntityUri.toString().equals(incomingLink.toString())) {
-                    return;
+                // Nodes that refer to the requested PASS entity itself are not incoming links
+                if (id == null || passEntityUri.toString().equals(id)) {
+                    continue;
                 }
 
-                node.fieldNames().forEachRemaining(field -> {
-                    if ("@id".equals(field)) {
-                        return;
+                URI incomingLink = URI.create(id);
+                for (String field : fields) {
+                    if (result.computeIfAbsent(field, f -> new HashSet<>()).add(incomingLink) && ++count == limit) {
+                        LOG.debug("Stopped reading incoming links of {} at the limit of {}", passEntityUri, limit);
+                        return result;
                     }
-
-                    Collection<URI> uris = result.getOrDefault(field, new HashSet<>());
-                    uris.add(incomingLink);
-                    result.putIfAbsent(field, uris);
-                });
-            });
+                }
+            }
 
             return result;
 
@@ -291,7 +852,12 @@ public class FedoraPassCrudClient {
      * @throws RuntimeException if building the request to the repository fails, or if performing the request fails
      */
     public URI upload(URI passEntityUri, InputStream content, Map<String, ?> params) {
-        PostBuilder builder = new PostBuilder(passEntityUri, client);
+        // the latency of an upload depends on its size, so it would mislead the adaptive limiter
+        return guarded(binaryBulkhead, null, () -> uploadInternal(passEntityUri, content, params));
+    }
+
+    private URI uploadInternal(URI passEntityUri, InputStream content, Map<String, ?> params) {
+        PostBuilder builder = new PostBuilder(passEntityUri, binaryClient);
 
         if (params.containsKey("content-type")) {
             builder.body(content, (String) params.get("content-type"));
@@ -331,16 +897,105 @@ public class FedoraPassCrudClient {
         }
     }
 
+    /**
+     * Sets the index that incoming references are kept in and answered from, replacing the one chosen by the 
+     * pass.fedora.incoming.index setting
+     * @param reverseIndex the index to use, or null to always read incoming references from the repository
+     */
+    public void setReverseIndex(ReverseReferenceIndex reverseIndex) {
+        this.reverseIndex = reverseIndex;
+    }
+
+    /**
+     * @return the index that incoming references are kept in, or null if none is used
+     */
+    public ReverseReferenceIndex getReverseIndex() {
+        return reverseIndex;
+    }
+
+    /**
+     * Sets the limiter that requests to the repository go through, replacing the one chosen by the 
+     * pass.fedora.limiter setting
+     * @param limiter the limiter to use, or null to send requests without limiting them
+     */
+    public void setLimiter(AdaptiveLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    /**
+     * @return the limiter that requests to the repository go through, or null if none is used
+     */
+    public AdaptiveLimiter getLimiter() {
+        return limiter;
+    }
+
+    /**
+     * Sets whether concurrent reads of the same resource are coalesced into one request, replacing the 
+     * pass.fedora.coalesce setting. Reads are coalesced with those of the other clients in the JVM.
+     * @param coalesce
+     */
+    public void setCoalesce(boolean coalesce) {
+        this.reads = coalesce ? SHARED_READS : null;
+    }
+
+    /**
+     * @return true if concurrent reads of the same resource are coalesced
+     */
+    public boolean getCoalesce() {
+        return reads != null;
+    }
+
+    /**
+     * Sets the circuit breaker that requests to the repository go through, replacing the one chosen by the 
+     * pass.fedora.breaker setting
+     * @param breaker the breaker to use, or null to send requests without one
+     */
+    public void setBreaker(CircuitBreaker breaker) {
+        this.breaker = breaker;
+    }
+
+    /**
+     * @return the circuit breaker that requests to the repository go through, or null if none is used
+     */
+    public CircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    /**
+     * Sets the bulkheads that cap the number of requests of each kind in progress to the repository, replacing 
+     * those chosen by the pass.fedora.bulkhead settings. Each may be null, to leave that kind uncapped.
+     * @param read bulkhead for reading entities and incoming links
+     * @param write bulkhead for creating, updating and deleting entities
+     * @param binary bulkhead for uploading binary content
+     */
+    public void setBulkheads(Bulkhead read, Bulkhead write, Bulkhead binary) {
+        this.readBulkhead = read;
+        this.writeBulkhead = write;
+        this.binaryBulkhead = binary;
+    }
+
+    /**
+     * Runs a request to the repository through the circuit breaker, the bulkhead and the limiter, where they are 
+     * used. The breaker is outermost, so that while it is open requests fail without waiting for anything. The 
+     * bulkhead is outside the limiter, so that requests waiting for one kind's bulkhead do not hold permits of 
+     * the limiter all kinds share.
+     */
+    private <V> V guarded(Bulkhead bulkhead, Supplier<V> request) {
+        return guarded(bulkhead, limiter, request);
+    }
+
+    private <V> V guarded(Bulkhead bulkhead, AdaptiveLimiter currentLimiter, Supplier<V> request) {
+        Supplier<V> limited = currentLimiter != null ? () -> currentLimiter.execute(request) : request;
+        Supplier<V> separated = bulkhead != null ? () -> bulkhead.execute(limited) : limited;
+        CircuitBreaker currentBreaker = breaker;
+        return currentBreaker != null ? currentBreaker.execute(separated) : separated.get();
+    }
+
     private <T extends PassEntity> T createInternal(T modelObj, boolean includeContext) {
         byte[] json = adapter.toJson(modelObj, true);
         RequestBody body = RequestBody.create(MediaType.parse(JSONLD_CONTENTTYPE), json);
 
-        URI container = null;
-        try {
-            container = new URI(FedoraConfig.getContainer(modelObj.getClass().getSimpleName()));
-        } catch (URISyntaxException e) {
-            throw new RuntimeException("Container name could not be converted to a URI", e);
-        }
+        URI container = registry.get(modelObj.getClass()).getContainer();
 
         Request.Builder reqBuilder = new Request.Builder()
                 .url(container.toString())
@@ -353,6 +1008,9 @@ public class FedoraPassCrudClient {
 
             PassEntity entity = adapter.toModel(res.body().byteStream(), modelObj.getClass());
             LOG.info("Container creation status and location: {}, {}", res.code(), entity.getId());
+            if (reverseIndex != null) {
+                reverseIndex.update(entity);
+            }
 
             return (T) entity;
         } catch (Exception e) {
@@ -362,7 +1020,35 @@ public class FedoraPassCrudClient {
     }
 
     private <T extends PassEntity> T updateInternal(T modelObj, boolean includeContext, boolean performRead) {
+        write(modelObj);
+        if (!performRead) {
+            return null;
+        }
+        // a read shared with other callers may have started before the write, so read on our own
+        Class<T> modelClass = (Class<T>) modelObj.getClass();
+        return guarded(readBulkhead, () -> readInternal(modelObj.getId(), modelClass));
+    }
+
+    /**
+     * Sends the changes to an entity to the repository
+     * @param modelObj
+     * @return the version tag returned for the update, or null if the repository did not return one
+     */
+    private String write(PassEntity modelObj) {
+        if (modelObj.isIndexSourced()) {
+            throw new IllegalArgumentException(format("Cannot update %s: the %s was retrieved from the index and may " +
+                    "be out of date. Read it from the repository before updating.", modelObj.getId(),
+                    modelObj.getClass().getSimpleName()));
+        }
+
+        // Only an entity read from the repository has a meaningful set of dirty fields to send. With none set, 
+        // a list may still have been changed in place, which is not tracked, so the whole entity is sent.
+        boolean delta = FedoraConfig.getUpdateDelta() && modelObj.getVersionTag() != null && modelObj.isDirty();
+
         byte[] json = adapter.toJson(modelObj, true);
+        if (delta) {
+            json = retainFields(json, modelObj.getDirtyFields());
+        }
         RequestBody body = RequestBody.create(MediaType.parse(JSONLD_PATCH_CONTENTTYPE), json);
 
         Request.Builder reqBuilder = new Request.Builder()
@@ -377,13 +1063,25 @@ public class FedoraPassCrudClient {
                     modelObj.getClass().getName(), modelObj.getId());
         }
 
-        try (Response res = okHttpClient.newCall(reqBuilder.build()).execute()) {
+        return guarded(writeBulkhead, () -> patch(modelObj, reqBuilder.build()));
+    }
+
+    private String patch(PassEntity modelObj, Request request) {
+        try (Response res = okHttpClient.newCall(request).execute()) {
             if (res.code() == HttpStatus.SC_PRECONDITION_FAILED) {
                 String msg = format("Failed to update %s - the data may have changed since %s was last retrieved.",
                         modelObj.getId(), modelObj.getId());
                 throw new UpdateConflictException(msg);
             }
             handleNon2xx(modelObj, res);
+            if (!modelObj.isFrozen()) {
+                modelObj.clearDirtyFields();
+            }
+            if (reverseIndex != null) {
+                reverseIndex.update(modelObj);
+            }
+            String etag = res.header(ETAG_HEADER);
+            return etag != null ? etag.replace(ETAG_WEAK_PREFIX, "") : null;
         } catch (UpdateConflictException e) {
             throw e;
         } catch (Exception e) {
@@ -391,16 +1089,129 @@ public class FedoraPassCrudClient {
                     modelObj.getId(), e.getMessage());
             throw new RuntimeException(msg, e);
         }
+    }
 
-        return performRead ? readResource(modelObj.getId(), (Class<T>) modelObj.getClass()) : null;
+    /**
+     * Reduces the JSON of an entity to the fields provided, keeping the identifying JSON-LD keywords. Used to 
+     * PATCH only the fields that have changed, which merge-patch applies without touching the others.
+     * @param json
+     * @param fields
+     * @return JSON containing only the fields provided
+     */
+    private byte[] retainFields(byte[] json, Collection<String> fields) {
+        ObjectMapper mapper = new ObjectMapper();
+        try {
+            ObjectNode node = (ObjectNode) mapper.readTree(json);
+            Set<String> retained = new HashSet<>(fields);
+            retained.add("@id");
+            retained.add("@type");
+            retained.add("@context");
+            node.retain(retained);
+            return mapper.writeValueAsBytes(node);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not reduce the JSON to the changed fields", e);
+        }
+    }
+
+    /**
+     * The limiter is shared by all of the clients in the JVM, since they share the repository's capacity
+     */
+    private static AdaptiveLimiter getDefaultLimiter() {
+        AdaptiveLimiter shared = defaultLimiter;
+        if (shared == null) {
+            DEFAULTS_LOCK.lock();
+            try {
+                shared = defaultLimiter;
+                if (shared == null) {
+                    int max = FedoraConfig.getLimiterMax();
+                    shared = new AdaptiveLimiter("Fedora", Math.min(INITIAL_LIMIT, max), 1, max,
+                            FedoraConfig.getLimiterWait(), FedoraPassCrudClient::isOutage);
+                    defaultLimiter = shared;
+                }
+            } finally {
+                DEFAULTS_LOCK.unlock();
+            }
+        }
+        return shared;
+    }
+
+    private static FcrepoClient buildFcrepoClient() {
+        return FcrepoClient.client()
+                .credentials(FedoraConfig.getUserName(), FedoraConfig.getPassword())
+                .throwExceptionOnFailure()
+                .build();
+    }
+
+    private static Bulkhead getDefaultBulkhead(String kind) {
+        if (FedoraConfig.getBulkhead(kind) < 1) {
+            return null;
+        }
+        return SHARED_BULKHEADS.computeIfAbsent(kind,
+                k -> new Bulkhead("Fedora " + k, FedoraConfig.getBulkhead(k), FedoraConfig.getBulkheadWait(k)));
+    }
+
+    private static CircuitBreaker getDefaultBreaker() {
+        CircuitBreaker shared = defaultBreaker;
+        if (shared == null) {
+            DEFAULTS_LOCK.lock();
+            try {
+                shared = defaultBreaker;
+                if (shared == null) {
+                    int window = FedoraConfig.getBreakerWindow();
+                    shared = new CircuitBreaker("Fedora", window, Math.max(1, window / 2), FedoraConfig.getBreakerRate(),
+                            FedoraConfig.getBreakerOpen(), BREAKER_TRIAL_REQUESTS, FedoraPassCrudClient::isOutage);
+                    defaultBreaker = shared;
+                }
+            } finally {
+                DEFAULTS_LOCK.unlock();
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * A request shows the repository is failing if it could not be completed, or the repository answered with 
+     * a server error. Other errors, such as a missing resource, show that it is responding.
+     */
+    private static boolean isOutage(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof FcrepoOperationFailedException) {
+                // the Fedora client reports I/O errors with a status of -1
+                int status = ((FcrepoOperationFailedException) cause).getStatusCode();
+                return status < 0 || status >= HttpStatus.SC_INTERNAL_SERVER_ERROR;
+            }
+            if (cause instanceof FedoraStatusException) {
+                return ((FedoraStatusException) cause).getStatusCode() >= HttpStatus.SC_INTERNAL_SERVER_ERROR;
+            }
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private static <T extends PassEntity> void handleNon2xx(T modelObj, Response res) throws IOException {
         if (res.code() < 200 || res.code() > 299) {
             String msg = format("Failed to update %s - unexpected status code %s: %s",
                     modelObj.getId(), res.code(), res.body().string());
-            throw new RuntimeException(msg);
+            throw new FedoraStatusException(msg, res.code());
         }
     }
 
+    /**
+     * The body and version tag of a resource as read from the repository
+     */
+    private static final class Representation {
+
+        private final byte[] body;
+
+        private final String etag;
+
+        private Representation(byte[] body, String etag) {
+            this.body = body;
+            this.etag = etag;
+        }
+
+    }
+
 }
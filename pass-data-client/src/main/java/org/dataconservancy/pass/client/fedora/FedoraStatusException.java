@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.fedora;
+
+/**
+ * This exception is thrown when the repository answers a request sent with the OkHttp client with an 
+ * unexpected status code. The status is kept so that server errors can be told apart from client errors, 
+ * for example by the circuit breaker.
+ * 
+ * @author agent
+ */
+public class FedoraStatusException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    public FedoraStatusException(String s, int statusCode) {
+        super(s);
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * @return the HTTP status code returned by the repository
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+}
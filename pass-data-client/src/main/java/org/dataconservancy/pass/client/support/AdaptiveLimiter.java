@@ -0,0 +1,236 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.support;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits the number of requests in progress at once, adjusting the limit to the latency of the requests. 
+ * The limit grows by about one for each limit's worth of requests that complete at close to the lowest 
+ * latency seen (additive increase). When latency rises well above that, or a request fails in a way that shows 
+ * overload (by default, an I/O error, as for the CircuitBreaker), the limit is cut by a fraction (multiplicative 
+ * decrease), at most once for each round trip. Requests over 
+ * the limit wait for one in progress to complete, for up to a maximum time, after which a 
+ * LimitExceededException is thrown.
+ * <p>
+ * The effect is that the number of concurrent requests settles at about what the server can handle without 
+ * its latency climbing, however many threads are making requests.
+ * </p>
+ * @author agent
+ */
+public class AdaptiveLimiter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiveLimiter.class);
+
+    /**
+     * Latency above the lowest seen by more than this factor is taken as a sign of overload
+     */
+    private static final double LATENCY_TOLERANCE = 2.0;
+
+    /**
+     * Fraction of the limit kept when it is cut
+     */
+    private static final double BACKOFF_RATIO = 0.75;
+
+    /**
+     * How quickly the lowest latency drifts up towards the observed latency, so that a lasting change in the 
+     * server's baseline latency is eventually accepted
+     */
+    private static final double BASELINE_DRIFT = 0.01;
+
+    private final String name;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final long maxWaitNanos;
+
+    private final Predicate<Throwable> isOverload;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition available = lock.newCondition();
+
+    private double limit;
+
+    private int inFlight = 0;
+
+    private double baselineNanos = 0;
+
+    private long lastDecreaseNanos;
+
+    /**
+     * @param name name used when logging and in exception messages, for example "Fedora"
+     * @param initialLimit limit to start with
+     * @param minLimit the limit is never cut below this
+     * @param maxLimit the limit never grows above this
+     * @param maxWaitMillis how long a request may wait to start, 0 to fail immediately when at the limit
+     */
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit, long maxWaitMillis) {
+        this(name, initialLimit, minLimit, maxLimit, maxWaitMillis, CircuitBreaker::hasIOExceptionCause);
+    }
+
+    /**
+     * @param name name used when logging and in exception messages, for example "Fedora"
+     * @param initialLimit limit to start with
+     * @param minLimit the limit is never cut below this
+     * @param maxLimit the limit never grows above this
+     * @param maxWaitMillis how long a request may wait to start, 0 to fail immediately when at the limit
+     * @param isOverload decides whether an exception thrown by a request is a sign of overload
+     */
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit, long maxWaitMillis,
+            Predicate<Throwable> isOverload) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException(String.format("Invalid limits: initial %s, min %s, max %s",
+                    initialLimit, minLimit, maxLimit));
+        }
+        if (maxWaitMillis < 0) {
+            throw new IllegalArgumentException("maxWaitMillis cannot be negative");
+        }
+        if (isOverload == null) {
+            throw new IllegalArgumentException("isOverload cannot be null");
+        }
+        this.name = name;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.isOverload = isOverload;
+        // nanoTime has an arbitrary origin, so start as if the last cut was long ago
+        this.lastDecreaseNanos = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+    }
+
+    /**
+     * Runs a request once the limit allows it, and adjusts the limit using how long it took
+     * @param request
+     * @return the result of the request
+     * @throws LimitExceededException if the request could not start within the maximum wait
+     */
+    public <T> T execute(Supplier<T> request) {
+        acquire();
+        long start = System.nanoTime();
+        boolean overloaded = false;
+        boolean ignored = false;
+        try {
+            return request.get();
+        } catch (RuntimeException e) {
+            // a request that failed for a reason other than overload says nothing about the server's load
+            overloaded = isOverload.test(e);
+            ignored = !overloaded;
+            throw e;
+        } catch (Error e) {
+            ignored = true;
+            throw e;
+        } finally {
+            release(start, overloaded, ignored);
+        }
+    }
+
+    /**
+     * @return the current limit
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of requests in progress
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire() {
+        lock.lock();
+        try {
+            long remaining = maxWaitNanos;
+            while (inFlight >= (int) limit) {
+                if (remaining <= 0) {
+                    throw new LimitExceededException(String.format("%s concurrency limit of %s reached, and no "
+                            + "request completed within %sms", name, (int) limit,
+                            TimeUnit.NANOSECONDS.toMillis(maxWaitNanos)));
+                }
+                remaining = available.awaitNanos(remaining);
+            }
+            inFlight++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LimitExceededException(String.format("Interrupted while waiting for the %s concurrency limit", name));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long startNanos, boolean overloaded, boolean ignored) {
+        long now = System.nanoTime();
+        long latencyNanos = now - startNanos;
+        lock.lock();
+        try {
+            int inFlightBefore = inFlight;
+            inFlight--;
+            available.signalAll();
+            if (ignored) {
+                return;
+            }
+
+            if (!overloaded) {
+                // only the latency of successful requests says how quickly the server responds
+                if (baselineNanos == 0 || latencyNanos < baselineNanos) {
+                    baselineNanos = latencyNanos;
+                } else {
+                    baselineNanos += (latencyNanos - baselineNanos) * BASELINE_DRIFT;
+                }
+                overloaded = latencyNanos > baselineNanos * LATENCY_TOLERANCE;
+            }
+
+            if (overloaded) {
+                // requests started before the last cut can not have seen its effect yet
+                if (startNanos - lastDecreaseNanos > 0) {
+                    double previous = limit;
+                    limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                    lastDecreaseNanos = now;
+                    if ((int) previous != (int) limit) {
+                        LOG.debug("{} concurrency limit reduced to {}", name, (int) limit);
+                    }
+                }
+            } else if (inFlightBefore * 2 >= (int) limit) {
+                // only grow while the limit is actually in use
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.support;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of requests of one kind in progress at once, so that a burst of one kind of request, such 
+ * as large uploads, cannot take up every connection and thread and hold up requests of other kinds. Requests 
+ * over the cap wait, in order of arrival, for up to a maximum time, after which a LimitExceededException is 
+ * thrown. Unlike AdaptiveLimiter, the cap is fixed.
+ * @author agent
+ */
+public class Bulkhead {
+
+    private final String name;
+
+    private final int maxConcurrent;
+
+    private final long maxWaitMillis;
+
+    private final Semaphore permits;
+
+    /**
+     * @param name name used in exception messages, for example "Fedora binary"
+     * @param maxConcurrent maximum number of requests in progress at once
+     * @param maxWaitMillis how long a request may wait to start, 0 to fail immediately when all permits are taken
+     */
+    public Bulkhead(String name, int maxConcurrent, long maxWaitMillis) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be at least 1");
+        }
+        if (maxWaitMillis < 0) {
+            throw new IllegalArgumentException("maxWaitMillis cannot be negative");
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitMillis = maxWaitMillis;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Runs a request once a permit is available
+     * @param request
+     * @return the result of the request
+     * @throws LimitExceededException if no permit became available within the maximum wait
+     */
+    public <T> T execute(Supplier<T> request) {
+        try {
+            if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                throw new LimitExceededException(String.format("All %s %s requests allowed at once are in progress, "
+                        + "and none completed within %sms", maxConcurrent, name, maxWaitMillis));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LimitExceededException(String.format("Interrupted while waiting to start a %s request", name));
+        }
+        try {
+            return request.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Starts an asynchronous request if a permit is available, holding the permit until the request completes. 
+     * So as not to block the calling thread, the request does not wait for a permit.
+     * @param request
+     * @return the future returned by the request, or a future that has failed with a LimitExceededException if 
+     *         no permit was available
+     */
+    public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> request) {
+        if (!permits.tryAcquire()) {
+            CompletableFuture<T> rejected = new CompletableFuture<T>();
+            rejected.completeExceptionally(new LimitExceededException(String.format("All %s %s requests allowed "
+                    + "at once are in progress", maxConcurrent, name)));
+            return rejected;
+        }
+        CompletableFuture<T> future;
+        try {
+            future = request.get();
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+        future.whenComplete((result, error) -> permits.release());
+        return future;
+    }
+
+    /**
+     * @return the maximum number of requests in progress at once
+     */
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * @return the number of requests that can start without waiting
+     */
+    public int getAvailable() {
+        return permits.availablePermits();
+    }
+
+}
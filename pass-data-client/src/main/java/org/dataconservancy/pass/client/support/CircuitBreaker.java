@@ -0,0 +1,297 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.support;
+
+import java.io.IOException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stops requests to a service that is failing, so that callers fail immediately rather than each waiting out 
+ * connection and read timeouts. The outcomes of the most recent requests are kept in a window, and when the 
+ * proportion of failures in the window reaches a threshold the breaker opens. While it is open, requests are 
+ * rejected with a CircuitBreakerOpenException without being made. Once it has been open for a set time, a few 
+ * trial requests are let through (half-open): if they all succeed the breaker closes, and if any fails it opens 
+ * again.
+ * <p>
+ * Only exceptions accepted by the failure test count as failures. By default that is any exception caused by an 
+ * IOException, so that errors such as a missing resource, which show the service is responding, do not open the 
+ * breaker.
+ * </p>
+ * @author agent
+ */
+public class CircuitBreaker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    /**
+     * Number of trial requests that must succeed while half-open before the breaker closes, unless specified
+     */
+    private static final int DEFAULT_HALF_OPEN_CALLS = 3;
+
+    /**
+     * State of a circuit breaker
+     */
+    public enum State {
+        /** requests are made, and their outcomes recorded */
+        CLOSED,
+        /** requests are rejected */
+        OPEN,
+        /** a limited number of trial requests are made */
+        HALF_OPEN
+    }
+
+    private final String name;
+
+    private final boolean[] window;
+
+    private final int minimumCalls;
+
+    private final int failureRatePercent;
+
+    private final long openNanos;
+
+    private final int halfOpenCalls;
+
+    private final Predicate<Throwable> isFailure;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private State state = State.CLOSED;
+
+    /**
+     * Incremented on every change of state, so that the outcomes of requests allowed in an earlier state 
+     * can be ignored
+     */
+    private long generation = 0;
+
+    private int windowNext = 0;
+
+    private int windowCount = 0;
+
+    private int windowFailures = 0;
+
+    private long openedNanos;
+
+    private int probesStarted = 0;
+
+    private int probesSucceeded = 0;
+
+    /**
+     * Creates a breaker that counts exceptions caused by an IOException as failures, needs at least half of 
+     * the window filled before it opens, and closes after three trial requests succeed
+     * @param name name used when logging and in exception messages, for example "Fedora"
+     * @param windowSize number of recent requests whose outcome is kept
+     * @param failureRatePercent percentage of failures in the window at which the breaker opens
+     * @param openMillis how long the breaker stays open before trial requests are let through
+     */
+    public CircuitBreaker(String name, int windowSize, int failureRatePercent, long openMillis) {
+        this(name, windowSize, Math.max(1, windowSize / 2), failureRatePercent, openMillis, DEFAULT_HALF_OPEN_CALLS,
+                CircuitBreaker::hasIOExceptionCause);
+    }
+
+    /**
+     * @param name name used when logging and in exception messages, for example "Fedora"
+     * @param windowSize number of recent requests whose outcome is kept
+     * @param minimumCalls number of outcomes that must be in the window before the breaker can open
+     * @param failureRatePercent percentage of failures in the window at which the breaker opens
+     * @param openMillis how long the breaker stays open before trial requests are let through
+     * @param halfOpenCalls number of trial requests that must succeed before the breaker closes
+     * @param isFailure decides whether an exception thrown by a request counts as a failure
+     */
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRatePercent, long openMillis,
+            int halfOpenCalls, Predicate<Throwable> isFailure) {
+        if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException(String.format("Invalid window: size %s, minimum calls %s",
+                    windowSize, minimumCalls));
+        }
+        if (failureRatePercent < 1 || failureRatePercent > 100) {
+            throw new IllegalArgumentException("failureRatePercent must be between 1 and 100");
+        }
+        if (openMillis < 0) {
+            throw new IllegalArgumentException("openMillis cannot be negative");
+        }
+        if (halfOpenCalls < 1) {
+            throw new IllegalArgumentException("halfOpenCalls must be at least 1");
+        }
+        if (isFailure == null) {
+            throw new IllegalArgumentException("isFailure cannot be null");
+        }
+        this.name = name;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRatePercent = failureRatePercent;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.halfOpenCalls = halfOpenCalls;
+        this.isFailure = isFailure;
+    }
+
+    /**
+     * Makes a request if the breaker allows it, and records its outcome
+     * @param request
+     * @return the result of the request
+     * @throws CircuitBreakerOpenException if the breaker is open
+     */
+    public <T> T execute(Supplier<T> request) {
+        long permit = acquirePermission();
+        T result;
+        try {
+            result = request.get();
+        } catch (RuntimeException | Error e) {
+            onResult(permit, e);
+            throw e;
+        }
+        onResult(permit, null);
+        return result;
+    }
+
+    /**
+     * Checks that a request may be made. For requests that do not complete on the calling thread, call this 
+     * before making the request, and pass what it returns to onResult when the request completes. 
+     * @return a permit identifying the request to onResult
+     * @throws CircuitBreakerOpenException if the breaker is open
+     */
+    public long acquirePermission() {
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                long openFor = System.nanoTime() - openedNanos;
+                if (openFor < openNanos) {
+                    throw new CircuitBreakerOpenException(String.format("%s circuit breaker is open after too many "
+                            + "failed requests, retrying in %sms", name,
+                            TimeUnit.NANOSECONDS.toMillis(openNanos - openFor)));
+                }
+                transition(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesStarted >= halfOpenCalls) {
+                    throw new CircuitBreakerOpenException(String.format("%s circuit breaker is half-open, and is "
+                            + "waiting for the outcome of trial requests", name));
+                }
+                probesStarted++;
+            }
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the outcome of a request that was allowed by acquirePermission. A request turned away by a 
+     * bulkhead or limiter never reached the server, so it is not an outcome, and a trial request turned away 
+     * leaves room for another.
+     * @param permit what acquirePermission returned for the request
+     * @param error the exception the request failed with, or null if it succeeded
+     */
+    public void onResult(long permit, Throwable error) {
+        boolean failed = error != null && isFailure.test(error);
+        lock.lock();
+        try {
+            if (permit != generation) {
+                // the request was allowed before the last change of state, so its outcome no longer applies
+                return;
+            }
+            if (error instanceof LimitExceededException) {
+                if (state == State.HALF_OPEN) {
+                    probesStarted--;
+                }
+                return;
+            }
+            if (state == State.HALF_OPEN) {
+                if (failed) {
+                    transition(State.OPEN);
+                } else if (++probesSucceeded >= halfOpenCalls) {
+                    transition(State.CLOSED);
+                }
+            } else if (state == State.CLOSED) {
+                record(failed);
+                if (windowCount >= minimumCalls && windowFailures * 100 >= failureRatePercent * windowCount) {
+                    transition(State.OPEN);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the current state. An open breaker whose open time has passed is reported as open until the 
+     *         next request is made.
+     */
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failed) {
+        if (windowCount == window.length) {
+            if (window[windowNext]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowNext] = failed;
+        if (failed) {
+            windowFailures++;
+        }
+        windowNext = (windowNext + 1) % window.length;
+    }
+
+    private void transition(State newState) {
+        if (newState == State.OPEN) {
+            openedNanos = System.nanoTime();
+            LOG.warn("{} circuit breaker opened, requests will fail fast for {}ms", name,
+                    TimeUnit.NANOSECONDS.toMillis(openNanos));
+        } else if (newState == State.CLOSED) {
+            windowNext = 0;
+            windowCount = 0;
+            windowFailures = 0;
+            LOG.info("{} circuit breaker closed", name);
+        } else {
+            LOG.debug("{} circuit breaker half-open, trying {} requests", name, halfOpenCalls);
+        }
+        probesStarted = 0;
+        probesSucceeded = 0;
+        state = newState;
+        generation++;
+    }
+
+    /**
+     * The default failure test
+     * @param e
+     * @return true if the exception, or any of its causes, is an IOException
+     */
+    public static boolean hasIOExceptionCause(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
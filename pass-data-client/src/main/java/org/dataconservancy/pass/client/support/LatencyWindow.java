@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.support;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the most recent latencies of a kind of request, and works out percentiles of them. Percentiles are 
+ * worked out again only after a number of new latencies have been recorded, so that asking for one on every 
+ * request is cheap.
+ * @author agent
+ */
+public class LatencyWindow {
+
+    /**
+     * Number of latencies recorded before cached percentiles are worked out again
+     */
+    private static final int REFRESH_INTERVAL = 16;
+
+    private final long[] latencies;
+
+    private final int minSamples;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private int next = 0;
+
+    private int count = 0;
+
+    private int sinceSorted = 0;
+
+    private long[] sorted = new long[0];
+
+    /**
+     * @param size number of recent latencies kept
+     * @param minSamples number of latencies that must be recorded before percentiles are available
+     */
+    public LatencyWindow(int size, int minSamples) {
+        if (size < 1 || minSamples < 1 || minSamples > size) {
+            throw new IllegalArgumentException(String.format("Invalid window: size %s, minimum samples %s",
+                    size, minSamples));
+        }
+        this.latencies = new long[size];
+        this.minSamples = minSamples;
+    }
+
+    /**
+     * @param latencyNanos latency of a request, in nanoseconds
+     */
+    public void record(long latencyNanos) {
+        lock.lock();
+        try {
+            latencies[next] = latencyNanos;
+            next = (next + 1) % latencies.length;
+            if (count < latencies.length) {
+                count++;
+            }
+            sinceSorted++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the latency, in nanoseconds, that the percentage of recent requests provided completed within, 
+     *         or -1 if too few latencies have been recorded
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        lock.lock();
+        try {
+            if (count < minSamples) {
+                return -1;
+            }
+            if (sorted.length != count || sinceSorted >= REFRESH_INTERVAL) {
+                sorted = Arrays.copyOf(latencies, count);
+                Arrays.sort(sorted);
+                sinceSorted = 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, index)];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of latencies held
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.support;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical calls. While a call for a key is in progress, other threads that make a call 
+ * for the same key do not make their own, but wait for the one in progress and receive its result, or the 
+ * exception it failed with. Once a call completes, the next call for its key is made afresh, so results are 
+ * never reused after the fact.
+ * <p>
+ * Every caller receives the same result object, so results should be immutable, or copied by the caller 
+ * before they are changed.
+ * </p>
+ * @author agent
+ * @param <K> type of the key identifying identical calls
+ * @param <V> type of the result
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<K, CompletableFuture<V>>();
+
+    /**
+     * Makes a call, or waits for the identical call in progress
+     * @param key identifies the call
+     * @param call makes the call on the calling thread, if none is in progress
+     * @return the result of the call
+     */
+    public V execute(K key, Supplier<V> call) {
+        CompletableFuture<V> flight = new CompletableFuture<V>();
+        CompletableFuture<V> existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            return join(existing);
+        }
+
+        V result;
+        try {
+            result = call.get();
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        flights.remove(key, flight);
+        flight.complete(result);
+        return result;
+    }
+
+    /**
+     * Starts an asynchronous call, or joins the identical call in progress
+     * @param key identifies the call
+     * @param call starts the call, if none is in progress
+     * @return a future completed with the result of the call
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> flight = new CompletableFuture<V>();
+        CompletableFuture<V> existing = flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            return existing.thenApply(result -> result);
+        }
+
+        try {
+            call.get().whenComplete((result, error) -> {
+                flights.remove(key, flight);
+                if (error != null) {
+                    flight.completeExceptionally(error);
+                } else {
+                    flight.complete(result);
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        // callers get a dependent future, so that one cancelling it does not affect the others
+        return flight.thenApply(result -> result);
+    }
+
+    /**
+     * @return the number of calls in progress
+     */
+    public int size() {
+        return flights.size();
+    }
+
+    private static <V> V join(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+}
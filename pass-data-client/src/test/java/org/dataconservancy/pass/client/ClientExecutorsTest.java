@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for ClientExecutors
+ * @author agent
+ */
+public class ClientExecutorsTest {
+
+    @After
+    public void resetDefault() {
+        ClientExecutors.setDefault(null);
+    }
+
+    /**
+     * An executor set as the default is used until it is reset, after which tasks run on the built-in pool again
+     * @throws Exception
+     */
+    @Test
+    public void testSetDefault() throws Exception {
+        Executor direct = Runnable::run;
+        ClientExecutors.setDefault(direct);
+        assertSame(direct, ClientExecutors.getDefault());
+
+        ClientExecutors.setDefault(null);
+        Executor reset = ClientExecutors.getDefault();
+        assertNotSame(direct, reset);
+        String thread = CompletableFuture.supplyAsync(() -> Thread.currentThread().getName(), reset)
+                .get(10, TimeUnit.SECONDS);
+        assertTrue(thread.startsWith("pass-client-reader-"));
+    }
+
+    /**
+     * Virtual threads are available exactly when the JVM is Java 21 or later
+     * @throws Exception
+     */
+    @Test
+    public void testVirtualThreadExecutor() throws Exception {
+        String version = System.getProperty("java.specification.version");
+        boolean expected = !version.startsWith("1.") && Integer.parseInt(version) >= 21;
+        assertEquals(expected, ClientExecutors.isVirtualThreadAvailable());
+
+        if (!expected) {
+            try {
+                ClientExecutors.newVirtualThreadExecutor();
+                fail("Expected virtual threads to be unsupported");
+            } catch (UnsupportedOperationException e) {
+                // expected
+            }
+            return;
+        }
+
+        ExecutorService executor = ClientExecutors.newVirtualThreadExecutor();
+        try {
+            Boolean virtual = executor.submit(() -> (Boolean) Thread.class.getMethod("isVirtual")
+                    .invoke(Thread.currentThread())).get(10, TimeUnit.SECONDS);
+            assertTrue(virtual);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
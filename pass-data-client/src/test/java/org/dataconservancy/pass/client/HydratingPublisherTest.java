@@ -0,0 +1,236 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for HydratingPublisher
+ * @author agent
+ */
+public class HydratingPublisherTest {
+
+    /**
+     * Every item is read and sent, then the stream completes
+     * @throws Exception
+     */
+    @Test
+    public void testReadsAll() throws Exception {
+        ListPublisher upstream = new ListPublisher(20);
+        HydratingPublisher<Integer, String> publisher =
+                new HydratingPublisher<Integer, String>(upstream, i -> "item" + i, 4, Runnable::run);
+        Collector collector = new Collector();
+        publisher.subscribe(collector);
+        collector.subscription.request(Long.MAX_VALUE);
+
+        assertTrue(collector.finished.await(10, TimeUnit.SECONDS));
+        assertNull(collector.error);
+        assertEquals(20, collector.items.size());
+        assertEquals("item0", collector.items.get(0));
+    }
+
+    /**
+     * Items are only requested from upstream as results are requested by the subscriber
+     */
+    @Test
+    public void testFollowsDemand() {
+        ListPublisher upstream = new ListPublisher(20);
+        HydratingPublisher<Integer, String> publisher =
+                new HydratingPublisher<Integer, String>(upstream, i -> "item" + i, 4, Runnable::run);
+        Collector collector = new Collector();
+        publisher.subscribe(collector);
+        assertEquals(0, upstream.requested.get());
+
+        collector.subscription.request(2);
+        assertEquals(2, collector.items.size());
+        assertEquals(2, upstream.requested.get());
+
+        collector.subscription.request(10);
+        assertEquals(12, collector.items.size());
+        assertEquals(12, upstream.requested.get());
+        assertFalse(collector.finished.getCount() == 0);
+    }
+
+    /**
+     * No more than maxConcurrency reads run at once, however many results are requested
+     * @throws Exception
+     */
+    @Test
+    public void testBoundedConcurrency() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            AtomicInteger running = new AtomicInteger(0);
+            AtomicInteger peak = new AtomicInteger(0);
+            ListPublisher upstream = new ListPublisher(100);
+            HydratingPublisher<Integer, String> publisher = new HydratingPublisher<Integer, String>(upstream, i -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return "item" + i;
+            }, 3, executor);
+            Collector collector = new Collector();
+            publisher.subscribe(collector);
+            collector.subscription.request(Long.MAX_VALUE);
+
+            assertTrue(collector.finished.await(30, TimeUnit.SECONDS));
+            assertNull(collector.error);
+            assertEquals(100, collector.items.size());
+            assertTrue("Peak concurrency was " + peak.get(), peak.get() <= 3);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * A read that fails ends the stream with its exception and cancels upstream. Results that were read but 
+     * not yet sent are dropped.
+     * @throws Exception
+     */
+    @Test
+    public void testReadFailure() throws Exception {
+        ListPublisher upstream = new ListPublisher(20);
+        RuntimeException failure = new RuntimeException("Could not read");
+        HydratingPublisher<Integer, String> publisher = new HydratingPublisher<Integer, String>(upstream, i -> {
+            if (i == 5) {
+                throw failure;
+            }
+            return "item" + i;
+        }, 2, Runnable::run);
+        Collector collector = new Collector();
+        publisher.subscribe(collector);
+        collector.subscription.request(Long.MAX_VALUE);
+
+        assertTrue(collector.finished.await(10, TimeUnit.SECONDS));
+        assertEquals(failure, collector.error);
+        assertTrue(collector.items.size() <= 5);
+        assertTrue(upstream.cancelled);
+    }
+
+    /**
+     * Requesting a non-positive number of items fails the stream
+     * @throws Exception
+     */
+    @Test
+    public void testBadRequest() throws Exception {
+        ListPublisher upstream = new ListPublisher(20);
+        HydratingPublisher<Integer, String> publisher =
+                new HydratingPublisher<Integer, String>(upstream, i -> "item" + i, 2, Runnable::run);
+        Collector collector = new Collector();
+        publisher.subscribe(collector);
+        collector.subscription.request(0);
+
+        assertTrue(collector.finished.await(10, TimeUnit.SECONDS));
+        assertTrue(collector.error instanceof IllegalArgumentException);
+        assertEquals(0, upstream.requested.get());
+    }
+
+    /**
+     * Publishes the integers from 0, sending each on the thread that requests it
+     */
+    private static class ListPublisher implements PassFlow.Publisher<Integer> {
+
+        private final int count;
+
+        private final AtomicLong requested = new AtomicLong(0);
+
+        private volatile boolean cancelled = false;
+
+        private ListPublisher(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void subscribe(PassFlow.Subscriber<? super Integer> subscriber) {
+            AtomicInteger next = new AtomicInteger(0);
+            subscriber.onSubscribe(new PassFlow.Subscription() {
+                @Override
+                public void request(long n) {
+                    requested.addAndGet(n);
+                    for (long i = 0; i < n && !cancelled; i++) {
+                        int item = next.getAndIncrement();
+                        if (item >= count) {
+                            return;
+                        }
+                        subscriber.onNext(item);
+                        if (item == count - 1) {
+                            subscriber.onComplete();
+                        }
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+
+    /**
+     * Collects everything sent to it
+     */
+    private static class Collector implements PassFlow.Subscriber<String> {
+
+        private final List<String> items = Collections.synchronizedList(new ArrayList<String>());
+
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        private volatile PassFlow.Subscription subscription;
+
+        private volatile Throwable error;
+
+        @Override
+        public void onSubscribe(PassFlow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(String item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            finished.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            finished.countDown();
+        }
+    }
+
+}
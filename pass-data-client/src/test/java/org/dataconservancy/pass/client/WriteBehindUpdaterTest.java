@@ -0,0 +1,251 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client;
+
+import java.lang.reflect.Proxy;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.dataconservancy.pass.client.fedora.UpdateConflictException;
+import org.dataconservancy.pass.model.PassEntity;
+import org.dataconservancy.pass.model.Submission;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for WriteBehindUpdater
+ * @author agent
+ */
+public class WriteBehindUpdaterTest {
+
+    private final List<PassEntity> written = Collections.synchronizedList(new ArrayList<PassEntity>());
+
+    private final List<RuntimeException> failures = Collections.synchronizedList(new ArrayList<RuntimeException>());
+
+    private volatile RuntimeException writeError;
+
+    private final Map<URI, String> tags = new ConcurrentHashMap<URI, String>();
+
+    private final Semaphore writes = new Semaphore(0);
+
+    /**
+     * Updates to the same entity made within the window are written as one
+     */
+    @Test
+    public void testMergesUpdates() {
+        try (WriteBehindUpdater updater = new WriteBehindUpdater(client(), 60000, 100, this::failed)) {
+            Submission submission = submission("1");
+            submission.setMetadata("first");
+            updater.update(submission);
+            submission.clearDirtyFields();
+            submission.setSubmitted(true);
+            updater.update(submission);
+            submission.setMetadata("changed after the update");
+
+            updater.update(submission("2"));
+            assertEquals(2, updater.getPendingCount());
+            assertTrue(written.isEmpty());
+
+            updater.flush();
+            assertEquals(0, updater.getPendingCount());
+        }
+
+        assertEquals(2, written.size());
+        Submission merged = (Submission) written.get(0);
+        assertEquals("first", merged.getMetadata());
+        assertEquals(true, merged.getSubmitted());
+        assertTrue(merged.getDirtyFields().contains("metadata"));
+        assertTrue(merged.getDirtyFields().contains("submitted"));
+    }
+
+    /**
+     * All held updates are written once updates are held for the maximum number of entities
+     */
+    @Test
+    public void testFlushOnSize() {
+        try (WriteBehindUpdater updater = new WriteBehindUpdater(client(), 60000, 3, this::failed)) {
+            updater.update(submission("1"));
+            updater.update(submission("2"));
+            assertTrue(written.isEmpty());
+            updater.update(submission("3"));
+            assertEquals(3, written.size());
+            assertEquals(0, updater.getPendingCount());
+        }
+    }
+
+    /**
+     * Held updates are written when their window ends
+     * @throws Exception
+     */
+    @Test
+    public void testFlushOnTime() throws Exception {
+        try (WriteBehindUpdater updater = new WriteBehindUpdater(client(), 50, 100, this::failed)) {
+            updater.update(submission("1"));
+            assertTrue(writes.tryAcquire(10, TimeUnit.SECONDS));
+            assertEquals(1, written.size());
+            assertEquals(0, updater.getPendingCount());
+        }
+    }
+
+    /**
+     * A copy read before an earlier window was written is not written over it, it conflicts, so an update made 
+     * by another worker from a stale copy is not lost
+     * @throws Exception
+     */
+    @Test
+    public void testStaleCopyConflicts() throws Exception {
+        try (WriteBehindUpdater updater = new WriteBehindUpdater(client(), 20, 100, this::failed)) {
+            Submission submission = submission("1");
+            Submission stale = (Submission) PassEntity.mutableCopy(submission);
+            submission.setMetadata("first");
+            updater.update(submission);
+            assertTrue(writes.tryAcquire(10, TimeUnit.SECONDS));
+
+            stale.setSubmitted(true);
+            updater.update(stale);
+        }
+
+        assertEquals(1, written.size());
+        assertEquals("first", ((Submission) written.get(0)).getMetadata());
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0) instanceof UpdateConflictException);
+    }
+
+    /**
+     * An entity read again after its update was written can be updated in a later window
+     * @throws Exception
+     */
+    @Test
+    public void testUpdateAfterReadingAgain() throws Exception {
+        try (WriteBehindUpdater updater = new WriteBehindUpdater(client(), 20, 100, this::failed)) {
+            Submission submission = submission("1");
+            submission.setMetadata("first");
+            updater.update(submission);
+            assertTrue(writes.tryAcquire(10, TimeUnit.SECONDS));
+
+            submission.setVersionTag(tags.get(submission.getId()));
+            submission.setSubmitted(true);
+            updater.update(submission);
+            assertTrue(writes.tryAcquire(10, TimeUnit.SECONDS));
+        }
+
+        assertTrue(failures.isEmpty());
+        assertEquals(2, written.size());
+        assertEquals("v1", written.get(0).getVersionTag());
+        assertEquals("v2", written.get(1).getVersionTag());
+    }
+
+    /**
+     * A change made elsewhere between two windows is not overwritten, the later update conflicts
+     * @throws Exception
+     */
+    @Test
+    public void testChangeElsewhereConflicts() throws Exception {
+        try (WriteBehindUpdater updater = new WriteBehindUpdater(client(), 20, 100, this::failed)) {
+            Submission submission = submission("1");
+            updater.update(submission);
+            assertTrue(writes.tryAcquire(10, TimeUnit.SECONDS));
+
+            tags.put(submission.getId(), "v9");
+            submission.setSubmitted(true);
+            updater.update(submission);
+        }
+
+        assertEquals(1, written.size());
+        assertEquals(1, failures.size());
+        assertTrue(failures.get(0) instanceof UpdateConflictException);
+    }
+
+    /**
+     * An update that cannot be written is passed to the failure callback
+     */
+    @Test
+    public void testFailureCallback() {
+        writeError = new RuntimeException("Conflict");
+        try (WriteBehindUpdater updater = new WriteBehindUpdater(client(), 60000, 100, this::failed)) {
+            updater.update(submission("1"));
+        }
+        assertEquals(1, failures.size());
+        assertSame(writeError, failures.get(0));
+    }
+
+    /**
+     * Closing writes the held updates, and updates made afterwards are rejected
+     */
+    @Test
+    public void testClose() {
+        WriteBehindUpdater updater = new WriteBehindUpdater(client(), 60000, 100, this::failed);
+        updater.update(submission("1"));
+        updater.close();
+        assertEquals(1, written.size());
+
+        try {
+            updater.update(submission("2"));
+            fail("Expected an update after closing to be rejected");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    private void failed(PassEntity entity, RuntimeException e) {
+        failures.add(e);
+    }
+
+    private static Submission submission(String id) {
+        Submission submission = new Submission();
+        submission.setId(URI.create("http://example.org/submissions/" + id));
+        submission.setVersionTag("v1");
+        return submission;
+    }
+
+    /**
+     * A client that records the entities passed to updateResource, and supports nothing else. Like the 
+     * repository, it rejects an update whose version tag is not the latest, and gives each write a new tag.
+     */
+    private PassClient client() {
+        return (PassClient) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {PassClient.class},
+            (proxy, method, args) -> {
+                if (!method.getName().equals("updateResource")) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+                if (writeError != null) {
+                    throw writeError;
+                }
+                PassEntity entity = (PassEntity) args[0];
+                String current = tags.getOrDefault(entity.getId(), "v1");
+                if (!current.equals(entity.getVersionTag())) {
+                    throw new UpdateConflictException("Version " + entity.getVersionTag() + " is out of date");
+                }
+                written.add(PassEntity.mutableCopy(entity));
+                tags.put(entity.getId(), "v" + (Integer.parseInt(current.substring(1)) + 1));
+                writes.release();
+                return null;
+            });
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.fedora;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for FedoraConfig
+ * @author agent
+ */
+public class FedoraConfigTest {
+
+    @After
+    public void clearProperties() {
+        System.clearProperty("pass.fedora.delete.threads");
+        System.clearProperty("pass.fedora.writebehind.window");
+        System.clearProperty("pass.fedora.writebehind.size");
+        System.clearProperty("pass.fedora.graph.threads");
+        System.clearProperty("pass.fedora.bulkhead.read");
+        System.clearProperty("pass.fedora.bulkhead.read.wait");
+        System.clearProperty("pass.fedora.breaker.window");
+        System.clearProperty("pass.fedora.breaker.rate");
+        System.clearProperty("pass.fedora.breaker.open");
+        System.clearProperty("pass.fedora.limiter.max");
+        System.clearProperty("pass.fedora.limiter.wait");
+    }
+
+    /**
+     * A number setting that is not a number, or is out of range, is replaced by its default
+     */
+    @Test
+    public void testBadNumbersUseDefault() {
+        System.setProperty("pass.fedora.limiter.max", "lots");
+        assertEquals(64, FedoraConfig.getLimiterMax());
+        System.setProperty("pass.fedora.limiter.max", "0");
+        assertEquals(64, FedoraConfig.getLimiterMax());
+        System.setProperty("pass.fedora.limiter.max", "12");
+        assertEquals(12, FedoraConfig.getLimiterMax());
+
+        System.setProperty("pass.fedora.limiter.wait", "-1");
+        assertEquals(30000, FedoraConfig.getLimiterWait());
+        System.setProperty("pass.fedora.limiter.wait", "0");
+        assertEquals(0, FedoraConfig.getLimiterWait());
+
+        System.setProperty("pass.fedora.delete.threads", "-8");
+        assertEquals(8, FedoraConfig.getDeleteThreads());
+
+        System.setProperty("pass.fedora.writebehind.window", "1s");
+        assertEquals(1000L, FedoraConfig.getWriteBehindWindow());
+        System.setProperty("pass.fedora.writebehind.size", "0");
+        assertEquals(100, FedoraConfig.getWriteBehindSize());
+
+        System.setProperty("pass.fedora.graph.threads", "0");
+        assertEquals(8, FedoraConfig.getGraphThreads());
+
+        System.setProperty("pass.fedora.bulkhead.read", "-2");
+        assertEquals(0, FedoraConfig.getBulkhead("read"));
+        System.setProperty("pass.fedora.bulkhead.read.wait", "soon");
+        assertEquals(30000L, FedoraConfig.getBulkheadWait("read"));
+
+        System.setProperty("pass.fedora.breaker.window", "");
+        assertEquals(20, FedoraConfig.getBreakerWindow());
+        System.setProperty("pass.fedora.breaker.rate", "101");
+        assertEquals(50, FedoraConfig.getBreakerRate());
+        System.setProperty("pass.fedora.breaker.open", "-5");
+        assertEquals(10000L, FedoraConfig.getBreakerOpen());
+    }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.support;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for AdaptiveLimiter
+ * @author agent
+ */
+public class AdaptiveLimiterTest {
+
+    /**
+     * A request over the limit fails once it has waited the maximum time
+     * @throws Exception
+     */
+    @Test
+    public void testRejectedOverLimit() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 1, 1, 1, 50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> first = executor.submit(() -> limiter.execute(() -> {
+                started.countDown();
+                await(finish);
+                return "first";
+            }));
+            started.await();
+            assertEquals(1, limiter.getInFlight());
+
+            try {
+                limiter.execute(() -> "second");
+                fail("Expected the request to be rejected");
+            } catch (LimitExceededException e) {
+                // expected
+            }
+
+            finish.countDown();
+            assertEquals("first", first.get());
+            assertEquals(0, limiter.getInFlight());
+            assertEquals("third", limiter.execute(() -> "third"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The limit grows while concurrent requests complete at a steady latency
+     * @throws Exception
+     */
+    @Test
+    public void testLimitGrows() throws Exception {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 2, 1, 10, 10000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<Future<?>>();
+            for (int i = 0; i < 200; i++) {
+                results.add(executor.submit(() -> limiter.execute(() -> sleep(5))));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue("Expected the limit to grow, but it is " + limiter.getLimit(), limiter.getLimit() > 2);
+    }
+
+    /**
+     * The limit is cut when a request fails with an I/O error, or takes much longer than usual
+     */
+    @Test
+    public void testLimitCut() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 8, 1, 10, 0);
+        try {
+            limiter.execute(() -> {
+                throw new RuntimeException(new IOException("timed out"));
+            });
+            fail("Expected the exception to be passed on");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        assertEquals(6, limiter.getLimit());
+
+        // other failures say nothing about the server's load
+        try {
+            limiter.execute(() -> {
+                throw new IllegalArgumentException();
+            });
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(6, limiter.getLimit());
+
+        limiter.execute(() -> sleep(5));
+        limiter.execute(() -> sleep(100));
+        assertEquals(4, limiter.getLimit());
+    }
+
+    /**
+     * A caller can decide which failures show overload, for example a server error status
+     */
+    @Test
+    public void testOverloadTest() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 8, 1, 10, 0,
+                e -> e instanceof IllegalStateException);
+        try {
+            limiter.execute(() -> {
+                throw new IllegalStateException("503");
+            });
+            fail("Expected the exception to be passed on");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(6, limiter.getLimit());
+
+        try {
+            limiter.execute(() -> {
+                throw new RuntimeException(new IOException("timed out"));
+            });
+        } catch (RuntimeException e) {
+            // expected
+        }
+        assertEquals(6, limiter.getLimit());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testBadLimits() {
+        new AdaptiveLimiter("test", 5, 1, 4, 0);
+    }
+
+    private static Object sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.support;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for Bulkhead
+ * @author agent
+ */
+public class BulkheadTest {
+
+    /**
+     * A request fails once it has waited the maximum time for a permit, and a full bulkhead does not affect 
+     * another bulkhead
+     * @throws Exception
+     */
+    @Test
+    public void testRejectedWhenFull() throws Exception {
+        Bulkhead binary = new Bulkhead("binary", 1, 50);
+        Bulkhead metadata = new Bulkhead("metadata", 1, 50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> upload = executor.submit(() -> binary.execute(() -> {
+                started.countDown();
+                await(finish);
+                return "uploaded";
+            }));
+            started.await();
+            assertEquals(0, binary.getAvailable());
+
+            try {
+                binary.execute(() -> "second upload");
+                fail("Expected the request to be rejected");
+            } catch (LimitExceededException e) {
+                // expected
+            }
+            assertEquals("read", metadata.execute(() -> "read"));
+
+            finish.countDown();
+            assertEquals("uploaded", upload.get());
+            assertEquals(1, binary.getAvailable());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * An asynchronous request holds its permit until it completes, and fails at once when there is none
+     * @throws Exception
+     */
+    @Test
+    public void testAsyncPermitHeldUntilComplete() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("search", 1, 60000);
+        CompletableFuture<String> search = new CompletableFuture<String>();
+        CompletableFuture<String> first = bulkhead.executeAsync(() -> search);
+        assertEquals(0, bulkhead.getAvailable());
+
+        CompletableFuture<String> second = bulkhead.executeAsync(() -> CompletableFuture.completedFuture("second"));
+        try {
+            second.get();
+            fail("Expected the request to be rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof LimitExceededException);
+        }
+
+        search.complete("first");
+        assertEquals("first", first.get());
+        assertEquals(1, bulkhead.getAvailable());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
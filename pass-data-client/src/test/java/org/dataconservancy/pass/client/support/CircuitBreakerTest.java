@@ -0,0 +1,168 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.support;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.dataconservancy.pass.client.support.CircuitBreaker.State;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for CircuitBreaker
+ * @author agent
+ */
+public class CircuitBreakerTest {
+
+    /**
+     * The breaker opens once enough of the window has failed, and then rejects requests without making them
+     * @throws Exception
+     */
+    @Test
+    public void testOpensOnFailureRate() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 4, 4, 50, 60000, 1, CircuitBreaker::hasIOExceptionCause);
+        succeed(breaker);
+        succeed(breaker);
+        failure(breaker);
+        assertEquals(State.CLOSED, breaker.getState());
+        failure(breaker);
+        assertEquals(State.OPEN, breaker.getState());
+
+        int[] calls = {0};
+        try {
+            breaker.execute(() -> ++calls[0]);
+            fail("Expected the request to be rejected");
+        } catch (CircuitBreakerOpenException e) {
+            // expected
+        }
+        assertEquals(0, calls[0]);
+    }
+
+    /**
+     * Failures that show the service is responding do not open the breaker, and old outcomes leave the window
+     * @throws Exception
+     */
+    @Test
+    public void testOnlyRecentIOFailuresCount() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 4, 4, 75, 60000, 1, CircuitBreaker::hasIOExceptionCause);
+        for (int i = 0; i < 10; i++) {
+            try {
+                breaker.execute(() -> {
+                    throw new IllegalStateException("not found");
+                });
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        }
+        assertEquals(State.CLOSED, breaker.getState());
+
+        failure(breaker);
+        failure(breaker);
+        succeed(breaker);
+        succeed(breaker);
+        failure(breaker);
+        // the window now holds failure, success, success, failure
+        assertEquals(State.CLOSED, breaker.getState());
+        failure(breaker);
+        assertEquals(State.CLOSED, breaker.getState());
+        failure(breaker);
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    /**
+     * After the open time, trial requests are let through, and the breaker closes once they all succeed
+     * @throws Exception
+     */
+    @Test
+    public void testHalfOpenCloses() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 2, 1, 100, 20, 2, CircuitBreaker::hasIOExceptionCause);
+        failure(breaker);
+        assertEquals(State.OPEN, breaker.getState());
+        Thread.sleep(50);
+
+        long first = breaker.acquirePermission();
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        long second = breaker.acquirePermission();
+        try {
+            breaker.acquirePermission();
+            fail("Expected only two trial requests");
+        } catch (CircuitBreakerOpenException e) {
+            // expected
+        }
+        breaker.onResult(first, null);
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        breaker.onResult(second, null);
+        assertEquals(State.CLOSED, breaker.getState());
+        assertEquals("ok", breaker.execute(() -> "ok"));
+    }
+
+    /**
+     * A failed trial request opens the breaker again, and outcomes of requests allowed before that are ignored
+     * @throws Exception
+     */
+    @Test
+    public void testHalfOpenReopens() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 2, 1, 100, 20, 2, CircuitBreaker::hasIOExceptionCause);
+        failure(breaker);
+        Thread.sleep(50);
+
+        long first = breaker.acquirePermission();
+        long second = breaker.acquirePermission();
+        breaker.onResult(first, new UncheckedIOException(new IOException("timed out")));
+        assertEquals(State.OPEN, breaker.getState());
+        breaker.onResult(second, null);
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    /**
+     * A request turned away by a bulkhead or limiter is not an outcome, and does not use up a trial request
+     * @throws Exception
+     */
+    @Test
+    public void testLimitExceededNotRecorded() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("test", 2, 2, 50, 20, 1, CircuitBreaker::hasIOExceptionCause);
+        failure(breaker);
+        breaker.onResult(breaker.acquirePermission(), new LimitExceededException("full"));
+        assertEquals(State.CLOSED, breaker.getState());
+        failure(breaker);
+        assertEquals(State.OPEN, breaker.getState());
+        Thread.sleep(50);
+
+        breaker.onResult(breaker.acquirePermission(), new LimitExceededException("full"));
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        succeed(breaker);
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    private static void succeed(CircuitBreaker breaker) {
+        assertEquals("ok", breaker.execute(() -> "ok"));
+    }
+
+    private static void failure(CircuitBreaker breaker) {
+        try {
+            breaker.execute(() -> {
+                throw new UncheckedIOException(new IOException("connection refused"));
+            });
+            fail("Expected the request to fail");
+        } catch (UncheckedIOException e) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.support;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for LatencyWindow
+ * @author agent
+ */
+public class LatencyWindowTest {
+
+    /**
+     * No percentile is available until the minimum number of latencies has been recorded
+     */
+    @Test
+    public void testMinimumSamples() {
+        LatencyWindow window = new LatencyWindow(10, 3);
+        window.record(5);
+        window.record(7);
+        assertEquals(-1, window.getPercentile(50));
+        window.record(6);
+        assertEquals(6, window.getPercentile(50));
+        assertEquals(7, window.getPercentile(100));
+        assertEquals(5, window.getPercentile(0));
+    }
+
+    /**
+     * Percentiles are of the most recent latencies only
+     */
+    @Test
+    public void testOldLatenciesDropped() {
+        LatencyWindow window = new LatencyWindow(100, 1);
+        for (int i = 1; i <= 100; i++) {
+            window.record(i);
+        }
+        assertEquals(95, window.getPercentile(95));
+        assertEquals(100, window.getPercentile(99.5));
+
+        for (int i = 0; i < 100; i++) {
+            window.record(1000 + i);
+        }
+        assertEquals(100, window.size());
+        assertEquals(1000, window.getPercentile(1));
+        assertEquals(1094, window.getPercentile(95));
+    }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.client.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for SingleFlight
+ * @author agent
+ */
+public class SingleFlightTest {
+
+    /**
+     * Concurrent calls for the same key are made once, and all callers receive the result
+     * @throws Exception
+     */
+    @Test
+    public void testConcurrentCallsShared() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<String, String>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+
+        FutureTask<String> leader = start(() -> flights.execute("key", () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(finish);
+            return "result";
+        }));
+        started.await();
+
+        List<FutureTask<String>> waiters = new ArrayList<FutureTask<String>>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++) {
+            FutureTask<String> waiter = new FutureTask<String>(() -> flights.execute("key", () -> {
+                calls.incrementAndGet();
+                return "other";
+            }));
+            Thread thread = new Thread(waiter);
+            thread.start();
+            waiters.add(waiter);
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            awaitWaiting(thread);
+        }
+        // a different key is not held up
+        assertEquals("other", flights.execute("other key", () -> "other"));
+
+        finish.countDown();
+        assertEquals("result", leader.get());
+        for (FutureTask<String> waiter : waiters) {
+            assertEquals("result", waiter.get());
+        }
+        assertEquals(1, calls.get());
+
+        // once the call has completed, the next one is made afresh
+        assertEquals(0, flights.size());
+        assertEquals("next", flights.execute("key", () -> "next"));
+    }
+
+    /**
+     * Callers waiting on a call that fails receive its exception, and the next call is made afresh
+     * @throws Exception
+     */
+    @Test
+    public void testFailureShared() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<String, String>();
+        IllegalStateException failure = new IllegalStateException("failed");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+
+        FutureTask<String> leader = start(() -> flights.execute("key", () -> {
+            started.countDown();
+            await(finish);
+            throw failure;
+        }));
+        started.await();
+        FutureTask<String> waiter = new FutureTask<String>(() -> flights.execute("key", () -> "not called"));
+        Thread thread = new Thread(waiter);
+        thread.start();
+        awaitWaiting(thread);
+        finish.countDown();
+
+        assertFailedWith(failure, leader);
+        assertFailedWith(failure, waiter);
+        assertEquals("next", flights.execute("key", () -> "next"));
+    }
+
+    /**
+     * Asynchronous calls for the same key are started once, and each caller gets its own future
+     * @throws Exception
+     */
+    @Test
+    public void testAsyncCallsShared() throws Exception {
+        SingleFlight<String, String> flights = new SingleFlight<String, String>();
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> source = new CompletableFuture<String>();
+
+        CompletableFuture<String> first = flights.executeAsync("key", () -> {
+            calls.incrementAndGet();
+            return source;
+        });
+        CompletableFuture<String> second = flights.executeAsync("key", () -> {
+            calls.incrementAndGet();
+            return new CompletableFuture<String>();
+        });
+        assertEquals(1, calls.get());
+
+        // cancelling one caller's future leaves the others waiting for the result
+        second.cancel(true);
+        source.complete("result");
+        assertEquals("result", first.get());
+        assertEquals(0, flights.size());
+    }
+
+    private static FutureTask<String> start(Callable<String> call) {
+        FutureTask<String> task = new FutureTask<String>(call);
+        new Thread(task).start();
+        return task;
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void assertFailedWith(Throwable expected, FutureTask<String> task) throws InterruptedException {
+        try {
+            task.get();
+            fail("Expected the call to fail");
+        } catch (ExecutionException e) {
+            assertSame(expected, e.getCause());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -18,8 +18,13 @@ package org.dataconservancy.pass.client.adapter;
 import java.io.IOException;
 import java.io.InputStream;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.TextNode;
 
@@ -41,6 +46,16 @@ public class PassJsonAdapterBasic implements PassJsonAdapter {
     
     private final static String CONTEXT_PROPKEY = "pass.jsonld.context";
     private final static String DEFAULT_CONTEXT = "https://oa-pass.github.io/pass-data-model/src/main/resources/context-2.1.jsonld";
+
+    /**
+     * Jackson mappers, readers and writers are thread-safe once configured, so one set is shared by every 
+     * adapter rather than being created per conversion
+     */
+    private final static ObjectMapper MAPPER = new ObjectMapper();
+    
+    private final static ObjectWriter WRITER = MAPPER.writerWithDefaultPrettyPrinter();
+    
+    private final static Map<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<Class<?>, ObjectReader>();
     
     /**
      * {@inheritDoc}
@@ -49,6 +64,10 @@ public class PassJsonAdapterBasic implements PassJsonAdapter {
         if (passObj == null) {
             throw new IllegalArgumentException("passObject cannot be null");
         }
+        if (passObj.isFrozen()) {
+            // the context is set on the object, so convert a copy of a snapshot
+            passObj = PassEntity.mutableCopy(passObj);
+        }
         if (includePassContext) {
             //Assign pass context
             LOG.debug("Converting {} to JSON with context", passObj.getClass().getSimpleName());
@@ -62,15 +81,14 @@ public class PassJsonAdapterBasic implements PassJsonAdapter {
         byte [] jsonld = null;        
         
         //convert to json
-        ObjectMapper objectMapper = new ObjectMapper();
         try {
-            ObjectNode jsonObj = (ObjectNode) objectMapper.valueToTree(passObj);
+            ObjectNode jsonObj = (ObjectNode) MAPPER.valueToTree(passObj);
             
             // This is because new objects (without an ID) should have the null relative URI
             if (jsonObj.get("@id") == null) {
                 jsonObj.set("@id", new TextNode(""));
             }
-            jsonld = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(jsonObj);
+            jsonld = WRITER.writeValueAsBytes(jsonObj);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Could not model convert to JSON", e);
         }
@@ -91,12 +109,15 @@ public class PassJsonAdapterBasic implements PassJsonAdapter {
         }
         
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            ObjectNode parsed = (ObjectNode) objectMapper.readTree(json);
+            ObjectNode parsed = (ObjectNode) MAPPER.readTree(json);
             parsed.remove("@context");
             LOG.debug("JSON converting to model {}", valueType.getSimpleName());
             
-            return objectMapper.treeToValue(parsed, valueType);
+            ObjectReader reader = READERS.computeIfAbsent(valueType, MAPPER::readerFor);
+            T model = reader.readValue(parsed);
+            // properties set while deserializing are not modifications
+            model.clearDirtyFields();
+            return model;
             
         } catch (IOException e) {
             throw new RuntimeException("Could not map JSON to " + valueType.getSimpleName(), e);    
@@ -26,11 +26,14 @@ import org.junit.Test;
 import org.dataconservancy.pass.client.PassJsonAdapter;
 import org.dataconservancy.pass.model.Deposit;
 import org.dataconservancy.pass.model.Deposit.DepositStatus;
+import org.dataconservancy.pass.model.PassEntity;
 import org.dataconservancy.pass.model.PassEntityType;
 import org.dataconservancy.pass.model.TestValues;
 import org.json.JSONObject;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -71,6 +74,46 @@ public class JsonAdapterTests {
     }
 
 
+    /**
+     * Verify that an entity converted from JSON has no dirty fields, and that dirty field names match 
+     * the JSON property names
+     * @throws Exception
+     */
+    @Test
+    public void testJsonToModelIsNotDirty() throws Exception {
+        InputStream compactJsonLd = JsonAdapterTests.class.getResourceAsStream("/deposit.json");
+        
+        PassJsonAdapter adapter = new PassJsonAdapterBasic();
+        Deposit deposit = adapter.toModel(compactJsonLd, Deposit.class);
+        assertFalse(deposit.isDirty());
+        
+        deposit.setDepositStatusRef("changed");
+        deposit.setRepositoryCopy(null);
+        JSONObject json = new JSONObject(new String(adapter.toJson(deposit, false)));
+        for (String field : deposit.getDirtyFields()) {
+            assertTrue(json.has(field));
+        }
+    }
+
+
+    /**
+     * Verify that a snapshot can be converted to JSON without being modified
+     * @throws Exception
+     */
+    @Test
+    public void testSnapshotToJson() throws Exception {
+        InputStream compactJsonLd = JsonAdapterTests.class.getResourceAsStream("/deposit.json");
+        
+        PassJsonAdapter adapter = new PassJsonAdapterBasic();
+        Deposit snapshot = PassEntity.snapshot(adapter.toModel(compactJsonLd, Deposit.class));
+        JSONObject json = new JSONObject(new String(adapter.toJson(snapshot, true)));
+        
+        assertEquals(CONTEXT, json.getString("@context"));
+        assertEquals(TestValues.DEPOSIT_ID_1, json.getString("@id"));
+        assertNull(snapshot.getContext());
+    }
+
+
     /**
      * Verify that we can convert a model object to JSON with JSONLD context
      * @throws Exception
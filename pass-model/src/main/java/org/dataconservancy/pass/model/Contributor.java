@@ -138,6 +138,7 @@ public class Contributor extends PassEntity {
      * @param firstName the firstName to set
      */
     public void setFirstName(String firstName) {
+        markDirty("firstName");
         this.firstName = firstName;
     }
 
@@ -154,6 +155,7 @@ public class Contributor extends PassEntity {
      * @param middleName the middleName to set
      */
     public void setMiddleName(String middleName) {
+        markDirty("middleName");
         this.middleName = middleName;
     }
 
@@ -170,6 +172,7 @@ public class Contributor extends PassEntity {
      * @param lastName the lastName to set
      */
     public void setLastName(String lastName) {
+        markDirty("lastName");
         this.lastName = lastName;
     }
 
@@ -186,6 +189,7 @@ public class Contributor extends PassEntity {
      * @param displayName the displayName to set
      */
     public void setDisplayName(String displayName) {
+        markDirty("displayName");
         this.displayName = displayName;
     }
 
@@ -202,6 +206,7 @@ public class Contributor extends PassEntity {
      * @param email the email to set
      */
     public void setEmail(String email) {
+        markDirty("email");
         this.email = email;
     }
 
@@ -218,6 +223,7 @@ public class Contributor extends PassEntity {
      * @param affiliation the affiliation to set
      */
     public void setAffiliation(String affiliation) {
+        markDirty("affiliation");
         this.affiliation = affiliation;
     }
 
@@ -234,6 +240,7 @@ public class Contributor extends PassEntity {
      * @param orcidId the orcidId to set
      */
     public void setOrcidId(String orcidId) {
+        markDirty("orcidId");
         this.orcidId = orcidId;
     }
 
@@ -250,6 +257,7 @@ public class Contributor extends PassEntity {
      * @param role the roles list to set
      */
     public void setRoles(List<Role> roles) {
+        markDirty("roles");
         this.roles = roles;
     }
 
@@ -266,6 +274,7 @@ public class Contributor extends PassEntity {
      * @param publication the publication to set
      */
     public void setPublication(URI publication) {
+        markDirty("publication");
         this.publication = publication;
     }
 
@@ -282,6 +291,7 @@ public class Contributor extends PassEntity {
      * @param user the user to set
      */
     public void setUser(URI user) {
+        markDirty("user");
         this.user = user;
     }
     
@@ -113,6 +113,7 @@ public class Deposit extends PassEntity {
      * @param deposit status the deposit status to set
      */
     public void setDepositStatus(DepositStatus depositStatus) {
+        markDirty("depositStatus");
         this.depositStatus = depositStatus;
     }
 
@@ -129,6 +130,7 @@ public class Deposit extends PassEntity {
      * @param repository the URI of the repository to set
      */
     public void setRepository(URI repository) {
+        markDirty("repository");
         this.repository = repository;
     }
     
@@ -145,6 +147,7 @@ public class Deposit extends PassEntity {
      * @param depositStatusRef the depositStatusRef to set
      */
     public void setDepositStatusRef(String depositStatusRef) {
+        markDirty("depositStatusRef");
         this.depositStatusRef = depositStatusRef;
     }
 
@@ -161,6 +164,7 @@ public class Deposit extends PassEntity {
      * @param submission the submission to set
      */
     public void setSubmission(URI submission) {
+        markDirty("submission");
         this.submission = submission;
     }
 
@@ -177,6 +181,7 @@ public class Deposit extends PassEntity {
      * @param repositoryCopy the repositoryCopy to set
      */
     public void setRepositoryCopy(URI repositoryCopy) {
+        markDirty("repositoryCopy");
         this.repositoryCopy = repositoryCopy;
     }
     
@@ -106,6 +106,7 @@ public class File extends PassEntity {
      * @param name the name to set
      */
     public void setName(String name) {
+        markDirty("name");
         this.name = name;
     }
     
@@ -122,6 +123,7 @@ public class File extends PassEntity {
      * @param uri the uri to set
      */
     public void setUri(URI uri) {
+        markDirty("uri");
         this.uri = uri;
     }
 
@@ -138,6 +140,7 @@ public class File extends PassEntity {
      * @param description the description to set
      */
     public void setDescription(String description) {
+        markDirty("description");
         this.description = description;
     }
 
@@ -154,6 +157,7 @@ public class File extends PassEntity {
      * @param fileRole the fileRole to set
      */
     public void setFileRole(FileRole fileRole) {
+        markDirty("fileRole");
         this.fileRole = fileRole;
     }
 
@@ -170,6 +174,7 @@ public class File extends PassEntity {
      * @param mimeType the mimeType to set
      */
     public void setMimeType(String mimeType) {
+        markDirty("mimeType");
         this.mimeType = mimeType;
     }
 
@@ -186,6 +191,7 @@ public class File extends PassEntity {
      * @param submission the submission to set
      */
     public void setSubmission(URI submission) {
+        markDirty("submission");
         this.submission = submission;
     }
     
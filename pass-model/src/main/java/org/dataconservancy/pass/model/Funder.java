@@ -57,6 +57,7 @@ public class Funder extends PassEntity {
      * @param name the name to set
      */
     public void setName(String name) {
+        markDirty("name");
         this.name = name;
     }
 
@@ -73,6 +74,7 @@ public class Funder extends PassEntity {
      * @param url the url to set
      */
     public void setUrl(URI url) {
+        markDirty("url");
         this.url = url;
     }
 
@@ -89,6 +91,7 @@ public class Funder extends PassEntity {
      * @param policy the URI of the policy to set
      */
     public void setPolicy(URI policy) {
+        markDirty("policy");
         this.policy = policy;
     }
 
@@ -105,6 +108,7 @@ public class Funder extends PassEntity {
      * @param localId the localId to set
      */
     public void setLocalKey(String localKey) {
+        markDirty("localKey");
         this.localKey = localKey;
     }
 
@@ -141,6 +141,7 @@ public class Grant extends PassEntity {
      * @param awardNumber the awardNumber to set
      */
     public void setAwardNumber(String awardNumber) {
+        markDirty("awardNumber");
         this.awardNumber = awardNumber;
     }
 
@@ -157,6 +158,7 @@ public class Grant extends PassEntity {
      * @param awardStatus the awardStatus to set
      */
     public void setAwardStatus(AwardStatus awardStatus) {
+        markDirty("awardStatus");
         this.awardStatus = awardStatus;
     }
 
@@ -173,6 +175,7 @@ public class Grant extends PassEntity {
      * @param localKey the localKey to set
      */
     public void setLocalKey(String localKey) {
+        markDirty("localKey");
         this.localKey = localKey;
     }
 
@@ -189,6 +192,7 @@ public class Grant extends PassEntity {
      * @param projectName the projectName to set
      */
     public void setProjectName(String projectName) {
+        markDirty("projectName");
         this.projectName = projectName;
     }
 
@@ -205,6 +209,7 @@ public class Grant extends PassEntity {
      * @param primaryFunder the primaryFunder to set
      */
     public void setPrimaryFunder(URI primaryFunder) {
+        markDirty("primaryFunder");
         this.primaryFunder = primaryFunder;
     }
 
@@ -221,6 +226,7 @@ public class Grant extends PassEntity {
      * @param directFunder the directFunder to set
      */
     public void setDirectFunder(URI directFunder) {
+        markDirty("directFunder");
         this.directFunder = directFunder;
     }
 
@@ -237,6 +243,7 @@ public class Grant extends PassEntity {
      * @param pi the pi to set
      */
     public void setPi(URI pi) {
+        markDirty("pi");
         this.pi = pi;
     }
 
@@ -253,6 +260,7 @@ public class Grant extends PassEntity {
      * @param coPis the coPis to set
      */
     public void setCoPis(List<URI> coPis) {
+        markDirty("coPis");
         this.coPis = coPis;
     }
 
@@ -269,6 +277,7 @@ public class Grant extends PassEntity {
      * @param awardDate the awardDate to set
      */
     public void setAwardDate(DateTime awardDate) {
+        markDirty("awardDate");
         this.awardDate = awardDate;
     }
 
@@ -285,6 +294,7 @@ public class Grant extends PassEntity {
      * @param startDate the startDate to set
      */
     public void setStartDate(DateTime startDate) {
+        markDirty("startDate");
         this.startDate = startDate;
     }
 
@@ -301,6 +311,7 @@ public class Grant extends PassEntity {
      * @param endDate the endDate to set
      */
     public void setEndDate(DateTime endDate) {
+        markDirty("endDate");
         this.endDate = endDate;
     }
 
@@ -64,6 +64,7 @@ public class Journal extends PassEntity {
      * @param name the name to set
      */
     public void setName(String name) {
+        markDirty("name");
         this.name = name;
     }
 
@@ -80,6 +81,7 @@ public class Journal extends PassEntity {
      * @param issn the issn list to set
      */
     public void setIssns(List<String> issn) {
+        markDirty("issns");
         this.issns = issn;
     }
 
@@ -96,6 +98,7 @@ public class Journal extends PassEntity {
      * @param publisher the publisher to set
      */
     public void setPublisher(URI publisher) {
+        markDirty("publisher");
         this.publisher = publisher;
     }
 
@@ -112,6 +115,7 @@ public class Journal extends PassEntity {
      * @param nlmta the nlmta to set
      */
     public void setNlmta(String nlmta) {
+        markDirty("nlmta");
         this.nlmta = nlmta;
     }
     
@@ -127,6 +131,7 @@ public class Journal extends PassEntity {
      * @param pmcParticipation the pmcParticipation to set
      */
     public void setPmcParticipation(PmcParticipation pmcParticipation) {
+        markDirty("pmcParticipation");
         this.pmcParticipation = pmcParticipation;
     }
 
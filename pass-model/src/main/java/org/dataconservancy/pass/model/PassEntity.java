@@ -15,14 +15,36 @@
  */
 package org.dataconservancy.pass.model;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
 import java.net.URI;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 
+import org.dataconservancy.pass.model.support.CompactUriList;
+import org.dataconservancy.pass.model.support.EntityEncoder;
+import org.dataconservancy.pass.model.support.XxHash64;
+
 /**
  * Abstract method that all PASS model entities inherit from. All entities can include 
  * a unique ID, type, and context
@@ -32,6 +54,22 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 @JsonIgnoreProperties(ignoreUnknown = true)
 @JsonTypeInfo(use = JsonTypeInfo.Id.NAME)
 public abstract class PassEntity {
+
+    /**
+     * Copyable instance fields of each model class, including those inherited from PassEntity
+     */
+    private static final Map<Class<?>, List<Field>> COPY_FIELDS = new ConcurrentHashMap<Class<?>, List<Field>>();
+
+    /**
+     * Fields that are not part of the content of an entity, and so are left out of its fingerprint
+     */
+    private static final Set<String> NON_CONTENT_FIELDS = 
+            new HashSet<String>(Arrays.asList("id", "context", "versionTag", "indexSourced"));
+
+    /**
+     * Content fields of each model class, sorted by name
+     */
+    private static final Map<Class<?>, List<Field>> CONTENT_FIELDS = new ConcurrentHashMap<Class<?>, List<Field>>();
     
     /** 
      * Unique URI for the resource. This corresponds to the URI of this resource in the 
@@ -57,6 +95,34 @@ public abstract class PassEntity {
     @JsonProperty("@context")
     protected String context = null;
 
+    /**
+     * True when the entity was populated from a search index document rather than read from the repository.
+     * Index documents may lag behind the repository and carry no version tag, so an index-sourced entity 
+     * should be read from the repository before it is used for an update. Should not be part of the JSON output
+     */
+    @JsonIgnore
+    protected boolean indexSourced = false;
+
+    /**
+     * Names of the properties that have been set since the entity was read or the dirty fields were last 
+     * cleared. Names match the JSON property names. The id, context and version tag are not tracked. 
+     * Should not be part of the JSON output
+     */
+    @JsonIgnore
+    protected transient Set<String> dirtyFields = new HashSet<String>();
+
+    /**
+     * True when the entity is an immutable snapshot. Should not be part of the JSON output
+     */
+    @JsonIgnore
+    protected transient boolean frozen = false;
+
+    /**
+     * Cached fingerprint, or null if it has not been calculated since the entity was last modified
+     */
+    @JsonIgnore
+    private transient volatile Long fingerprint;
+
     /**
      * Retrieves the unique URI representing the resource.  
      * @return the id
@@ -73,6 +139,7 @@ public abstract class PassEntity {
      * @param id the id to set
      */
     public void setId(URI id) {
+        checkNotFrozen();
         this.id = id;
     }
 
@@ -88,6 +155,7 @@ public abstract class PassEntity {
      * @param context the context to set
      */
     public void setContext(String context) {
+        checkNotFrozen();
         this.context = context;
     }
     
@@ -105,10 +173,300 @@ public abstract class PassEntity {
      * @param versionTag the versionTag to set
      */
     public void setVersionTag(String versionTag) {
+        checkNotFrozen();
         this.versionTag = versionTag;
     }
 
 
+
+    /**
+     * @return true if the entity was populated from a search index document rather than read from the repository
+     */
+    @JsonIgnore
+    public boolean isIndexSourced() {
+        return indexSourced;
+    }
+
+
+    /**
+     * Flags the entity as having been populated from a search index document rather than read from the repository.
+     * The version tag is cleared, since the index does not hold one.
+     */
+    public void markIndexSourced() {
+        checkNotFrozen();
+        this.indexSourced = true;
+        this.versionTag = null;
+    }
+
+
+    /**
+     * @return true if any property has been set since the entity was read or the dirty fields were last cleared
+     */
+    @JsonIgnore
+    public boolean isDirty() {
+        return !dirtyFields.isEmpty();
+    }
+
+
+    /**
+     * Retrieves the names of the properties that have been set since the entity was read or the dirty fields 
+     * were last cleared. A property counts as dirty once its setter is called, even if the value is unchanged. 
+     * Changes made directly to a list returned by a getter are not tracked; set the list again, or call 
+     * markDirty, to include them in an update that also sets other fields.
+     * @return unmodifiable set of dirty property names
+     */
+    @JsonIgnore
+    public Set<String> getDirtyFields() {
+        return Collections.unmodifiableSet(dirtyFields);
+    }
+
+
+    /**
+     * Flags a property as modified. Called by each setter of the model classes.
+     * @param field the JSON property name
+     */
+    public void markDirty(String field) {
+        checkNotFrozen();
+        dirtyFields.add(field);
+        fingerprint = null;
+    }
+
+
+    /**
+     * Clears the dirty fields, for example once the entity has been read or its changes saved.
+     */
+    public void clearDirtyFields() {
+        checkNotFrozen();
+        dirtyFields.clear();
+    }
+
+
+    /**
+     * @return true if the entity is an immutable snapshot
+     */
+    @JsonIgnore
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+
+    /**
+     * Creates an immutable snapshot of an entity. Setters of the snapshot throw an IllegalStateException, and its 
+     * lists cannot be modified, so once published (for example through a concurrent map or a volatile field) a 
+     * snapshot can be shared between threads without copying or locking. The entity passed in is unchanged. 
+     * If it is already a snapshot it is returned as-is.
+     * @param entity the entity to take a snapshot of
+     * @return an immutable copy of the entity
+     */
+    public static <T extends PassEntity> T snapshot(T entity) {
+        if (entity.frozen) {
+            return entity;
+        }
+        return copy(entity, true);
+    }
+
+
+    /**
+     * Creates a mutable copy of an entity, for example to edit a snapshot. Lists are copied, so changes to the 
+     * copy are never visible through the entity passed in. The copy has the same dirty fields as the entity.
+     * @param entity the entity to copy
+     * @return a mutable copy of the entity
+     */
+    public static <T extends PassEntity> T mutableCopy(T entity) {
+        return copy(entity, false);
+    }
+
+
+    /**
+     * Combines two sets of changes to the same entity, for example to write them in one update. The result is 
+     * a mutable copy of the later entity, except that each field that is dirty in the earlier entity, but not 
+     * in the later one, takes its value from the earlier entity. The dirty fields of the result are those of 
+     * both. Neither entity passed in is changed.
+     * @param earlier the entity holding the older changes
+     * @param later the entity holding the newer changes, whose ID and version tag are kept
+     * @return a mutable entity holding both sets of changes
+     */
+    public static <T extends PassEntity> T merge(T earlier, T later) {
+        if (earlier.getClass() != later.getClass()) {
+            throw new IllegalArgumentException(String.format("Cannot merge a %s into a %s",
+                    earlier.getClass().getSimpleName(), later.getClass().getSimpleName()));
+        }
+        T merged = copy(later, false);
+        try {
+            for (Field field : copyFields(earlier.getClass())) {
+                String name = jsonName(field);
+                if (earlier.dirtyFields.contains(name) && !later.dirtyFields.contains(name)) {
+                    Object value = field.get(earlier);
+                    if (value instanceof CompactUriList) {
+                        CompactUriList compact = (CompactUriList) value;
+                        value = new CompactUriList(compact.getBase(), compact, true);
+                    } else if (value instanceof List) {
+                        value = new ArrayList<Object>((List<?>) value);
+                    }
+                    field.set(merged, value);
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Could not merge " + earlier.getClass().getSimpleName(), e);
+        }
+        merged.dirtyFields.addAll(earlier.dirtyFields);
+        return merged;
+    }
+
+
+    /**
+     * Converts each list of URIs held by the entity to a CompactUriList, which stores the references relative 
+     * to the base URL provided and expands them to URIs as they are read. This reduces the memory used by 
+     * entities that are held in large numbers, for example in a cache. The values of the lists are unchanged, 
+     * so no fields are marked as dirty. The base URL would normally be the repository base URL.
+     * @param baseUrl base URL that the references are relative to
+     */
+    @SuppressWarnings("unchecked")
+    public void compactReferences(String baseUrl) {
+        checkNotFrozen();
+        try {
+            for (Field field : copyFields(getClass())) {
+                Object value = field.get(this);
+                if (value instanceof List && !(value instanceof CompactUriList) && isUriList(field)) {
+                    CompactUriList compact = new CompactUriList(baseUrl, (List<URI>) value);
+                    compact.trimToSize();
+                    field.set(this, compact);
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Could not compact the references of " + getClass().getSimpleName(), e);
+        }
+    }
+
+
+    /**
+     * Calculates a stable 64-bit fingerprint of the content of the entity. Entities of the same type whose 
+     * fields hold the same values have the same fingerprint, wherever and whenever it is calculated, so 
+     * fingerprints can be stored and compared, for example to find out whether an entity already matches the 
+     * data from an external feed. The id, context and version tag are not part of the content, and the order 
+     * of list items is ignored, since the repository does not preserve it.
+     * <p>
+     * The fingerprint is the xxHash64 of a canonical binary encoding of the fields, sorted by name. It is cached 
+     * until a setter is called. Changes made directly to a list returned by a getter are not detected; call 
+     * markDirty after making them.
+     * </p>
+     * @return the content fingerprint
+     */
+    public long fingerprint() {
+        Long cached = fingerprint;
+        if (cached == null) {
+            cached = calculateFingerprint();
+            fingerprint = cached;
+        }
+        return cached;
+    }
+
+
+    private long calculateFingerprint() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            EntityEncoder.writeString(out, getClass().getSimpleName());
+            for (Field field : contentFields(getClass())) {
+                EntityEncoder.writeString(out, field.getName());
+                EntityEncoder.writeValue(out, field.get(this), true);
+            }
+        } catch (IOException | IllegalAccessException e) {
+            throw new RuntimeException("Could not calculate the fingerprint of " + getClass().getSimpleName(), e);
+        }
+        return XxHash64.hash(bytes.toByteArray());
+    }
+
+
+    /**
+     * Throws an IllegalStateException if the entity is an immutable snapshot
+     */
+    protected void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException(String.format("Cannot modify %s %s: it is an immutable snapshot. "
+                    + "Use PassEntity.mutableCopy() to get a copy that can be modified.", getClass().getSimpleName(), id));
+        }
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private static <T extends PassEntity> T copy(T entity, boolean freeze) {
+        try {
+            T copy = (T) entity.getClass().newInstance();
+            for (Field field : copyFields(entity.getClass())) {
+                Object value = field.get(entity);
+                if (value instanceof CompactUriList) {
+                    CompactUriList compact = (CompactUriList) value;
+                    value = new CompactUriList(compact.getBase(), compact, !freeze);
+                } else if (value instanceof List) {
+                    List<?> list = new ArrayList<Object>((List<?>) value);
+                    value = freeze ? Collections.unmodifiableList(list) : list;
+                }
+                field.set(copy, value);
+            }
+            copy.dirtyFields = new HashSet<String>(entity.dirtyFields);
+            if (freeze) {
+                copy.dirtyFields = Collections.unmodifiableSet(copy.dirtyFields);
+                copy.frozen = true;
+            }
+            return copy;
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new RuntimeException("Could not copy " + entity.getClass().getSimpleName(), e);
+        }
+    }
+
+
+    /**
+     * @return the JSON property name of a field, which is the name its setter marks as dirty
+     */
+    private static String jsonName(Field field) {
+        JsonProperty property = field.getAnnotation(JsonProperty.class);
+        return property != null && !property.value().isEmpty() ? property.value() : field.getName();
+    }
+
+
+    private static boolean isUriList(Field field) {
+        Type type = field.getGenericType();
+        return type instanceof ParameterizedType 
+                && ((ParameterizedType) type).getActualTypeArguments()[0] == URI.class;
+    }
+
+
+    private static List<Field> contentFields(Class<?> modelClass) {
+        List<Field> fields = CONTENT_FIELDS.get(modelClass);
+        if (fields == null) {
+            fields = new ArrayList<Field>();
+            for (Field field : copyFields(modelClass)) {
+                if (!NON_CONTENT_FIELDS.contains(field.getName())) {
+                    fields.add(field);
+                }
+            }
+            fields.sort((a, b) -> a.getName().compareTo(b.getName()));
+            CONTENT_FIELDS.put(modelClass, fields);
+        }
+        return fields;
+    }
+
+
+    private static List<Field> copyFields(Class<?> modelClass) {
+        List<Field> fields = COPY_FIELDS.get(modelClass);
+        if (fields == null) {
+            fields = new ArrayList<Field>();
+            for (Class<?> c = modelClass; c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            COPY_FIELDS.put(modelClass, fields);
+        }
+        return fields;
+    }
+
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -15,32 +15,45 @@
  */
 package org.dataconservancy.pass.model;
 
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Defines names of entity types and their plurals
  * @author Karen Hanson
  */
 public enum PassEntityType {
-    CONTRIBUTOR ("Contributor", "contributors"),
-    DEPOSIT ("Deposit", "deposits"),
-    FILE ("File", "files"),
-    FUNDER ("Funder", "funders"),
-    GRANT ("Grant", "grants"),
-    JOURNAL ("Journal", "journals"),
-    POLICY ("Policy", "policies"),
-    PUBLICATION ("Publication", "publications"),
-    PUBLISHER ("Publisher", "publishers"),
-    REPOSITORY ("Repository", "repositories"),
-    REPOSITORY_COPY ("RepositoryCopy", "repositoryCopies"),
-    SUBMISSION ("Submission", "submissions"),
-    USER ("User", "users");
+    CONTRIBUTOR ("Contributor", "contributors", Contributor.class),
+    DEPOSIT ("Deposit", "deposits", Deposit.class),
+    FILE ("File", "files", File.class),
+    FUNDER ("Funder", "funders", Funder.class),
+    GRANT ("Grant", "grants", Grant.class),
+    JOURNAL ("Journal", "journals", Journal.class),
+    POLICY ("Policy", "policies", Policy.class),
+    PUBLICATION ("Publication", "publications", Publication.class),
+    PUBLISHER ("Publisher", "publishers", Publisher.class),
+    REPOSITORY ("Repository", "repositories", Repository.class),
+    REPOSITORY_COPY ("RepositoryCopy", "repositoryCopies", RepositoryCopy.class),
+    SUBMISSION ("Submission", "submissions", Submission.class),
+    USER ("User", "users", User.class);
+    
+    private static final Map<String, PassEntityType> BY_NAME = new HashMap<>(values().length, 1);
+    private static final Map<Class<?>, PassEntityType> BY_CLASS = new HashMap<>(values().length, 1);
+    static {
+        for (PassEntityType type : values()) {
+            BY_NAME.put(type.name, type);
+            BY_CLASS.put(type.modelClass, type);
+        }
+    }
     
     private String name;
     private String plural;
+    private Class<? extends PassEntity> modelClass;
 
-    PassEntityType(String name, String plural) {
+    PassEntityType(String name, String plural, Class<? extends PassEntity> modelClass) {
         this.name = name;
         this.plural = plural;
+        this.modelClass = modelClass;
     }
     
     public String getName() {
@@ -51,20 +64,39 @@ public enum PassEntityType {
         return this.plural;
     }
     
+    /**
+     * @return the model class of the entity type
+     */
+    public Class<? extends PassEntity> getModelClass() {
+        return this.modelClass;
+    }
+    
     /**
      * Match enum using name
      * @param name
      * @return matching PassEntityType or null if no matches
      */
     public static PassEntityType getTypeByName(String name) {
-        if (name!=null && name.length()>0) {
-            for(PassEntityType type : PassEntityType.values()){
-                if(name.equals(type.getName())) return type;
-            }
+        PassEntityType type = name != null ? BY_NAME.get(name) : null;
+        if (type == null) {
+            //no match found or name empty, throw argument exception
+            throw new IllegalArgumentException(String.format("Entity type \"%s\" is not recognized", name));
         }
-        //no match found or name empty, throw argument exception
-        throw new IllegalArgumentException(String.format("Entity type \"%s\" is not recognized", name));
+        return type;
     }
     
+    /**
+     * Match enum using model class
+     * @param modelClass
+     * @return matching PassEntityType
+     */
+    public static PassEntityType getTypeByClass(Class<?> modelClass) {
+        PassEntityType type = modelClass != null ? BY_CLASS.get(modelClass) : null;
+        if (type == null) {
+            throw new IllegalArgumentException(String.format("Entity type \"%s\" is not recognized", 
+                    modelClass != null ? modelClass.getSimpleName() : null));
+        }
+        return type;
+    }
     
 }
@@ -65,6 +65,7 @@ public class Policy extends PassEntity {
      * @param title the title to set
      */
     public void setTitle(String title) {
+        markDirty("title");
         this.title = title;
     }
 
@@ -81,6 +82,7 @@ public class Policy extends PassEntity {
      * @param description the description to set
      */
     public void setDescription(String description) {
+        markDirty("description");
         this.description = description;
     }
 
@@ -97,6 +99,7 @@ public class Policy extends PassEntity {
      * @param policyUrl the policyUrl to set
      */
     public void setPolicyUrl(URI policyUrl) {
+        markDirty("policyUrl");
         this.policyUrl = policyUrl;
     }
 
@@ -113,6 +116,7 @@ public class Policy extends PassEntity {
      * @param institution the institution to set
      */
     public void setInstitution(URI institution) {
+        markDirty("institution");
         this.institution = institution;
     }
 
@@ -129,6 +133,7 @@ public class Policy extends PassEntity {
      * @param repositories list of URIs of repositories to set
      */
     public void setRepositories(List<URI> repositories) {
+        markDirty("repositories");
         this.repositories = repositories;
     }
 
@@ -74,6 +74,7 @@ public class Publication extends PassEntity {
      * @param title the title to set
      */
     public void setTitle(String title) {
+        markDirty("title");
         this.title = title;
     }
 
@@ -90,6 +91,7 @@ public class Publication extends PassEntity {
      * @param publicationAbstract the publicationAbstract to set
      */
     public void setPublicationAbstract(String publicationAbstract) {
+        markDirty("abstract");
         this.publicationAbstract = publicationAbstract;
     }
 
@@ -106,6 +108,7 @@ public class Publication extends PassEntity {
      * @param doi the doi to set
      */
     public void setDoi(String doi) {
+        markDirty("doi");
         this.doi = doi;
     }
 
@@ -122,6 +125,7 @@ public class Publication extends PassEntity {
      * @param pmid the pmid to set
      */
     public void setPmid(String pmid) {
+        markDirty("pmid");
         this.pmid = pmid;
     }
 
@@ -138,6 +142,7 @@ public class Publication extends PassEntity {
      * @param journal the URI journal to set
      */
     public void setJournal(URI journal) {
+        markDirty("journal");
         this.journal = journal;
     }
 
@@ -154,6 +159,7 @@ public class Publication extends PassEntity {
      * @param volume the volume to set
      */
     public void setVolume(String volume) {
+        markDirty("volume");
         this.volume = volume;
     }
 
@@ -170,6 +176,7 @@ public class Publication extends PassEntity {
      * @param issue the issue to set
      */
     public void setIssue(String issue) {
+        markDirty("issue");
         this.issue = issue;
     }
 
@@ -45,6 +45,7 @@ public class Publisher extends PassEntity {
      * @param name the name to set
      */
     public void setName(String name) {
+        markDirty("name");
         this.name = name;
     }
 
@@ -61,6 +62,7 @@ public class Publisher extends PassEntity {
      * @param pmcParticipation the pmcParticipation to set
      */
     public void setPmcParticipation(PmcParticipation pmcParticipation) {
+        markDirty("pmcParticipation");
         this.pmcParticipation = pmcParticipation;
     }
 
@@ -112,6 +112,7 @@ public class Repository extends PassEntity {
      * @param name the name to set
      */
     public void setName(String name) {
+        markDirty("name");
         this.name = name;
     }
 
@@ -128,6 +129,7 @@ public class Repository extends PassEntity {
      * @param description the description to set
      */
     public void setDescription(String description) {
+        markDirty("description");
         this.description = description;
     }
 
@@ -144,6 +146,7 @@ public class Repository extends PassEntity {
      * @param url the url to set
      */
     public void setUrl(URI url) {
+        markDirty("url");
         this.url = url;
     }
 
@@ -160,6 +163,7 @@ public class Repository extends PassEntity {
      * @param url the url to set
      */
     public void setFormSchema(String formSchema) {
+        markDirty("formSchema");
         this.formSchema = formSchema;
     }
 
@@ -176,6 +180,7 @@ public class Repository extends PassEntity {
      * @param integrationType the integrationType to set
      */
     public void setIntegrationType(IntegrationType integrationType) {
+        markDirty("integrationType");
         this.integrationType = integrationType;
     }
 
@@ -119,6 +119,7 @@ public class RepositoryCopy extends PassEntity {
      * @param externalIds the externalIds to set
      */
     public void setExternalIds(List<String> externalIds) {
+        markDirty("externalIds");
         this.externalIds = externalIds;
     }
 
@@ -143,6 +144,7 @@ public class RepositoryCopy extends PassEntity {
      * @param accessUrl the accessUrl to set
      */
     public void setAccessUrl(URI accessUrl) {
+        markDirty("accessUrl");
         this.accessUrl = accessUrl;
     }
 
@@ -151,6 +153,7 @@ public class RepositoryCopy extends PassEntity {
      * @param copy status the repository's status to set
      */
     public void setCopyStatus(CopyStatus copyStatus) {
+        markDirty("copyStatus");
         this.copyStatus = copyStatus;
     }
 
@@ -167,6 +170,7 @@ public class RepositoryCopy extends PassEntity {
      * @param publication the publication to set
      */
     public void setPublication(URI publication) {
+        markDirty("publication");
         this.publication = publication;
     }
     
@@ -183,6 +187,7 @@ public class RepositoryCopy extends PassEntity {
      * @param repository the URI of the repository to set
      */
     public void setRepository(URI repository) {
+        markDirty("repository");
         this.repository = repository;
     }
 
@@ -167,6 +167,7 @@ public class Submission extends PassEntity {
      * @param metadata the metadata to set
      */
     public void setMetadata(String metadata) {
+        markDirty("metadata");
         this.metadata = metadata;
     }
 
@@ -183,6 +184,7 @@ public class Submission extends PassEntity {
      * @param source the source to set
      */
     public void setSource(Source source) {
+        markDirty("source");
         this.source = source;
     }
 
@@ -199,6 +201,7 @@ public class Submission extends PassEntity {
      * @param submitted the submitted to set
      */
     public void setSubmitted(Boolean submitted) {
+        markDirty("submitted");
         this.submitted = submitted;
     }
 
@@ -215,6 +218,7 @@ public class Submission extends PassEntity {
      * @param submittedDate the submittedDate to set
      */
     public void setSubmittedDate(DateTime submittedDate) {
+        markDirty("submittedDate");
         this.submittedDate = submittedDate;
     }
 
@@ -231,6 +235,7 @@ public class Submission extends PassEntity {
      * @param aggregatedDepositStatus the aggregatedDepositStatus to set
      */
     public void setAggregatedDepositStatus(AggregatedDepositStatus aggregatedDepositStatus) {
+        markDirty("aggregatedDepositStatus");
         this.aggregatedDepositStatus = aggregatedDepositStatus;
     }
 
@@ -247,6 +252,7 @@ public class Submission extends PassEntity {
      * @param publication the publication to set
      */
     public void setPublication(URI publication) {
+        markDirty("publication");
         this.publication = publication;
     }
 
@@ -263,6 +269,7 @@ public class Submission extends PassEntity {
      * @param repositories the repositories to set
      */
     public void setRepositories(List<URI> repositories) {
+        markDirty("repositories");
         this.repositories = repositories;
     }
     
@@ -279,6 +286,7 @@ public class Submission extends PassEntity {
      * @param user the user to set
      */
     public void setUser(URI user) {
+        markDirty("user");
         this.user = user;
     }
 
@@ -295,6 +303,7 @@ public class Submission extends PassEntity {
      * @param grants the grants to set
      */
     public void setGrants(List<URI> grants) {
+        markDirty("grants");
         this.grants = grants;
     }
 
@@ -133,6 +133,7 @@ public class User extends PassEntity {
      * @param username the username to set
      */
     public void setUsername(String username) {
+        markDirty("username");
         this.username = username;
     }
     
@@ -148,6 +149,7 @@ public class User extends PassEntity {
      * @param firstName the firstName to set
      */
     public void setFirstName(String firstName) {
+        markDirty("firstName");
         this.firstName = firstName;
     }
 
@@ -164,6 +166,7 @@ public class User extends PassEntity {
      * @param middleName the middleName to set
      */
     public void setMiddleName(String middleName) {
+        markDirty("middleName");
         this.middleName = middleName;
     }
 
@@ -180,6 +183,7 @@ public class User extends PassEntity {
      * @param lastName the lastName to set
      */
     public void setLastName(String lastName) {
+        markDirty("lastName");
         this.lastName = lastName;
     }
 
@@ -196,6 +200,7 @@ public class User extends PassEntity {
      * @param displayName the displayName to set
      */
     public void setDisplayName(String displayName) {
+        markDirty("displayName");
         this.displayName = displayName;
     }
 
@@ -212,6 +217,7 @@ public class User extends PassEntity {
      * @param email the email to set
      */
     public void setEmail(String email) {
+        markDirty("email");
         this.email = email;
     }
 
@@ -228,6 +234,7 @@ public class User extends PassEntity {
      * @param affiliation the affiliation to set
      */
     public void setAffiliation(String affiliation) {
+        markDirty("affiliation");
         this.affiliation = affiliation;
     }
 
@@ -244,6 +251,7 @@ public class User extends PassEntity {
      * @param institutionalId the institutionalId to set
      */
     public void setInstitutionalId(String institutionalId) {
+        markDirty("institutionalId");
         this.institutionalId = institutionalId;
     }
 
@@ -260,6 +268,7 @@ public class User extends PassEntity {
      * @param localKey the localKey to set
      */
     public void setLocalKey(String localKey) {
+        markDirty("localKey");
         this.localKey = localKey;
     }
 
@@ -276,6 +285,7 @@ public class User extends PassEntity {
      * @param orcidId the orcidId to set
      */
     public void setOrcidId(String orcidId) {
+        markDirty("orcidId");
         this.orcidId = orcidId;
     }
 
@@ -292,6 +302,7 @@ public class User extends PassEntity {
      * @param role the roles list to set
      */
     public void setRoles(List<Role> roles) {
+        markDirty("roles");
         this.roles = roles;
     }
 
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.model.support;
+
+import java.net.URI;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.RandomAccess;
+
+/**
+ * A list of URIs that stores references relative to a shared base URL, for example the Fedora base URL.
+ * A reference such as {@code http://localhost:8080/fcrepo/rest/grants/ab/cd/ef/gh/abcdefgh} is held as the
+ * short string {@code grants/ab/cd/ef/gh/abcdefgh}, i.e. the type container plus id, and is only expanded to
+ * a URI when it is read. The base is interned so that every list created with the same base shares one copy.
+ * URIs that do not start with the base are stored unchanged.
+ * <p>
+ * The list behaves like any other mutable List of URIs, and is equal to a List holding the same URIs. Each
+ * call to get() creates a new URI, so callers that read the same element repeatedly should hold on to it.
+ * </p>
+ * @author agent
+ */
+public class CompactUriList extends AbstractList<URI> implements RandomAccess {
+
+    /**
+     * Base URL shared by the references in the list
+     */
+    private final String base;
+
+    /**
+     * Each entry is either a String holding the part of the URI after the base, or a URI that does not
+     * start with the base
+     */
+    private final ArrayList<Object> entries;
+
+    /**
+     * False if the list is read-only
+     */
+    private final boolean modifiable;
+
+    /**
+     * Creates an empty list
+     * @param base the base URL that references will be stored relative to
+     */
+    public CompactUriList(String base) {
+        this(base, Collections.<URI>emptyList());
+    }
+
+    /**
+     * Creates a list holding the URIs provided, in the same order
+     * @param base the base URL that references will be stored relative to
+     * @param uris
+     */
+    public CompactUriList(String base, Collection<? extends URI> uris) {
+        this(base, uris, true);
+    }
+
+    /**
+     * Creates a list holding the URIs provided, in the same order, that is optionally read-only. Methods that 
+     * would modify a read-only list throw an UnsupportedOperationException.
+     * @param base the base URL that references will be stored relative to
+     * @param uris
+     * @param modifiable false to create a read-only list
+     */
+    public CompactUriList(String base, Collection<? extends URI> uris, boolean modifiable) {
+        if (base == null || base.length() == 0) {
+            throw new IllegalArgumentException("base cannot be empty");
+        }
+        if (uris == null) {
+            throw new IllegalArgumentException("uris cannot be null");
+        }
+        this.base = base.intern();
+        this.entries = new ArrayList<Object>(uris.size());
+        if (uris instanceof CompactUriList && ((CompactUriList) uris).base == this.base) {
+            entries.addAll(((CompactUriList) uris).entries);
+        } else {
+            for (URI uri : uris) {
+                entries.add(compact(uri));
+            }
+        }
+        this.modifiable = modifiable;
+    }
+
+    /**
+     * @return the base URL that references are stored relative to
+     */
+    public String getBase() {
+        return base;
+    }
+
+    /**
+     * @return false if the list is read-only
+     */
+    public boolean isModifiable() {
+        return modifiable;
+    }
+
+    @Override
+    public URI get(int index) {
+        return expand(entries.get(index));
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public URI set(int index, URI uri) {
+        checkModifiable();
+        return expand(entries.set(index, compact(uri)));
+    }
+
+    @Override
+    public void add(int index, URI uri) {
+        checkModifiable();
+        entries.add(index, compact(uri));
+        modCount++;
+    }
+
+    @Override
+    public URI remove(int index) {
+        checkModifiable();
+        URI removed = expand(entries.remove(index));
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Releases unused capacity, for lists that will not grow any further
+     */
+    public void trimToSize() {
+        entries.trimToSize();
+    }
+
+    private void checkModifiable() {
+        if (!modifiable) {
+            throw new UnsupportedOperationException("The list is read-only");
+        }
+    }
+
+    private Object compact(URI uri) {
+        if (uri == null) {
+            return null;
+        }
+        String value = uri.toString();
+        if (value.length() > base.length() && value.startsWith(base)) {
+            return value.substring(base.length());
+        }
+        return uri;
+    }
+
+    private URI expand(Object entry) {
+        if (entry instanceof String) {
+            return URI.create(base + entry);
+        }
+        return (URI) entry;
+    }
+
+}
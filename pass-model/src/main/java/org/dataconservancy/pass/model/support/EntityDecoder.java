@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.model.support;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+import java.net.URI;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import static org.dataconservancy.pass.model.support.EntityEncoder.TYPE_BOOLEAN;
+import static org.dataconservancy.pass.model.support.EntityEncoder.TYPE_DATETIME;
+import static org.dataconservancy.pass.model.support.EntityEncoder.TYPE_ENUM;
+import static org.dataconservancy.pass.model.support.EntityEncoder.TYPE_LIST;
+import static org.dataconservancy.pass.model.support.EntityEncoder.TYPE_NULL;
+import static org.dataconservancy.pass.model.support.EntityEncoder.TYPE_STRING;
+import static org.dataconservancy.pass.model.support.EntityEncoder.TYPE_URI;
+
+/**
+ * Reads values written by EntityEncoder from a ByteBuffer, starting at the buffer's position and leaving the 
+ * position after the value. Reading from a buffer rather than a stream allows values to be read directly 
+ * from a memory-mapped file. Dates are read in UTC, as they are when read from JSON.
+ * @author agent
+ */
+public final class EntityDecoder {
+
+    private EntityDecoder() {
+    }
+
+    /**
+     * Reads a single value, converting it to the type provided where the encoded form does not say enough: 
+     * enum constants are converted to the enum class, and list items to the list's item type.
+     * @param in
+     * @param type the declared type of the field the value is for, or null to read enums as their names
+     * @return the value
+     */
+    public static Object readValue(ByteBuffer in, Type type) {
+        byte tag = in.get();
+        switch (tag) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_STRING:
+                return readString(in);
+            case TYPE_URI:
+                return URI.create(readString(in));
+            case TYPE_BOOLEAN:
+                return in.get() != 0;
+            case TYPE_DATETIME:
+                return new DateTime(in.getLong(), DateTimeZone.UTC);
+            case TYPE_ENUM:
+                return toEnum(readString(in), type);
+            case TYPE_LIST:
+                int size = in.getInt();
+                Type itemType = type instanceof ParameterizedType 
+                        ? ((ParameterizedType) type).getActualTypeArguments()[0] : null;
+                List<Object> list = new ArrayList<Object>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in, itemType));
+                }
+                return list;
+            default:
+                throw new IllegalArgumentException("Unrecognized value tag " + tag + " at position " + (in.position() - 1));
+        }
+    }
+
+    /**
+     * Reads a string written by EntityEncoder.writeString
+     * @param in
+     * @return the string
+     */
+    public static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (in.hasArray()) {
+            String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            return value;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Moves the buffer past a value without converting it
+     * @param in
+     */
+    public static void skipValue(ByteBuffer in) {
+        byte tag = in.get();
+        switch (tag) {
+            case TYPE_NULL:
+                break;
+            case TYPE_STRING:
+            case TYPE_URI:
+            case TYPE_ENUM:
+                int length = in.getInt();
+                in.position(in.position() + length);
+                break;
+            case TYPE_BOOLEAN:
+                in.get();
+                break;
+            case TYPE_DATETIME:
+                in.getLong();
+                break;
+            case TYPE_LIST:
+                int size = in.getInt();
+                for (int i = 0; i < size; i++) {
+                    skipValue(in);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unrecognized value tag " + tag + " at position " + (in.position() - 1));
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Object toEnum(String name, Type type) {
+        if (type instanceof Class && ((Class<?>) type).isEnum()) {
+            return Enum.valueOf((Class<? extends Enum>) type, name);
+        }
+        return name;
+    }
+
+}
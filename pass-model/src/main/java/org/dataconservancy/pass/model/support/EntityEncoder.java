@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.model.support;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.net.URI;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.joda.time.DateTime;
+
+/**
+ * Writes the values held by PASS model fields in a canonical binary form. Each value is written as a one byte
+ * tag followed by its content, so that the same value always produces the same bytes, and values of different
+ * types never do. Dates are written as an instant, so the same moment in different time zones is encoded the
+ * same way. Enums are written by constant name.
+ * @author agent
+ */
+public final class EntityEncoder {
+
+    /*
+     * Tags identifying the type of each value
+     */
+    public static final byte TYPE_NULL = 0;
+    public static final byte TYPE_STRING = 1;
+    public static final byte TYPE_URI = 2;
+    public static final byte TYPE_BOOLEAN = 3;
+    public static final byte TYPE_DATETIME = 4;
+    public static final byte TYPE_ENUM = 5;
+    public static final byte TYPE_LIST = 6;
+
+    private EntityEncoder() {
+    }
+
+    /**
+     * Writes a single field value
+     * @param out
+     * @param value a String, URI, Boolean, DateTime, enum constant, List of these, or null
+     * @throws IOException
+     */
+    public static void writeValue(DataOutput out, Object value) throws IOException {
+        writeValue(out, value, false);
+    }
+
+    /**
+     * Writes a single field value, optionally ignoring the order of list items. When the order is ignored, list 
+     * items are written sorted by their encoded bytes, so lists holding the same items in any order produce 
+     * the same bytes. The repository does not preserve the order of multi-valued properties, so this is the 
+     * form to use when comparing content.
+     * @param out
+     * @param value a String, URI, Boolean, DateTime, enum constant, List of these, or null
+     * @param ignoreListOrder true to write list items in a canonical order
+     * @throws IOException
+     */
+    public static void writeValue(DataOutput out, Object value, boolean ignoreListOrder) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(TYPE_STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof URI) {
+            out.writeByte(TYPE_URI);
+            writeString(out, value.toString());
+        } else if (value instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof DateTime) {
+            out.writeByte(TYPE_DATETIME);
+            out.writeLong(((DateTime) value).getMillis());
+        } else if (value instanceof Enum) {
+            out.writeByte(TYPE_ENUM);
+            writeString(out, ((Enum<?>) value).name());
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeByte(TYPE_LIST);
+            out.writeInt(list.size());
+            if (ignoreListOrder) {
+                List<byte[]> items = new ArrayList<byte[]>(list.size());
+                for (Object item : list) {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    writeValue(new DataOutputStream(bytes), item, true);
+                    items.add(bytes.toByteArray());
+                }
+                Collections.sort(items, EntityEncoder::compareBytes);
+                for (byte[] item : items) {
+                    out.write(item);
+                }
+            } else {
+                for (Object item : list) {
+                    writeValue(out, item, false);
+                }
+            }
+        } else {
+            throw new IllegalArgumentException("Values of type " + value.getClass().getName() + " cannot be encoded");
+        }
+    }
+
+    /**
+     * Writes a string as its length in bytes followed by its UTF-8 bytes. Unlike DataOutput.writeUTF, there
+     * is no limit on the length of the string.
+     * @param out
+     * @param value
+     * @throws IOException
+     */
+    public static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static int compareBytes(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return a.length - b.length;
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.model.support;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the persistent fields of each model class, that is the fields that are neither static nor transient, 
+ * including those inherited from PassEntity, sorted by name.
+ * @author agent
+ */
+final class EntityFields {
+
+    private static final Map<Class<?>, List<Field>> FIELDS = new ConcurrentHashMap<Class<?>, List<Field>>();
+
+    private EntityFields() {
+    }
+
+    static List<Field> of(Class<?> modelClass) {
+        List<Field> fields = FIELDS.get(modelClass);
+        if (fields == null) {
+            fields = new ArrayList<Field>();
+            for (Class<?> c = modelClass; c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            fields.sort((a, b) -> a.getName().compareTo(b.getName()));
+            fields = Collections.unmodifiableList(fields);
+            FIELDS.put(modelClass, fields);
+        }
+        return fields;
+    }
+
+}
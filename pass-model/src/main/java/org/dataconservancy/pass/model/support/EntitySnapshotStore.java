@@ -0,0 +1,220 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.model.support;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import java.lang.reflect.Field;
+
+import java.net.URI;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.dataconservancy.pass.model.PassEntity;
+import org.dataconservancy.pass.model.PassEntityType;
+
+import static org.dataconservancy.pass.model.support.EntitySnapshotWriter.HEADER_SIZE;
+import static org.dataconservancy.pass.model.support.EntitySnapshotWriter.INDEX_ENTRY_SIZE;
+import static org.dataconservancy.pass.model.support.EntitySnapshotWriter.MAGIC;
+import static org.dataconservancy.pass.model.support.EntitySnapshotWriter.TRAILER_SIZE;
+import static org.dataconservancy.pass.model.support.EntitySnapshotWriter.VERSION;
+
+/**
+ * Read-only access to a snapshot of entities written by EntitySnapshotWriter. The snapshot file is memory-mapped 
+ * rather than read onto the heap: lookups search the index in the mapped file, and an entity is only decoded 
+ * when it is requested. The file's pages are held in the operating system's page cache, so several JVMs on the 
+ * same host can open the same snapshot without each holding a copy of it.
+ * <p>
+ * Each call to get decodes a new entity, which is not dirty and can be modified without affecting the 
+ * snapshot. A store can be used by several threads at once. Java 8 cannot unmap a file explicitly, so the 
+ * mapping is released when the store is garbage collected, after it is closed.
+ * </p>
+ * @author agent
+ */
+public class EntitySnapshotStore implements Closeable {
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final int count;
+
+    private final int indexOffset;
+
+    /**
+     * Opens a snapshot
+     * @param file
+     * @throws IOException if the file cannot be read, or is not a snapshot
+     */
+    public EntitySnapshotStore(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException(file + " is not an entity snapshot");
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int trailer = (int) size - TRAILER_SIZE;
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(trailer + 8) != MAGIC) {
+                throw new IOException(file + " is not an entity snapshot, or was not completely written");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException(String.format("%s has version %s, only version %s is supported", 
+                        file, buffer.getInt(4), VERSION));
+            }
+            this.count = buffer.getInt(trailer);
+            this.indexOffset = buffer.getInt(trailer + 4);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of entities in the snapshot
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @param uri
+     * @return true if the snapshot holds the entity
+     */
+    public boolean contains(URI uri) {
+        return find(uri) >= 0;
+    }
+
+    /**
+     * Decodes an entity from the snapshot
+     * @param uri
+     * @return the entity, or null if the snapshot does not hold it
+     */
+    public PassEntity get(URI uri) {
+        int offset = find(uri);
+        return offset >= 0 ? decode(offset) : null;
+    }
+
+    /**
+     * Decodes an entity from the snapshot
+     * @param uri
+     * @param modelClass
+     * @return the entity, or null if the snapshot does not hold it
+     * @throws ClassCastException if the entity is not of the type provided
+     */
+    public <T extends PassEntity> T get(URI uri, Class<T> modelClass) {
+        return modelClass.cast(get(uri));
+    }
+
+    /**
+     * Decodes each entity in the snapshot in turn, in the order they were written
+     * @param consumer
+     */
+    public void forEach(Consumer<PassEntity> consumer) {
+        int offset = HEADER_SIZE;
+        while (offset < indexOffset) {
+            consumer.accept(decode(offset));
+            offset += 4 + buffer.getInt(offset);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Searches the index for the record of an entity
+     * @param uri
+     * @return the offset of the record, or -1 if there is none
+     */
+    private int find(URI uri) {
+        if (uri == null) {
+            return -1;
+        }
+        String id = uri.toString();
+        long hash = EntitySnapshotWriter.hashUri(id);
+
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midHash = hashAt(mid);
+            if (midHash < hash) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        // low is the first entry with a hash that is not less than the one searched for
+        ByteBuffer in = buffer.duplicate();
+        for (int i = low; i < count && hashAt(i) == hash; i++) {
+            int offset = buffer.getInt(indexOffset + i * INDEX_ENTRY_SIZE + 8);
+            in.position(offset + 4);
+            if (id.equals(EntityDecoder.readString(in))) {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    private long hashAt(int entry) {
+        return buffer.getLong(indexOffset + entry * INDEX_ENTRY_SIZE);
+    }
+
+    private PassEntity decode(int offset) {
+        ByteBuffer in = buffer.duplicate();
+        in.position(offset + 4);
+        String id = EntityDecoder.readString(in);
+        Class<? extends PassEntity> modelClass = PassEntityType.getTypeByName(EntityDecoder.readString(in)).getModelClass();
+        List<Field> fields = EntityFields.of(modelClass);
+
+        try {
+            PassEntity entity = modelClass.newInstance();
+            int fieldCount = in.getInt();
+            int next = 0;
+            for (int i = 0; i < fieldCount; i++) {
+                String name = EntityDecoder.readString(in);
+                // fields are written sorted by name, so a field the class no longer has is skipped
+                while (next < fields.size() && fields.get(next).getName().compareTo(name) < 0) {
+                    next++;
+                }
+                if (next < fields.size() && fields.get(next).getName().equals(name)) {
+                    Field field = fields.get(next++);
+                    Object value = EntityDecoder.readValue(in, field.getGenericType());
+                    if (value != null || !field.getType().isPrimitive()) {
+                        field.set(entity, value);
+                    }
+                } else {
+                    EntityDecoder.skipValue(in);
+                }
+            }
+            return entity;
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new RuntimeException("Could not decode " + id + " from the snapshot", e);
+        }
+    }
+
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.model.support;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.lang.reflect.Field;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.dataconservancy.pass.model.PassEntity;
+import org.dataconservancy.pass.model.PassEntityType;
+
+/**
+ * Writes entities to a snapshot file that can be opened with EntitySnapshotStore. The file is written under 
+ * a temporary name and moved into place when the writer is committed, so a store never sees a partly written 
+ * snapshot, and a new snapshot can replace an old one while it is in use. Closing a writer that has not been 
+ * committed, for example because writing failed part way, deletes the temporary file and leaves any existing 
+ * snapshot as it was.
+ * <p>
+ * The file holds a header, then one record per entity, then an index of the records sorted by the xxHash64 
+ * of the entity URI, then a trailer giving the number of index entries and where the index starts:
+ * </p>
+ * <pre>
+ * header:  int magic, int version
+ * record:  int length, string id, string type, int field count, (string name, value) per field
+ * index:   (long URI hash, int record offset) per entity
+ * trailer: int entry count, int index offset, int magic
+ * </pre>
+ * Values are written with EntityEncoder. Offsets are held as ints, so a snapshot can be at most 2GB.
+ * @author agent
+ */
+public class EntitySnapshotWriter implements Closeable {
+
+    static final int MAGIC = 0x50415353;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 8;
+
+    static final int INDEX_ENTRY_SIZE = 12;
+
+    static final int TRAILER_SIZE = 12;
+
+    private final Path file;
+
+    private final Path tempFile;
+
+    private final DataOutputStream out;
+
+    private long position;
+
+    private long[] hashes = new long[1024];
+
+    private int[] offsets = new int[1024];
+
+    private int count = 0;
+
+    private boolean closed = false;
+
+    private boolean committed = false;
+
+    /**
+     * Starts writing a snapshot
+     * @param file where the snapshot will be, once the writer is committed
+     * @throws IOException
+     */
+    public EntitySnapshotWriter(Path file) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.tempFile = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        position = HEADER_SIZE;
+    }
+
+    /**
+     * Adds an entity to the snapshot. Each entity URI should only be written once.
+     * @param entity an entity with an id
+     * @throws IOException
+     * @throws IllegalStateException if the snapshot would be larger than 2GB
+     */
+    public void write(PassEntity entity) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("The snapshot has already been committed or closed");
+        }
+        if (entity == null || entity.getId() == null) {
+            throw new IllegalArgumentException("Only entities with an id can be written to a snapshot");
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream record = new DataOutputStream(bytes);
+        EntityEncoder.writeString(record, entity.getId().toString());
+        EntityEncoder.writeString(record, PassEntityType.getTypeByClass(entity.getClass()).getName());
+        List<Field> fields = EntityFields.of(entity.getClass());
+        record.writeInt(fields.size());
+        try {
+            for (Field field : fields) {
+                EntityEncoder.writeString(record, field.getName());
+                EntityEncoder.writeValue(record, field.get(entity));
+            }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Could not read the fields of " + entity.getId(), e);
+        }
+
+        long end = position + 4 + bytes.size();
+        if (end + (long) (count + 1) * INDEX_ENTRY_SIZE + TRAILER_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The snapshot cannot be larger than 2GB");
+        }
+
+        if (count == hashes.length) {
+            hashes = Arrays.copyOf(hashes, count * 2);
+            offsets = Arrays.copyOf(offsets, count * 2);
+        }
+        hashes[count] = hashUri(entity.getId().toString());
+        offsets[count] = (int) position;
+        count++;
+
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+        position = end;
+    }
+
+    /**
+     * @return the number of entities written so far
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Writes the index, and moves the snapshot into place. If this fails, the temporary file is deleted.
+     * @throws IOException
+     * @throws IllegalStateException if the writer has already been committed or closed
+     */
+    public void commit() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("The snapshot has already been committed or closed");
+        }
+        closed = true;
+
+        try {
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+
+            int indexOffset = (int) position;
+            for (Integer i : order) {
+                out.writeLong(hashes[i]);
+                out.writeInt(offsets[i]);
+            }
+            out.writeInt(count);
+            out.writeInt(indexOffset);
+            out.writeInt(MAGIC);
+            out.close();
+
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        } finally {
+            if (!committed) {
+                discard();
+            }
+        }
+    }
+
+    /**
+     * Deletes the temporary file if the snapshot has not been committed. Any existing snapshot is left as it was.
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        discard();
+    }
+
+    private void discard() throws IOException {
+        try {
+            out.close();
+        } catch (IOException e) {
+            // the file is being deleted, so what could not be written no longer matters
+        }
+        Files.deleteIfExists(tempFile);
+    }
+
+    static long hashUri(String uri) {
+        return XxHash64.hash(uri.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.model.support;
+
+/**
+ * Pure Java implementation of the 64-bit xxHash algorithm (XXH64). The result for a given input and seed is
+ * the same as that of the reference implementation, so it is stable across JVMs and releases, and can be
+ * stored or compared with hashes computed elsewhere.
+ * @author agent
+ */
+public final class XxHash64 {
+
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+    private XxHash64() {
+    }
+
+    /**
+     * Hashes all of the bytes provided with a seed of 0
+     * @param data
+     * @return the 64-bit hash
+     */
+    public static long hash(byte[] data) {
+        return hash(data, 0, data.length, 0);
+    }
+
+    /**
+     * Hashes a range of the bytes provided
+     * @param data
+     * @param offset index of the first byte to hash
+     * @param length number of bytes to hash
+     * @param seed
+     * @return the 64-bit hash
+     */
+    public static long hash(byte[] data, int offset, int length, long seed) {
+        if (offset < 0 || length < 0 || offset + length > data.length) {
+            throw new IndexOutOfBoundsException("Invalid offset or length for an array of " + data.length + " bytes");
+        }
+        int p = offset;
+        int end = offset + length;
+        long h64;
+
+        if (length >= 32) {
+            long v1 = seed + PRIME1 + PRIME2;
+            long v2 = seed + PRIME2;
+            long v3 = seed;
+            long v4 = seed - PRIME1;
+            int limit = end - 32;
+            do {
+                v1 = round(v1, getLong(data, p));
+                v2 = round(v2, getLong(data, p + 8));
+                v3 = round(v3, getLong(data, p + 16));
+                v4 = round(v4, getLong(data, p + 24));
+                p += 32;
+            } while (p <= limit);
+
+            h64 = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h64 = mergeRound(h64, v1);
+            h64 = mergeRound(h64, v2);
+            h64 = mergeRound(h64, v3);
+            h64 = mergeRound(h64, v4);
+        } else {
+            h64 = seed + PRIME5;
+        }
+
+        h64 += length;
+
+        while (p + 8 <= end) {
+            h64 ^= round(0, getLong(data, p));
+            h64 = Long.rotateLeft(h64, 27) * PRIME1 + PRIME4;
+            p += 8;
+        }
+        if (p + 4 <= end) {
+            h64 ^= (getInt(data, p) & 0xFFFFFFFFL) * PRIME1;
+            h64 = Long.rotateLeft(h64, 23) * PRIME2 + PRIME3;
+            p += 4;
+        }
+        while (p < end) {
+            h64 ^= (data[p] & 0xFF) * PRIME5;
+            h64 = Long.rotateLeft(h64, 11) * PRIME1;
+            p++;
+        }
+
+        h64 ^= h64 >>> 33;
+        h64 *= PRIME2;
+        h64 ^= h64 >>> 29;
+        h64 *= PRIME3;
+        h64 ^= h64 >>> 32;
+        return h64;
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * PRIME2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * PRIME1;
+    }
+
+    private static long mergeRound(long acc, long value) {
+        acc ^= round(0, value);
+        return acc * PRIME1 + PRIME4;
+    }
+
+    private static long getLong(byte[] b, int i) {
+        return (b[i] & 0xFFL)
+                | (b[i + 1] & 0xFFL) << 8
+                | (b[i + 2] & 0xFFL) << 16
+                | (b[i + 3] & 0xFFL) << 24
+                | (b[i + 4] & 0xFFL) << 32
+                | (b[i + 5] & 0xFFL) << 40
+                | (b[i + 6] & 0xFFL) << 48
+                | (b[i + 7] & 0xFFL) << 56;
+    }
+
+    private static int getInt(byte[] b, int i) {
+        return (b[i] & 0xFF)
+                | (b[i + 1] & 0xFF) << 8
+                | (b[i + 2] & 0xFF) << 16
+                | (b[i + 3] & 0xFF) << 24;
+    }
+
+}
@@ -27,6 +27,7 @@ import org.dataconservancy.pass.model.Deposit.DepositStatus;
 import org.json.JSONObject;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -100,6 +101,32 @@ public class DepositModelTests {
         
     }
     
+    /**
+     * Verify that setters flag their property as dirty, that id and version tag are not tracked, 
+     * and that the dirty fields can be cleared
+     * @throws Exception
+     */
+    @Test
+    public void testDepositDirtyFields() throws Exception {
+        Deposit deposit = createDeposit();
+        assertTrue(deposit.isDirty());
+        assertEquals(5, deposit.getDirtyFields().size());
+        assertTrue(deposit.getDirtyFields().contains("depositStatusRef"));
+        assertFalse(deposit.getDirtyFields().contains("id"));
+        
+        deposit.clearDirtyFields();
+        assertFalse(deposit.isDirty());
+        deposit.setVersionTag("abc");
+        assertFalse(deposit.isDirty());
+        
+        deposit.setDepositStatus(DepositStatus.ACCEPTED);
+        assertEquals(1, deposit.getDirtyFields().size());
+        assertTrue(deposit.getDirtyFields().contains("depositStatus"));
+        
+        //dirty fields are not part of equality
+        assertEquals(createDeposit().hashCode(), createDeposit().hashCode());
+    }
+    
     private Deposit createDeposit() throws Exception {
         Deposit deposit = new Deposit();
         deposit.setId(new URI(TestValues.DEPOSIT_ID_1));
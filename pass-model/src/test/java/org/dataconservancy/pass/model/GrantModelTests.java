@@ -20,6 +20,7 @@ import java.io.InputStream;
 import java.net.URI;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -28,11 +29,13 @@ import org.junit.Test;
 
 import org.dataconservancy.pass.model.Grant.AwardStatus;
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
 import org.joda.time.format.DateTimeFormatter;
 import org.joda.time.format.ISODateTimeFormat;
 import org.json.JSONObject;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -119,6 +122,36 @@ public class GrantModelTests {
         
     }
     
+    /**
+     * Verify that the fingerprint depends only on content, ignoring the id, version tag, list order and time 
+     * zone, and that it changes when a field is set
+     * @throws Exception
+     */
+    @Test
+    public void testGrantFingerprint() throws Exception {
+        Grant grant1 = createGrant();
+        Grant grant2 = createGrant();
+        assertEquals(grant1.fingerprint(), grant2.fingerprint());
+        
+        grant2.setId(new URI(TestValues.GRANT_ID_2));
+        grant2.setVersionTag("abc");
+        List<URI> coPis = new ArrayList<URI>(grant1.getCoPis());
+        Collections.reverse(coPis);
+        grant2.setCoPis(coPis);
+        grant2.setAwardDate(grant1.getAwardDate().withZone(DateTimeZone.forOffsetHours(5)));
+        assertEquals(grant1.fingerprint(), grant2.fingerprint());
+        
+        long before = grant2.fingerprint();
+        grant2.setProjectName("different");
+        assertNotEquals(before, grant2.fingerprint());
+        grant2.setProjectName(null);
+        assertNotEquals(before, grant2.fingerprint());
+        grant2.setProjectName(TestValues.GRANT_PROJECT_NAME);
+        assertEquals(before, grant2.fingerprint());
+        
+        assertEquals(grant1.fingerprint(), PassEntity.snapshot(grant1).fingerprint());
+    }
+    
     private Grant createGrant() throws Exception {
         Grant grant = new Grant();
         grant.setId(new URI(TestValues.GRANT_ID_1));
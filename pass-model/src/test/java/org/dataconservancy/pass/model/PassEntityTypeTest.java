@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for PassEntityType lookups
+ * @author agent
+ */
+public class PassEntityTypeTest {
+
+    /**
+     * Verify that every type can be found by name and by model class
+     */
+    @Test
+    public void testLookups() {
+        for (PassEntityType type : PassEntityType.values()) {
+            assertEquals(type.getName(), type.getModelClass().getSimpleName());
+            assertEquals(type, PassEntityType.getTypeByName(type.getName()));
+            assertEquals(type, PassEntityType.getTypeByClass(type.getModelClass()));
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testUnknownName() {
+        PassEntityType.getTypeByName("PassEntity");
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNullName() {
+        PassEntityType.getTypeByName(null);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testUnknownClass() {
+        PassEntityType.getTypeByClass(PassEntity.class);
+    }
+
+}
@@ -81,6 +81,42 @@ public class PublicationModelTests {
         assertEquals(root.getString("journal"),TestValues.JOURNAL_ID_1);
     }
     
+    /**
+     * Checks that each setter marks the JSON property name as dirty, including where it differs from the 
+     * field name, so that delta updates send the change
+     * @throws Exception
+     */
+    @Test
+    public void testDirtyFieldsAreJsonProperties() throws Exception {
+        Publication publication = createPublication();
+        JSONObject root = new JSONObject(new ObjectMapper().writeValueAsString(publication));
+
+        assertTrue(publication.getDirtyFields().contains("abstract"));
+        for (String field : publication.getDirtyFields()) {
+            assertTrue("No JSON property named " + field, root.has(field));
+        }
+    }
+    
+    /**
+     * Checks that merging carries over a change to a field whose JSON property name differs from its field name
+     * @throws Exception
+     */
+    @Test
+    public void testMergeAbstract() throws Exception {
+        Publication earlier = createPublication();
+        earlier.clearDirtyFields();
+        earlier.setPublicationAbstract("earlier");
+
+        Publication later = createPublication();
+        later.clearDirtyFields();
+        later.setTitle("later");
+
+        Publication merged = PassEntity.merge(earlier, later);
+        assertEquals("earlier", merged.getPublicationAbstract());
+        assertEquals("later", merged.getTitle());
+        assertTrue(merged.getDirtyFields().contains("abstract"));
+    }
+    
     /**
      * Creates two identical Publication and checks the equals and hashcodes match. 
      * Modifies one field on one of the publications and verifies they no longer are 
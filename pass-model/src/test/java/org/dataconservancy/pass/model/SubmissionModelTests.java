@@ -33,7 +33,10 @@ import org.joda.time.format.ISODateTimeFormat;
 import org.json.JSONObject;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Model has been annotated with JSON tags. These tests do a simple check to ensure the
@@ -117,6 +120,79 @@ public class SubmissionModelTests {
         
     }
     
+    /**
+     * Verify that a snapshot cannot be modified, is not affected by changes to the original, and can be
+     * converted back to a mutable copy
+     * @throws Exception
+     */
+    @Test
+    public void testSubmissionSnapshot() throws Exception {
+        Submission submission = createSubmission();
+        Submission snapshot = PassEntity.snapshot(submission);
+        
+        assertTrue(snapshot.isFrozen());
+        assertFalse(submission.isFrozen());
+        assertEquals(submission, snapshot);
+        assertEquals(submission.getDirtyFields(), snapshot.getDirtyFields());
+        assertSame(snapshot, PassEntity.snapshot(snapshot));
+        
+        submission.getGrants().add(new URI(TestValues.GRANT_ID_1));
+        assertEquals(2, snapshot.getGrants().size());
+        
+        try {
+            snapshot.setMetadata("changed");
+            fail("Setting a value on a snapshot should have thrown an exception");
+        } catch (IllegalStateException e) {
+            assertEquals(TestValues.SUBMISSION_METADATA, snapshot.getMetadata());
+        }
+        try {
+            snapshot.getRepositories().clear();
+            fail("Modifying a list of a snapshot should have thrown an exception");
+        } catch (UnsupportedOperationException e) {
+            assertEquals(2, snapshot.getRepositories().size());
+        }
+        
+        Submission copy = PassEntity.mutableCopy(snapshot);
+        assertFalse(copy.isFrozen());
+        assertEquals(snapshot, copy);
+        copy.setMetadata("changed");
+        copy.getRepositories().clear();
+        assertEquals(TestValues.SUBMISSION_METADATA, snapshot.getMetadata());
+        assertEquals(2, snapshot.getRepositories().size());
+    }
+    
+    /**
+     * Checks that merging keeps the later value of a field changed in both entities, and the earlier value of
+     * a field changed only in the earlier one
+     * @throws Exception
+     */
+    @Test
+    public void testMerge() throws Exception {
+        Submission earlier = createSubmission();
+        earlier.clearDirtyFields();
+        earlier.setMetadata("earlier");
+        earlier.setSubmitted(true);
+        earlier.setVersionTag("v1");
+        
+        Submission later = PassEntity.mutableCopy(createSubmission());
+        later.clearDirtyFields();
+        later.setMetadata("later");
+        later.setSubmitted(false);
+        later.setVersionTag("v2");
+        later.clearDirtyFields();
+        later.setMetadata("later");
+        
+        Submission merged = PassEntity.merge(earlier, later);
+        assertEquals("later", merged.getMetadata());
+        assertEquals(true, merged.getSubmitted());
+        assertEquals("v2", merged.getVersionTag());
+        assertTrue(merged.getDirtyFields().contains("metadata"));
+        assertTrue(merged.getDirtyFields().contains("submitted"));
+        assertEquals(2, merged.getDirtyFields().size());
+        assertEquals(false, later.getSubmitted());
+        assertEquals(1, later.getDirtyFields().size());
+    }
+    
     private Submission createSubmission() throws Exception {
         Submission submission = new Submission();
         submission.setId(new URI(TestValues.SUBMISSION_ID_1));
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.model.support;
+
+import java.net.URI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.Test;
+
+import org.dataconservancy.pass.model.PassEntity;
+import org.dataconservancy.pass.model.Submission;
+import org.dataconservancy.pass.model.TestValues;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for CompactUriList
+ * @author agent
+ */
+public class CompactUriListTest {
+
+    private static final String BASE = "https://example.com/fedora/";
+
+    /**
+     * Verify that the list holds the same URIs as a regular list, including URIs that do not start with the base
+     * @throws Exception
+     */
+    @Test
+    public void testListOperations() throws Exception {
+        List<URI> uris = Arrays.asList(new URI(BASE + "grants/1"), new URI("urn:uuid:2"), new URI(BASE + "grants/3"));
+        CompactUriList compact = new CompactUriList(BASE, uris);
+
+        assertEquals(uris, compact);
+        assertEquals(uris.hashCode(), compact.hashCode());
+        assertEquals(new URI(BASE + "grants/3"), compact.get(2));
+        assertEquals(new URI("urn:uuid:2"), compact.get(1));
+
+        compact.add(new URI(BASE + "grants/4"));
+        compact.set(0, new URI(BASE + "users/5"));
+        compact.remove(new URI("urn:uuid:2"));
+        assertEquals(Arrays.asList(new URI(BASE + "users/5"), new URI(BASE + "grants/3"), new URI(BASE + "grants/4")),
+                compact);
+        assertTrue(compact.contains(new URI(BASE + "grants/4")));
+        assertFalse(compact.contains(new URI(BASE)));
+    }
+
+    /**
+     * Verify that lists with the same base share a single copy of it
+     * @throws Exception
+     */
+    @Test
+    public void testBaseIsShared() throws Exception {
+        CompactUriList list1 = new CompactUriList(new String(BASE));
+        CompactUriList list2 = new CompactUriList(new String(BASE));
+        assertTrue(list1.getBase() == list2.getBase());
+    }
+
+    /**
+     * Verify that compacting the references of an entity leaves its values and JSON unchanged, and survives
+     * taking a snapshot
+     * @throws Exception
+     */
+    @Test
+    public void testCompactReferences() throws Exception {
+        Submission submission = new Submission();
+        submission.setId(new URI(TestValues.SUBMISSION_ID_1));
+        submission.setGrants(new ArrayList<URI>(Arrays.asList(new URI(BASE + "grants/1"), new URI(BASE + "grants/2"))));
+        submission.setRepositories(new ArrayList<URI>(Arrays.asList(new URI(BASE + "repositories/1"))));
+        submission.clearDirtyFields();
+
+        ObjectMapper mapper = new ObjectMapper();
+        String json = mapper.writeValueAsString(submission);
+        List<URI> grants = new ArrayList<URI>(submission.getGrants());
+
+        submission.compactReferences(BASE);
+
+        assertTrue(submission.getGrants() instanceof CompactUriList);
+        assertTrue(submission.getRepositories() instanceof CompactUriList);
+        assertEquals(grants, submission.getGrants());
+        assertEquals(json, mapper.writeValueAsString(submission));
+        assertFalse(submission.isDirty());
+
+        Submission snapshot = PassEntity.snapshot(submission);
+        assertEquals(grants, snapshot.getGrants());
+        assertFalse(((CompactUriList) snapshot.getGrants()).isModifiable());
+        try {
+            snapshot.getGrants().add(new URI(BASE + "grants/3"));
+            fail("Modifying a list of a snapshot should have thrown an exception");
+        } catch (UnsupportedOperationException e) {
+            assertEquals(2, snapshot.getGrants().size());
+        }
+        assertEquals(submission, PassEntity.mutableCopy(snapshot));
+        assertTrue(PassEntity.mutableCopy(snapshot).getGrants() instanceof CompactUriList);
+    }
+
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.model.support;
+
+import java.io.InputStream;
+
+import java.net.URI;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.dataconservancy.pass.model.Contributor;
+import org.dataconservancy.pass.model.Deposit;
+import org.dataconservancy.pass.model.File;
+import org.dataconservancy.pass.model.Funder;
+import org.dataconservancy.pass.model.Grant;
+import org.dataconservancy.pass.model.Journal;
+import org.dataconservancy.pass.model.PassEntity;
+import org.dataconservancy.pass.model.Policy;
+import org.dataconservancy.pass.model.Publication;
+import org.dataconservancy.pass.model.Publisher;
+import org.dataconservancy.pass.model.Repository;
+import org.dataconservancy.pass.model.RepositoryCopy;
+import org.dataconservancy.pass.model.Submission;
+import org.dataconservancy.pass.model.TestValues;
+import org.dataconservancy.pass.model.User;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for writing and reading entity snapshots
+ * @author agent
+ */
+public class EntitySnapshotStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Writes one entity of each type and verifies each reads back the same
+     * @throws Exception
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+        List<PassEntity> entities = new ArrayList<PassEntity>();
+        entities.add(read("/contributor.json", Contributor.class));
+        entities.add(read("/deposit.json", Deposit.class));
+        entities.add(read("/file.json", File.class));
+        entities.add(read("/funder.json", Funder.class));
+        entities.add(read("/grant.json", Grant.class));
+        entities.add(read("/journal.json", Journal.class));
+        entities.add(read("/policy.json", Policy.class));
+        entities.add(read("/publication.json", Publication.class));
+        entities.add(read("/publisher.json", Publisher.class));
+        entities.add(read("/repository.json", Repository.class));
+        entities.add(read("/repositorycopy.json", RepositoryCopy.class));
+        entities.add(read("/submission.json", Submission.class));
+        entities.add(read("/user.json", User.class));
+
+        Path file = folder.getRoot().toPath().resolve("entities.snapshot");
+        try (EntitySnapshotWriter writer = new EntitySnapshotWriter(file)) {
+            for (PassEntity entity : entities) {
+                writer.write(entity);
+            }
+            writer.commit();
+        }
+
+        try (EntitySnapshotStore store = new EntitySnapshotStore(file)) {
+            assertEquals(entities.size(), store.size());
+            for (PassEntity entity : entities) {
+                assertTrue(store.contains(entity.getId()));
+                PassEntity stored = store.get(entity.getId());
+                assertEquals(entity, stored);
+                assertFalse(stored.isDirty());
+            }
+
+            Grant grant = store.get(new URI(TestValues.GRANT_ID_1), Grant.class);
+            assertEquals(Grant.AwardStatus.of(TestValues.GRANT_STATUS), grant.getAwardStatus());
+            assertEquals(2, grant.getCoPis().size());
+
+            assertNull(store.get(new URI("http://example.org/not/in/snapshot")));
+
+            List<PassEntity> all = new ArrayList<PassEntity>();
+            store.forEach(all::add);
+            assertEquals(entities, all);
+        }
+    }
+
+    /**
+     * Verifies that many entities with similar URIs can be looked up
+     * @throws Exception
+     */
+    @Test
+    public void testManyEntities() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("users.snapshot");
+        try (EntitySnapshotWriter writer = new EntitySnapshotWriter(file)) {
+            for (int i = 0; i < 5000; i++) {
+                User user = new User();
+                user.setId(new URI("http://example.org/users/" + i));
+                user.setFirstName("First" + i);
+                writer.write(user);
+            }
+            writer.commit();
+        }
+
+        try (EntitySnapshotStore store = new EntitySnapshotStore(file)) {
+            assertEquals(5000, store.size());
+            for (int i = 0; i < 5000; i += 7) {
+                assertEquals("First" + i, store.get(new URI("http://example.org/users/" + i), User.class).getFirstName());
+            }
+            assertFalse(store.contains(new URI("http://example.org/users/5000")));
+        }
+    }
+
+    /**
+     * A writer closed without being committed, as when writing fails part way, deletes its temporary file and 
+     * leaves the existing snapshot in place
+     * @throws Exception
+     */
+    @Test
+    public void testFailedWriteKeepsSnapshot() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("users.snapshot");
+        User user = new User();
+        user.setId(new URI("http://example.org/users/1"));
+        try (EntitySnapshotWriter writer = new EntitySnapshotWriter(file)) {
+            writer.write(user);
+            writer.commit();
+        }
+
+        try (EntitySnapshotWriter writer = new EntitySnapshotWriter(file)) {
+            User other = new User();
+            other.setId(new URI("http://example.org/users/2"));
+            writer.write(other);
+            writer.write(new User());
+            fail("Expected an entity without an id to be rejected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        assertFalse(Files.exists(file.resolveSibling("users.snapshot.tmp")));
+        try (EntitySnapshotStore store = new EntitySnapshotStore(file)) {
+            assertEquals(1, store.size());
+            assertEquals(user, store.get(user.getId()));
+        }
+    }
+
+    @Test(expected=java.io.IOException.class)
+    public void testNotASnapshot() throws Exception {
+        Path file = folder.newFile("other.txt").toPath();
+        Files.write(file, "this is not a snapshot file".getBytes());
+        new EntitySnapshotStore(file).close();
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testEntityWithoutId() throws Exception {
+        try (EntitySnapshotWriter writer = new EntitySnapshotWriter(folder.getRoot().toPath().resolve("bad.snapshot"))) {
+            writer.write(new User());
+        }
+    }
+
+    private static <T extends PassEntity> T read(String resource, Class<T> modelClass) throws Exception {
+        try (InputStream json = EntitySnapshotStoreTest.class.getResourceAsStream(resource)) {
+            return new ObjectMapper().readValue(json, modelClass);
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2018 Johns Hopkins University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.dataconservancy.pass.model.support;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks XxHash64 against results of the reference implementation
+ * @author agent
+ */
+public class XxHash64Test {
+
+    @Test
+    public void testReferenceValues() {
+        assertEquals(0xEF46DB3751D8E999L, XxHash64.hash(bytes("")));
+        assertEquals(0xD24EC4F1A98C6E5BL, XxHash64.hash(bytes("a")));
+        assertEquals(0x44BC2CF5AD770999L, XxHash64.hash(bytes("abc")));
+        assertEquals(0xFBCEA83C8A378BF1L, XxHash64.hash(bytes("Nobody inspects the spammish repetition")));
+    }
+
+    @Test
+    public void testRange() {
+        byte[] data = bytes("xxabcxx");
+        assertEquals(XxHash64.hash(bytes("abc")), XxHash64.hash(data, 2, 3, 0));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+}